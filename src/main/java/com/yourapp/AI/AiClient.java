@@ -56,9 +56,11 @@ public class AiClient {
     private int retryBackoffDelay;
 
     private final RestTemplate restTemplate;
+    private final AiConcurrencyLimiter concurrencyLimiter;
     private boolean forceSimulation = false;
 
-    public AiClient() {
+    public AiClient(AiConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
         // Configuration du RestTemplate avec timeout personnalisé
         this.restTemplate = createRestTemplateWithTimeout();
     }
@@ -300,7 +302,9 @@ public class AiClient {
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
         log.debug("🌐 Envoi HTTP POST à: {}", url);
 
-        ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
+        // Seul l'appel HTTP occupe une place du limiteur, pas les attentes entre deux tentatives
+        ResponseEntity<Map> response = concurrencyLimiter.call(
+                () -> restTemplate.exchange(url, HttpMethod.POST, entity, Map.class));
 
         if (!response.getStatusCode().is2xxSuccessful()) {
             throw new RuntimeException("Réponse API invalide, code HTTP : " + response.getStatusCode());
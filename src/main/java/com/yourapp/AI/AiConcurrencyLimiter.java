@@ -0,0 +1,58 @@
+package com.yourapp.AI;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Limite le nombre de requêtes simultanées vers le fournisseur IA
+ * Les analyses parallèles (plusieurs documents, plusieurs audits) se partagent ces places:
+ * au-delà, les requêtes attendent leur tour dans l'ordre d'arrivée au lieu de saturer le serveur
+ */
+@Component
+@Slf4j
+public class AiConcurrencyLimiter {
+
+    @Value("${ai.max-concurrent-requests:2}")
+    private int maxConcurrentRequests;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    void initPermits() {
+        permits = new Semaphore(Math.max(1, maxConcurrentRequests), true);
+        log.info("🚦 Requêtes IA simultanées limitées à {}", maxConcurrentRequests);
+    }
+
+    /**
+     * Exécuter un appel au fournisseur dès qu'une place est libre
+     */
+    public <T> T call(Supplier<T> request) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Attente d'une place pour la requête IA interrompue", e);
+        }
+        try {
+            return request.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * Requêtes en attente d'une place (estimation)
+     */
+    public int getQueueLength() {
+        return permits.getQueueLength();
+    }
+}
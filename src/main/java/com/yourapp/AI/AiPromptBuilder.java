@@ -1,6 +1,7 @@
 package com.yourapp.AI;
 
 import com.yourapp.model.AuditTemplate;
+import com.yourapp.services.ExtractedContent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 /**
@@ -18,7 +19,105 @@ public class AiPromptBuilder {
         log.info("Construction du prompt pour le document: {}", documentName);
 
         StringBuilder prompt = new StringBuilder();
+        appendHeader(prompt, template, false);
 
+        // Document à analyser
+        prompt.append("=== DOCUMENT À ANALYSER ===\n");
+        prompt.append("Nom du document: ").append(documentName).append("\n\n");
+        prompt.append("Contenu:\n");
+        prompt.append("---\n");
+        prompt.append(documentContent).append("\n");
+        prompt.append("---\n\n");
+
+        // Instructions finales
+        prompt.append("Analyse ce document attentivement et identifie TOUS les problèmes. ");
+        prompt.append("Sois précis dans tes descriptions et tes suggestions. ");
+        prompt.append("Indique le numéro de page et de paragraphe si possible. ");
+        prompt.append("Réponds UNIQUEMENT avec le JSON structuré, sans texte avant ou après.\n");
+
+        log.debug("Prompt construit avec succès. Longueur: {} caractères", prompt.length());
+
+        return prompt.toString();
+    }
+
+    /**
+     * Construire le prompt d'analyse d'une tranche de paragraphes [fromParagraph, toParagraph[
+     * Chaque paragraphe est précédé de son repère [§n] (numérotation globale au document),
+     * que l'IA renvoie dans paragraphRef pour une localisation exacte
+     */
+    public String buildPrompt(AuditTemplate template, ExtractedContent content, String documentName,
+                              int fromParagraph, int toParagraph) {
+        log.info("Construction du prompt pour le document: {} (paragraphes {} à {} sur {})",
+                documentName, fromParagraph + 1, toParagraph, content.getParagraphCount());
+
+        StringBuilder prompt = new StringBuilder();
+        appendHeader(prompt, template, true);
+
+        // Document à analyser
+        prompt.append("=== DOCUMENT À ANALYSER ===\n");
+        prompt.append("Nom du document: ").append(documentName).append("\n");
+        if (fromParagraph > 0 || toParagraph < content.getParagraphCount()) {
+            prompt.append("Extrait: paragraphes [§").append(fromParagraph + 1)
+                    .append("] à [§").append(toParagraph).append("]\n");
+        }
+        prompt.append("\nContenu:\n");
+        appendParagraphs(prompt, content, fromParagraph, toParagraph);
+
+        // Instructions finales
+        prompt.append("Analyse ce document attentivement et identifie TOUS les problèmes. ");
+        prompt.append("Sois précis dans tes descriptions et tes suggestions. ");
+        prompt.append("Pour chaque problème, indique dans paragraphRef le numéro du repère [§n] du paragraphe concerné. ");
+        prompt.append("Réponds UNIQUEMENT avec le JSON structuré, sans texte avant ou après.\n");
+
+        log.debug("Prompt construit avec succès. Longueur: {} caractères", prompt.length());
+
+        return prompt.toString();
+    }
+
+    /**
+     * Construire un prompt personnalisé pour une tranche de paragraphes [fromParagraph, toParagraph[
+     * Le contenu porte les mêmes repères [§n] que buildPrompt, pour que les issues soient localisées
+     */
+    public String buildCustomPrompt(String customPrompt, ExtractedContent content, String documentName,
+                                    int fromParagraph, int toParagraph) {
+        log.info("Construction du prompt personnalisé pour le document: {} (paragraphes {} à {} sur {})",
+                documentName, fromParagraph + 1, toParagraph, content.getParagraphCount());
+
+        StringBuilder prompt = new StringBuilder(customPrompt);
+        prompt.append("\n\nContenu du document");
+        if (fromParagraph > 0 || toParagraph < content.getParagraphCount()) {
+            prompt.append(" (extrait: paragraphes [§").append(fromParagraph + 1)
+                    .append("] à [§").append(toParagraph).append("])");
+        }
+        prompt.append(":\n");
+        appendParagraphs(prompt, content, fromParagraph, toParagraph);
+        prompt.append("Pour chaque problème, indique dans paragraphRef le numéro du repère [§n] du paragraphe concerné.\n");
+
+        return prompt.toString();
+    }
+
+    /**
+     * Paragraphes de la tranche, chacun précédé de son repère [§n] global, avec les changements de page
+     */
+    private void appendParagraphs(StringBuilder prompt, ExtractedContent content, int fromParagraph, int toParagraph) {
+        prompt.append("---\n");
+
+        int currentPage = -1;
+        for (int p = fromParagraph; p < toParagraph; p++) {
+            int page = content.pageOfParagraph(p);
+            if (page != currentPage && content.getPageCount() > 1) {
+                prompt.append("=== ").append(content.getPageLabel(page)).append(" ===\n");
+            }
+            currentPage = page;
+            prompt.append("[§").append(p + 1).append("] ").append(content.paragraphText(p)).append("\n\n");
+        }
+        prompt.append("---\n\n");
+    }
+
+    /**
+     * En-tête commun: rôle, modèle d'analyse, format de réponse et types de problèmes
+     */
+    private void appendHeader(StringBuilder prompt, AuditTemplate template, boolean withParagraphRef) {
         // En-tête du prompt
         prompt.append("Tu es un assistant d'audit documentaire spécialisé. ");
         prompt.append("Ta tâche est d'analyser le document fourni et d'identifier tous les problèmes selon les critères définis.\n\n");
@@ -45,8 +144,12 @@ public class AiPromptBuilder {
         prompt.append("    {\n");
         prompt.append("      \"issueType\": \"Type du problème\",\n");
         prompt.append("      \"description\": \"Description détaillée du problème\",\n");
-        prompt.append("      \"pageNumber\": 1,\n");
-        prompt.append("      \"paragraphNumber\": 2,\n");
+        if (withParagraphRef) {
+            prompt.append("      \"paragraphRef\": 12,\n");
+        } else {
+            prompt.append("      \"pageNumber\": 1,\n");
+            prompt.append("      \"paragraphNumber\": 2,\n");
+        }
         prompt.append("      \"suggestion\": \"Suggestion d'amélioration ou correction\"\n");
         prompt.append("    }\n");
         prompt.append("  ]\n");
@@ -60,24 +163,6 @@ public class AiPromptBuilder {
         prompt.append("- Incohérence dans le contenu\n");
         prompt.append("- Problème de structure\n");
         prompt.append("- Erreur grammaticale ou orthographique\n\n");
-
-        // Document à analyser
-        prompt.append("=== DOCUMENT À ANALYSER ===\n");
-        prompt.append("Nom du document: ").append(documentName).append("\n\n");
-        prompt.append("Contenu:\n");
-        prompt.append("---\n");
-        prompt.append(documentContent).append("\n");
-        prompt.append("---\n\n");
-
-        // Instructions finales
-        prompt.append("Analyse ce document attentivement et identifie TOUS les problèmes. ");
-        prompt.append("Sois précis dans tes descriptions et tes suggestions. ");
-        prompt.append("Indique le numéro de page et de paragraphe si possible. ");
-        prompt.append("Réponds UNIQUEMENT avec le JSON structuré, sans texte avant ou après.\n");
-
-        log.debug("Prompt construit avec succès. Longueur: {} caractères", prompt.length());
-
-        return prompt.toString();
     }
 
     /**
@@ -176,6 +261,14 @@ public class AiPromptBuilder {
         return basePrompt + "\n\n=== INSTRUCTIONS SUPPLÉMENTAIRES ===\n" + additionalInstructions + "\n";
     }
 
+    /**
+     * Estimation du nombre de tokens d'un texte (environ 4 caractères par token)
+     * Suffisant pour dimensionner les prompts sans dépendre du tokenizer du fournisseur
+     */
+    public int estimateTokens(CharSequence text) {
+        return (text.length() + 3) / 4;
+    }
+
     /**
      * Limiter la longueur du contenu pour éviter de dépasser les limites de tokens
      */
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.yourapp.model.AuditIssue;
 import com.yourapp.model.Audit;
 import com.yourapp.model.AuditDocument;
+import com.yourapp.services.ExtractedContent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -29,6 +30,15 @@ public class AiResponseParser {
      * Parser la réponse JSON de l'IA et créer des objets AuditIssue
      */
     public List<AuditIssue> parseResponse(String aiResponse, Audit audit, AuditDocument document) {
+        return parseResponse(aiResponse, audit, document, null);
+    }
+
+    /**
+     * Parser la réponse JSON de l'IA en résolvant les repères [§n] via l'index de structure du document
+     * Les numéros de page et de paragraphe sont alors calculés, et non plus estimés par l'IA
+     */
+    public List<AuditIssue> parseResponse(String aiResponse, Audit audit, AuditDocument document,
+                                          ExtractedContent structure) {
         log.info("Parsing de la réponse IA pour l'audit {}", audit.getId());
 
         List<AuditIssue> issues = new ArrayList<>();
@@ -50,7 +60,7 @@ public class AiResponseParser {
 
             // Parcourir tous les problèmes
             for (JsonNode issueNode : issuesNode) {
-                AuditIssue issue = parseIssueNode(issueNode, audit, document);
+                AuditIssue issue = parseIssueNode(issueNode, audit, document, structure);
                 if (issue != null) {
                     issues.add(issue);
                 }
@@ -71,7 +81,8 @@ public class AiResponseParser {
     /**
      * Parser un nœud JSON représentant un problème
      */
-    private AuditIssue parseIssueNode(JsonNode issueNode, Audit audit, AuditDocument document) {
+    private AuditIssue parseIssueNode(JsonNode issueNode, Audit audit, AuditDocument document,
+                                      ExtractedContent structure) {
         try {
             String issueType = getTextValue(issueNode, "issueType", "Problème détecté");
             String description = getTextValue(issueNode, "description");
@@ -79,6 +90,17 @@ public class AiResponseParser {
             Integer pageNumber = getIntValue(issueNode, "pageNumber");
             Integer paragraphNumber = getIntValue(issueNode, "paragraphNumber");
 
+            // Localisation exacte à partir du repère de paragraphe
+            Integer paragraphRef = getParagraphRef(issueNode);
+            if (structure != null && paragraphRef != null
+                    && paragraphRef >= 1 && paragraphRef <= structure.getParagraphCount()) {
+                int paragraphIndex = paragraphRef - 1;
+                pageNumber = structure.pageOfParagraph(paragraphIndex);
+                paragraphNumber = structure.paragraphNumberInPage(paragraphIndex);
+            } else if (paragraphRef != null) {
+                log.debug("Repère de paragraphe invalide ignoré: {}", paragraphRef);
+            }
+
             // Créer l'issue
             AuditIssue issue = new AuditIssue();
             issue.setAudit(audit);
@@ -157,6 +179,21 @@ public class AiResponseParser {
         return null;
     }
 
+    /**
+     * Extraire le repère de paragraphe, accepté sous forme de nombre ou de texte ("§12", "[§12]")
+     */
+    private Integer getParagraphRef(JsonNode node) {
+        JsonNode fieldNode = node.get("paragraphRef");
+        if (fieldNode == null || fieldNode.isNull()) {
+            return null;
+        }
+        if (fieldNode.isNumber()) {
+            return fieldNode.asInt();
+        }
+        String digits = fieldNode.asText().replaceAll("\\D", "");
+        return digits.isEmpty() || digits.length() > 9 ? null : Integer.valueOf(digits);
+    }
+
     /**
      * Parser une réponse en texte simple (fallback)
      */
@@ -1,6 +1,8 @@
 package com.yourapp.API;
 
+import com.yourapp.DAO.AuditIssueRepository;
 import com.yourapp.dto.AuditIssueDto;
+import com.yourapp.services.AuditIssueService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -19,8 +21,7 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class AuditIssueController {
 
-    // Injecter le service ici
-    // private final AuditIssueService issueService;
+    private final AuditIssueService issueService;
 
     /**
      * Récupérer un problème par son ID
@@ -51,9 +52,8 @@ public class AuditIssueController {
     public ResponseEntity<Page<AuditIssueDto>> getIssuesByAuditPaginated(
             @PathVariable Long auditId,
             Pageable pageable) {
-        // Page<AuditIssueDto> issues = issueService.getIssuesByAudit(auditId, pageable);
-        // return ResponseEntity.ok(issues);
-        return ResponseEntity.ok(null);
+        Page<AuditIssueDto> issues = issueService.getIssuesByAudit(auditId, pageable);
+        return ResponseEntity.ok(issues);
     }
 
     /**
@@ -68,19 +68,22 @@ public class AuditIssueController {
     }
 
     /**
-     * Filtrer les problèmes par type
+     * Filtrer les problèmes (type, statut, document, page du document, texte libre) avec pagination
      */
     @GetMapping("/audit/{auditId}/filter")
-    public ResponseEntity<List<AuditIssueDto>> filterIssues(
+    public ResponseEntity<Page<AuditIssueDto>> filterIssues(
             @PathVariable Long auditId,
             @RequestParam(required = false) String issueType,
-            @RequestParam(required = false) String severity,
-            @RequestParam(required = false) String category,
-            @RequestParam(required = false) Boolean resolved) {
-        // List<AuditIssueDto> issues = issueService.filterIssues(
-        //     auditId, issueType, severity, category, resolved);
-        // return ResponseEntity.ok(issues);
-        return ResponseEntity.ok(null);
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Boolean resolved,
+            @RequestParam(required = false) Long documentId,
+            @RequestParam(required = false) Integer pageNumber,
+            @RequestParam(required = false) String q,
+            Pageable pageable) {
+        AuditIssueRepository.IssueFilter filter =
+                new AuditIssueRepository.IssueFilter(issueType, status, resolved, documentId, pageNumber, q);
+        Page<AuditIssueDto> issues = issueService.filterIssues(auditId, filter, pageable);
+        return ResponseEntity.ok(issues);
     }
 
     /**
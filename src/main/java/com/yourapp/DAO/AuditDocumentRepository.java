@@ -2,10 +2,14 @@ package com.yourapp.DAO;
 
 import com.yourapp.model.AuditDocument;
 import com.yourapp.model.Audit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +23,9 @@ public interface AuditDocumentRepository
 
     List<AuditDocument> findByAuditId(Long auditId);
 
+    // Documents de plusieurs audits en une requête (assemblage des DTO par lot)
+    List<AuditDocument> findByAuditIdIn(Collection<Long> auditIds);
+
     Optional<AuditDocument> findByDocumentNameAndAuditId(
             String documentName,
             Long auditId
@@ -32,4 +39,22 @@ public interface AuditDocumentRepository
     List<AuditDocument> findByAuditIdOrderByUploadedAtDesc(Long auditId);
 
     void deleteByAuditId(Long auditId);
+
+    // Nombre de documents partageant un même blob (comptage des références)
+    long countByContentHash(String contentHash);
+
+    // Blobs référencés par les documents d'un audit / d'un projet (collectés après leur suppression)
+    @Query("SELECT DISTINCT d.contentHash FROM AuditDocument d WHERE d.audit.id = :auditId AND d.contentHash IS NOT NULL")
+    List<String> findContentHashesByAuditId(@Param("auditId") Long auditId);
+
+    @Query("SELECT DISTINCT d.contentHash FROM AuditDocument d " +
+            "WHERE (d.projectId = :projectId OR d.audit.projectId = :projectId) AND d.contentHash IS NOT NULL")
+    List<String> findContentHashesByProjectId(@Param("projectId") Long projectId);
+
+    @Query("SELECT d.documentName FROM AuditDocument d WHERE d.audit.id = :auditId ORDER BY d.documentName")
+    List<String> findDocumentNamesByAuditId(@Param("auditId") Long auditId);
+
+    // Derniers documents importés, avec leur audit (nom du projet affiché dans le dashboard)
+    @Query("SELECT d FROM AuditDocument d LEFT JOIN FETCH d.audit ORDER BY d.uploadedAt DESC NULLS LAST")
+    List<AuditDocument> findRecentWithAudit(Pageable pageable);
 }
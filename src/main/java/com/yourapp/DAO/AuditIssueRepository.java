@@ -3,7 +3,12 @@ package com.yourapp.DAO;
 import com.yourapp.model.AuditIssue;
 import com.yourapp.model.Audit;
 import com.yourapp.model.AuditDocument;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,7 +18,24 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 @Repository
-public interface AuditIssueRepository extends JpaRepository<AuditIssue, Integer> {
+public interface AuditIssueRepository extends JpaRepository<AuditIssue, Integer>,
+        JpaSpecificationExecutor<AuditIssue> {
+
+    /**
+     * Critères de filtrage des problèmes (voir AuditIssueSpecifications); null = pas de filtre
+     */
+    record IssueFilter(String issueType, String status, Boolean resolved, Long documentId,
+                       Integer pageNumber, String text) {
+
+        public static IssueFilter none() {
+            return new IssueFilter(null, null, null, null, null, null);
+        }
+    }
+
+    // 🔹 Page de problèmes filtrée par la base, document chargé dans la même requête (nom affiché)
+    @Override
+    @EntityGraph(attributePaths = "document")
+    Page<AuditIssue> findAll(Specification<AuditIssue> spec, Pageable pageable);
 
     @Modifying
     @Transactional
@@ -37,4 +59,15 @@ public interface AuditIssueRepository extends JpaRepository<AuditIssue, Integer>
 
     // 🔹 Issues d’une page précise dans un document
     List<AuditIssue> findByDocumentAndPageNumber(AuditDocument document, Integer pageNumber);
+
+    // 🔹 Colonnes utiles au fichier de rapport, sans entité ni association
+    interface ReportLine {
+        String getIssueType();
+        String getDescription();
+        String getSuggestion();
+    }
+
+    @Query("SELECT i.issueType AS issueType, i.description AS description, i.suggestion AS suggestion " +
+            "FROM AuditIssue i WHERE i.audit.id = :auditId ORDER BY i.id")
+    List<ReportLine> findReportLinesByAuditId(@Param("auditId") Long auditId);
 }
@@ -0,0 +1,60 @@
+package com.yourapp.DAO;
+
+import com.yourapp.model.AuditIssue;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Critères de recherche des problèmes d'audit, traduits en prédicats SQL
+ * (le filtrage et la pagination se font dans la base, pas en mémoire)
+ */
+public final class AuditIssueSpecifications {
+
+    // Statuts considérés comme résolus
+    private static final List<String> RESOLVED_STATUSES = List.of("Resolved", "Closed");
+
+    private AuditIssueSpecifications() {
+    }
+
+    /**
+     * Problèmes d'un audit correspondant au filtre; un critère null ou vide est ignoré
+     */
+    public static Specification<AuditIssue> forAudit(Long auditId, AuditIssueRepository.IssueFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("audit").get("id"), auditId));
+
+            if (filter.issueType() != null && !filter.issueType().isBlank()) {
+                predicates.add(cb.equal(root.get("issueType"), filter.issueType()));
+            }
+            if (filter.status() != null && !filter.status().isBlank()) {
+                predicates.add(cb.equal(root.get("status"), filter.status()));
+            }
+            if (filter.resolved() != null) {
+                Predicate resolved = root.get("status").in(RESOLVED_STATUSES);
+                predicates.add(filter.resolved() ? resolved : cb.or(cb.not(resolved), cb.isNull(root.get("status"))));
+            }
+            if (filter.documentId() != null) {
+                predicates.add(cb.equal(root.get("document").get("id"), filter.documentId()));
+            }
+            if (filter.pageNumber() != null) {
+                predicates.add(cb.equal(root.get("pageNumber"), filter.pageNumber()));
+            }
+            if (filter.text() != null && !filter.text().isBlank()) {
+                String pattern = "%" + escapeLike(filter.text().trim().toLowerCase()) + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("description")), pattern, '!'),
+                        cb.like(cb.lower(root.get("suggestion")), pattern, '!'),
+                        cb.like(cb.lower(root.get("issueType")), pattern, '!')));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
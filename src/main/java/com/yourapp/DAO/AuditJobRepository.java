@@ -0,0 +1,20 @@
+package com.yourapp.DAO;
+
+import com.yourapp.model.AuditJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AuditJobRepository extends JpaRepository<AuditJob, Long> {
+
+    // Jobs à reprendre au démarrage (QUEUED, RUNNING)
+    List<AuditJob> findByStatusInOrderByIdAsc(Collection<String> statuses);
+
+    Optional<AuditJob> findFirstByAuditIdAndStatusIn(Long auditId, Collection<String> statuses);
+
+    Optional<AuditJob> findFirstByAuditIdOrderByIdDesc(Long auditId);
+}
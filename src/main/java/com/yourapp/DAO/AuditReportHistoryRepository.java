@@ -0,0 +1,41 @@
+package com.yourapp.DAO;
+
+import com.yourapp.dto.AuditHistoryRowDto;
+
+import java.util.List;
+
+/**
+ * Requêtes de l'écran Historique: lignes légères (pas d'entités), filtrées et triées par la base,
+ * paginées par clé (keyset) sur (colonne de tri, id du rapport)
+ */
+public interface AuditReportHistoryRepository {
+
+    enum SortField { DATE, PROJECT_NAME, STATUS }
+
+    /**
+     * Critères de l'historique; search et partner sont ignorés s'ils sont vides
+     */
+    record HistoryFilter(String search, String partner, SortField sort, boolean ascending) {}
+
+    /**
+     * Position après la dernière ligne lue: valeur de la colonne de tri et id du rapport
+     */
+    record HistoryCursor(Object sortValue, Long reportId) {
+
+        public static HistoryCursor after(AuditHistoryRowDto row, SortField sort) {
+            Object value = switch (sort) {
+                case DATE -> row.getGeneratedAt();
+                case PROJECT_NAME -> row.getProjectName() != null ? row.getProjectName() : "";
+                case STATUS -> row.getStatus();
+            };
+            return new HistoryCursor(value, row.getReportId());
+        }
+    }
+
+    /**
+     * Lignes suivant le curseur (null = première page), au plus limit
+     */
+    List<AuditHistoryRowDto> findHistoryRows(HistoryFilter filter, HistoryCursor after, int limit);
+
+    long countHistoryRows(HistoryFilter filter);
+}
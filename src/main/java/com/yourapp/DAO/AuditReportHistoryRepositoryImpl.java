@@ -0,0 +1,106 @@
+package com.yourapp.DAO;
+
+import com.yourapp.dto.AuditHistoryRowDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implémentation JPQL des requêtes de l'historique (fragment de AuditReportRepository)
+ * Le tri et le filtre ne viennent que de valeurs fixes: aucune saisie n'est concaténée à la requête
+ */
+public class AuditReportHistoryRepositoryImpl implements AuditReportHistoryRepository {
+
+    private static final String FROM =
+            " FROM AuditReport r JOIN r.audit a LEFT JOIN Project p ON p.id = a.projectId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AuditHistoryRowDto> findHistoryRows(HistoryFilter filter, HistoryCursor after, int limit) {
+        String key = sortKey(filter.sort());
+        String direction = filter.ascending() ? "ASC" : "DESC";
+        Map<String, Object> parameters = new HashMap<>();
+
+        StringBuilder jpql = new StringBuilder("SELECT r.id, a.id, r.generatedAt, a.projectId, a.projectName, p.partner, "
+                + "a.status, COALESCE(r.score, a.score), COALESCE(r.problemsCount, a.problemsCount), "
+                + "(SELECT COUNT(d) FROM AuditDocument d WHERE d.audit.id = a.id)")
+                .append(FROM);
+        String where = where(filter, parameters);
+        jpql.append(where);
+
+        if (after != null) {
+            // (clé, id) strictement après le curseur, dans le sens du tri
+            String comparison = filter.ascending() ? ">" : "<";
+            jpql.append(where.isEmpty() ? " WHERE " : " AND ")
+                    .append("(").append(key).append(" ").append(comparison).append(" :afterValue OR (")
+                    .append(key).append(" = :afterValue AND r.id ").append(comparison).append(" :afterId))");
+            parameters.put("afterValue", after.sortValue());
+            parameters.put("afterId", after.reportId());
+        }
+        jpql.append(" ORDER BY ").append(key).append(" ").append(direction)
+                .append(", r.id ").append(direction);
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(limit);
+
+        return query.getResultList().stream().map(this::toRow).toList();
+    }
+
+    @Override
+    public long countHistoryRows(HistoryFilter filter) {
+        Map<String, Object> parameters = new HashMap<>();
+        TypedQuery<Long> query = entityManager.createQuery("SELECT COUNT(r)" + FROM + where(filter, parameters), Long.class);
+        parameters.forEach(query::setParameter);
+        return query.getSingleResult();
+    }
+
+    private String where(HistoryFilter filter, Map<String, Object> parameters) {
+        StringBuilder where = new StringBuilder();
+        if (filter.search() != null && !filter.search().isBlank()) {
+            where.append("(LOWER(a.projectName) LIKE :search ESCAPE '!' OR LOWER(r.reportSummary) LIKE :search ESCAPE '!'"
+                    + " OR LOWER(a.comments) LIKE :search ESCAPE '!')");
+            parameters.put("search", "%" + escapeLike(filter.search().trim().toLowerCase()) + "%");
+        }
+        if (filter.partner() != null && !filter.partner().isBlank()) {
+            where.append(where.isEmpty() ? "" : " AND ").append("p.partner = :partner");
+            parameters.put("partner", filter.partner());
+        }
+        return where.isEmpty() ? "" : " WHERE " + where;
+    }
+
+    private String sortKey(SortField sort) {
+        return switch (sort) {
+            case DATE -> "r.generatedAt";
+            case PROJECT_NAME -> "COALESCE(a.projectName, '')";
+            case STATUS -> "a.status";
+        };
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private AuditHistoryRowDto toRow(Tuple tuple) {
+        return AuditHistoryRowDto.builder()
+                .reportId(tuple.get(0, Long.class))
+                .auditId(tuple.get(1, Long.class))
+                .generatedAt(tuple.get(2, LocalDateTime.class))
+                .projectId(tuple.get(3, Long.class))
+                .projectName(tuple.get(4, String.class))
+                .partner(tuple.get(5, String.class))
+                .status(tuple.get(6, String.class))
+                .score(tuple.get(7, Integer.class))
+                .problemsCount(tuple.get(8, Integer.class))
+                .documentsCount(tuple.get(9, Long.class))
+                .build();
+    }
+}
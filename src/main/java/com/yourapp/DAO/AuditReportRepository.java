@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AuditReportRepository extends JpaRepository<AuditReport, Integer> {
+public interface AuditReportRepository extends JpaRepository<AuditReport, Integer>, AuditReportHistoryRepository {
 
     /**
      * Trouver tous les rapports d'un audit
@@ -23,6 +23,13 @@ public interface AuditReportRepository extends JpaRepository<AuditReport, Intege
      */
     List<AuditReport> findByAuditId(Long auditId);
 
+    /**
+     * Rapports de tous les audits d'un projet, audit chargé dans la même requête
+     */
+    @Query("SELECT ar FROM AuditReport ar JOIN FETCH ar.audit a WHERE a.projectId = :projectId " +
+            "ORDER BY a.id, ar.generatedAt")
+    List<AuditReport> findByProjectIdWithAudit(@Param("projectId") Long projectId);
+
     /**
      * Trouver le dernier rapport généré pour un audit
      */
@@ -33,18 +40,19 @@ public interface AuditReportRepository extends JpaRepository<AuditReport, Intege
      */
     boolean existsByAuditId(Long auditId);
 
-    // ========== MÉTHODE POUR HISTORY CONTROLLER ==========
+    // ========== MÉTHODES POUR HISTORY CONTROLLER (voir AuditReportHistoryRepository) ==========
 
     /**
-     * OPTIMISÉ: Charger les rapports avec audit (sans issues pour éviter N+1)
-     * ⬅️ Version optimisée pour éviter les problèmes de performance
+     * Rapport et son audit, pour le détail d'une ligne de l'historique
      */
-    @Query("SELECT DISTINCT ar FROM AuditReport ar " +
-            "LEFT JOIN FETCH ar.audit a " +           // 👈 Charger l'audit
-            "LEFT JOIN FETCH a.documents " +          // 👈 Charger les documents
-            "LEFT JOIN FETCH a.issues " +           // 👈 DÉCOMMENTER SI BESOIN DES ISSUES
-            "ORDER BY ar.generatedAt DESC")
-    List<AuditReport> findAllWithAuditAndRelations();
+    @Query("SELECT ar FROM AuditReport ar JOIN FETCH ar.audit WHERE ar.id = :id")
+    Optional<AuditReport> findWithAuditById(@Param("id") Long id);
+
+    /**
+     * Partenaires des projets, pour le filtre de l'historique
+     */
+    @Query("SELECT DISTINCT p.partner FROM Project p WHERE p.partner IS NOT NULL AND p.partner <> '' ORDER BY p.partner")
+    List<String> findDistinctPartners();
 
     /**
      * OPTION: Version plus légère sans les documents
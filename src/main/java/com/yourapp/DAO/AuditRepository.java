@@ -1,7 +1,10 @@
 package com.yourapp.DAO;
 
 import com.yourapp.model.Audit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -39,4 +42,14 @@ public interface AuditRepository extends JpaRepository<Audit, Long> {
 
     // Vérifier s’il existe un audit pour un projet à une date donnée
     boolean existsByProjectIdAndAuditDate(Long projectId, LocalDate auditDate);
+
+    // ===== Tableau de bord (index sur audit_date et (status, updated_at)) =====
+
+    long countByAuditDateGreaterThanEqual(LocalDate from);
+
+    long countByOrganizationAndAuditDateGreaterThanEqual(String organization, LocalDate from);
+
+    // Derniers audits d'un statut; la taille de la page fixe le nombre
+    @Query("SELECT a FROM Audit a WHERE a.status = :status ORDER BY a.updatedAt DESC NULLS LAST")
+    List<Audit> findRecentByStatus(@Param("status") String status, Pageable pageable);
 }
@@ -0,0 +1,54 @@
+package com.yourapp.DAO;
+
+import com.yourapp.model.AuditIssue;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Requêtes d'agrégation (COUNT / GROUP BY) sur les audits: la base renvoie les totaux,
+ * aucune entité n'est chargée
+ */
+@org.springframework.stereotype.Repository
+public interface AuditStatisticsRepository extends Repository<AuditIssue, Long> {
+
+    // 🔹 Total et résolus d'un audit, en une ligne
+    interface IssueTotals {
+        long getTotal();
+        long getResolved();
+    }
+
+    // 🔹 Nombre de problèmes pour un type
+    interface TypeCount {
+        String getIssueType();
+        long getTotal();
+    }
+
+    // 🔹 Nombre pour un audit (requêtes par lot)
+    interface AuditCount {
+        Long getAuditId();
+        long getTotal();
+    }
+
+    @Query("SELECT COUNT(i) FROM AuditIssue i WHERE i.audit.id = :auditId")
+    long countIssuesByAuditId(@Param("auditId") Long auditId);
+
+    @Query("SELECT COUNT(i) AS total, " +
+            "COALESCE(SUM(CASE WHEN i.status IN ('Resolved', 'Closed') THEN 1 ELSE 0 END), 0) AS resolved " +
+            "FROM AuditIssue i WHERE i.audit.id = :auditId")
+    IssueTotals issueTotalsByAuditId(@Param("auditId") Long auditId);
+
+    @Query("SELECT i.issueType AS issueType, COUNT(i) AS total FROM AuditIssue i " +
+            "WHERE i.audit.id = :auditId GROUP BY i.issueType")
+    List<TypeCount> countIssuesByTypeForAudit(@Param("auditId") Long auditId);
+
+    @Query("SELECT COUNT(d) FROM AuditDocument d WHERE d.audit.id = :auditId")
+    long countDocumentsByAuditId(@Param("auditId") Long auditId);
+
+    @Query("SELECT d.audit.id AS auditId, COUNT(d) AS total FROM AuditDocument d " +
+            "WHERE d.audit.id IN :auditIds GROUP BY d.audit.id")
+    List<AuditCount> countDocumentsByAuditIds(@Param("auditIds") Collection<Long> auditIds);
+}
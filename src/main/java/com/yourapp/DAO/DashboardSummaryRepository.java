@@ -0,0 +1,9 @@
+package com.yourapp.DAO;
+
+import com.yourapp.model.DashboardSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DashboardSummaryRepository extends JpaRepository<DashboardSummary, String> {
+}
@@ -1,10 +1,24 @@
 package com.yourapp.DAO;
 
 import com.yourapp.model.Project;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
     // C'est tout ! Spring génère le code SQL pour findAll, save, delete... tout seul.
+
+    // ===== Tableau de bord =====
+
+    long countByStartDateGreaterThanEqual(LocalDate from);
+
+    List<Project> findTop5ByOrderByProgressDesc();
+
+    @Query("SELECT p FROM Project p ORDER BY p.startDate DESC NULLS LAST")
+    List<Project> findRecent(Pageable pageable);
 }
\ No newline at end of file
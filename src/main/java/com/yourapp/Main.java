@@ -1,5 +1,6 @@
 package com.yourapp;
 
+import com.yourapp.batch.BatchAuditRunner;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -19,10 +20,33 @@ public class Main extends Application {
     private static ConfigurableApplicationContext springContext;
 
     public static void main(String[] args) {
+        // Ré-audit en masse sans interface: java -jar auditdoc-ai.jar --batch --templates=4 --output=nuit.csv
+        if (BatchAuditRunner.isBatchMode(args)) {
+            System.exit(runBatch(args));
+        }
+
         System.setProperty("glass.win.uiScale", "1.0");
         launch(args);
     }
 
+    /**
+     * Démarrer Spring Boot sans JavaFX avec le profil batch; le code de sortie vient de BatchAuditRunner
+     */
+    private static int runBatch(String[] args) {
+        System.out.println("🔧 Démarrage du ré-audit en masse (sans interface)...");
+        SpringApplication app = new SpringApplication(Main.class);
+        app.setWebApplicationType(org.springframework.boot.WebApplicationType.NONE);
+        app.setAdditionalProfiles(BatchAuditRunner.PROFILE);
+        app.setHeadless(true);
+
+        try {
+            return SpringApplication.exit(app.run(args));
+        } catch (RuntimeException e) {
+            System.err.println("❌ Ré-audit impossible: " + e.getMessage());
+            return BatchAuditRunner.EXIT_FATAL;
+        }
+    }
+
     @Override
     public void init() {
         System.out.println("🔧 Initialisation de Spring Boot...");
@@ -0,0 +1,367 @@
+package com.yourapp.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.yourapp.DAO.AuditDocumentRepository;
+import com.yourapp.DAO.AuditRepository;
+import com.yourapp.DAO.AuditTemplateRepository;
+import com.yourapp.DAO.ProjectRepository;
+import com.yourapp.dto.AuditCreateRequestDto;
+import com.yourapp.dto.AuditDocumentDto;
+import com.yourapp.dto.AuditResponseDto;
+import com.yourapp.model.Audit;
+import com.yourapp.model.AuditDocument;
+import com.yourapp.model.AuditTemplate;
+import com.yourapp.model.Project;
+import com.yourapp.services.AuditDocumentService;
+import com.yourapp.services.AuditService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Ré-audit en masse sans interface (profil "batch", lancé par Main --batch)
+ * Pour chaque couple (projet, modèle) sélectionné, un nouvel audit est créé avec les documents actuels
+ * du projet (blobs déjà stockés: aucune copie), analysé par le moteur de jobs, puis résumé dans un fichier
+ * JSON ou CSV. Le code de sortie indique si tous les audits ont abouti.
+ *
+ * Options:
+ *   --projects=all|1,2,3            projets à ré-auditer (défaut: all)
+ *   --templates=4,5                 modèles à appliquer (défaut: modèle du dernier audit de chaque projet)
+ *   --parallelism=4                 audits suivis simultanément
+ *   --target-docs-per-hour=600      débit visé: les lancements sont espacés pour ne pas le dépasser (0 = sans limite)
+ *   --audit-timeout-minutes=120     attente maximale d'un audit (file d'attente comprise)
+ *   --output=rapport.json|.csv      fichier de résumé (défaut: batch-audit-<date>.json)
+ */
+@Component
+@Profile(BatchAuditRunner.PROFILE)
+@RequiredArgsConstructor
+@Slf4j
+public class BatchAuditRunner implements ApplicationRunner, ExitCodeGenerator {
+
+    public static final String PROFILE = "batch";
+
+    // Codes de sortie
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_AUDIT_FAILURES = 1;
+    public static final int EXIT_INVALID_ARGUMENTS = 2;
+    public static final int EXIT_FATAL = 3;
+
+    private final ProjectRepository projectRepository;
+    private final AuditTemplateRepository templateRepository;
+    private final AuditRepository auditRepository;
+    private final AuditDocumentRepository documentRepository;
+    private final AuditService auditService;
+    private final AuditDocumentService documentService;
+    private final ObjectMapper objectMapper;
+
+    private volatile int exitCode = EXIT_OK;
+
+    /**
+     * Résultat d'un audit du lot, une ligne du résumé
+     */
+    public record BatchResult(Long projectId, String projectName, Long templateId, String templateName,
+                              Long auditId, String status, Integer score, Integer problemsCount,
+                              int documentsCount, Integer failedDocumentsCount, long durationMillis, String error) {}
+
+    /**
+     * Résumé complet écrit en JSON
+     */
+    public record BatchSummary(LocalDateTime startedAt, LocalDateTime finishedAt, int audits, long completed,
+                               long failed, int documents, double documentsPerHour, Integer targetDocumentsPerHour,
+                               List<BatchResult> results) {}
+
+    private record BatchItem(Project project, AuditTemplate template, List<AuditDocument> documents) {}
+
+    public static boolean isBatchMode(String[] args) {
+        return Arrays.asList(args).contains("--" + PROFILE);
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<BatchItem> items;
+        int parallelism;
+        int targetDocsPerHour;
+        Duration auditTimeout;
+        try {
+            parallelism = intOption(args, "parallelism", 4);
+            targetDocsPerHour = intOption(args, "target-docs-per-hour", 0);
+            auditTimeout = Duration.ofMinutes(intOption(args, "audit-timeout-minutes", 120));
+            items = selectItems(option(args, "projects", "all"), option(args, "templates", null));
+        } catch (IllegalArgumentException e) {
+            log.error("❌ Arguments invalides: {}", e.getMessage());
+            exitCode = EXIT_INVALID_ARGUMENTS;
+            return;
+        }
+        if (items.isEmpty()) {
+            log.error("❌ Aucun projet avec des documents à ré-auditer pour cette sélection");
+            exitCode = EXIT_INVALID_ARGUMENTS;
+            return;
+        }
+
+        Path output = Paths.get(option(args, "output",
+                "batch-audit-" + startedAt.format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json"));
+
+        int totalDocuments = items.stream().mapToInt(item -> item.documents().size()).sum();
+        log.info("🚀 Ré-audit de {} audits ({} documents), {} en parallèle, débit visé: {}",
+                items.size(), totalDocuments, parallelism, targetDocsPerHour > 0 ? targetDocsPerHour + " docs/h" : "illimité");
+
+        List<BatchResult> results = runItems(items, parallelism, targetDocsPerHour, auditTimeout);
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        long completed = results.stream().filter(result -> "COMPLETED".equals(result.status())).count();
+        double hours = Math.max(1, Duration.between(startedAt, finishedAt).toMillis()) / 3_600_000.0;
+        BatchSummary summary = new BatchSummary(startedAt, finishedAt, results.size(), completed,
+                results.size() - completed, totalDocuments, Math.round(totalDocuments / hours * 10) / 10.0,
+                targetDocsPerHour > 0 ? targetDocsPerHour : null, results);
+
+        try {
+            writeSummary(summary, output);
+            log.info("📄 Résumé écrit dans {}", output.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("❌ Écriture du résumé impossible: {}", output, e);
+            exitCode = EXIT_FATAL;
+            return;
+        }
+
+        log.info("🏁 Ré-audit terminé: {}/{} audits complétés, {} docs/h", completed, results.size(), summary.documentsPerHour());
+        exitCode = completed == results.size() ? EXIT_OK : EXIT_AUDIT_FAILURES;
+    }
+
+    // ============ Sélection ============
+
+    private List<BatchItem> selectItems(String projectSelector, String templateSelector) {
+        List<Project> projects = "all".equalsIgnoreCase(projectSelector)
+                ? projectRepository.findAll()
+                : parseIds(projectSelector, "projects").stream()
+                        .map(id -> projectRepository.findById(id)
+                                .orElseThrow(() -> new IllegalArgumentException("projet introuvable: " + id)))
+                        .toList();
+
+        List<AuditTemplate> templates = templateSelector == null ? null : parseIds(templateSelector, "templates").stream()
+                .map(id -> templateRepository.findById(id)
+                        .orElseThrow(() -> new IllegalArgumentException("modèle introuvable: " + id)))
+                .toList();
+
+        List<BatchItem> items = new ArrayList<>();
+        for (Project project : projects) {
+            List<AuditDocument> documents = currentDocuments(project);
+            if (documents.isEmpty()) {
+                log.info("⏭️ Projet {} ignoré: aucun document", project.getName());
+                continue;
+            }
+            List<AuditTemplate> projectTemplates = templates != null ? templates : lastTemplate(project);
+            if (projectTemplates.isEmpty()) {
+                log.info("⏭️ Projet {} ignoré: aucun audit précédent avec un modèle, préciser --templates", project.getName());
+                continue;
+            }
+            projectTemplates.forEach(template -> items.add(new BatchItem(project, template, documents)));
+        }
+        return items;
+    }
+
+    /**
+     * Documents actuels d'un projet: la version la plus récente de chaque nom de document
+     */
+    private List<AuditDocument> currentDocuments(Project project) {
+        Map<String, AuditDocument> latestByName = new LinkedHashMap<>();
+        for (AuditDocument document : documentRepository.findByProjectId(project.getId())) {
+            latestByName.merge(document.getDocumentName(), document, (current, candidate) ->
+                    candidate.getUploadedAt() != null && (current.getUploadedAt() == null
+                            || candidate.getUploadedAt().isAfter(current.getUploadedAt())) ? candidate : current);
+        }
+        return new ArrayList<>(latestByName.values());
+    }
+
+    /**
+     * Modèle du dernier audit du projet qui en a un (les audits sans modèle sont ignorés)
+     * Liste vide si aucun audit n'a de modèle ou si ce modèle a été supprimé: le projet est alors ignoré
+     */
+    private List<AuditTemplate> lastTemplate(Project project) {
+        return auditRepository.findByProjectId(project.getId()).stream()
+                .filter(audit -> audit.getModelId() != null)
+                .max(Comparator.comparing(Audit::getId))
+                .map(Audit::getModelId)
+                .flatMap(templateRepository::findById)
+                .map(List::of)
+                .orElse(List.of());
+    }
+
+    // ============ Exécution ============
+
+    private List<BatchResult> runItems(List<BatchItem> items, int parallelism, int targetDocsPerHour, Duration auditTimeout) {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "batch-audit-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Future<BatchResult>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        int scheduledDocuments = 0;
+        try {
+            for (BatchItem item : items) {
+                // Débit visé: le lot suivant ne démarre pas avant l'heure prévue pour ses documents
+                if (targetDocsPerHour > 0) {
+                    long dueNanos = start + (long) (scheduledDocuments * 3_600_000_000_000.0 / targetDocsPerHour);
+                    long waitNanos = dueNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                }
+                scheduledDocuments += item.documents().size();
+                futures.add(workers.submit(() -> runOne(item, auditTimeout)));
+            }
+
+            List<BatchResult> results = new ArrayList<>();
+            for (Future<BatchResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ré-audit interrompu", e);
+        } catch (ExecutionException e) {
+            // runOne capture ses propres erreurs: une exception ici est un bug
+            throw new RuntimeException("Erreur inattendue du ré-audit", e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private BatchResult runOne(BatchItem item, Duration auditTimeout) {
+        long start = System.currentTimeMillis();
+        Project project = item.project();
+        AuditTemplate template = item.template();
+        Long auditId = null;
+
+        try {
+            AuditCreateRequestDto request = new AuditCreateRequestDto();
+            request.setProjectId(project.getId());
+            request.setModelId(template.getId());
+            request.setDocumentIds(new ArrayList<>());
+            auditId = auditService.createAudit(request).getId();
+
+            // Les fichiers sont déjà dans le stockage: seule une référence à leur blob est ajoutée
+            List<AuditDocumentDto> documents = documentService.reuseDocuments(item.documents(), auditId, project.getId());
+            if (documents.isEmpty()) {
+                throw new IllegalStateException("aucun document n'a pu être rattaché à l'audit");
+            }
+
+            auditService.startAnalysis(auditId);
+            AuditResponseDto audit = auditService.awaitAnalysis(auditId, auditTimeout);
+
+            log.info("✅ {} / {}: {} (score {}%, {} problèmes)", project.getName(), template.getName(),
+                    audit.getStatus(), audit.getScore(), audit.getProblemsCount());
+            return new BatchResult(project.getId(), project.getName(), template.getId(), template.getName(), auditId,
+                    audit.getStatus(), audit.getScore(), audit.getProblemsCount(), documents.size(),
+                    audit.getFailedDocumentsCount(), System.currentTimeMillis() - start, null);
+
+        } catch (Exception e) {
+            log.error("❌ Ré-audit de {} avec {} en échec", project.getName(), template.getName(), e);
+            return new BatchResult(project.getId(), project.getName(), template.getId(), template.getName(), auditId,
+                    "FAILED", null, null, item.documents().size(), null, System.currentTimeMillis() - start,
+                    e.getMessage());
+        }
+    }
+
+    // ============ Résumé ============
+
+    private void writeSummary(BatchSummary summary, Path output) throws IOException {
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        if (output.getFileName().toString().toLowerCase().endsWith(".csv")) {
+            writeCsv(summary.results(), output);
+        } else {
+            objectMapper.copy()
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .writeValue(output.toFile(), summary);
+        }
+    }
+
+    private void writeCsv(List<BatchResult> results, Path output) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write("project_id,project_name,template_id,template_name,audit_id,status,score,problems_count,"
+                    + "documents_count,failed_documents_count,duration_ms,error\n");
+            for (BatchResult result : results) {
+                writer.write(Stream.of(result.projectId(), result.projectName(), result.templateId(),
+                                result.templateName(), result.auditId(), result.status(), result.score(),
+                                result.problemsCount(), result.documentsCount(), result.failedDocumentsCount(),
+                                result.durationMillis(), result.error())
+                        .map(BatchAuditRunner::csvField)
+                        .collect(Collectors.joining(",")));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    // ============ Options ============
+
+    private String option(ApplicationArguments args, String name, String defaultValue) {
+        List<String> values = args.getOptionValues(name);
+        return values == null || values.isEmpty() || values.get(0).isBlank() ? defaultValue : values.get(0);
+    }
+
+    private int intOption(ApplicationArguments args, String name, int defaultValue) {
+        String value = option(args, name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " doit être un entier: " + value);
+        }
+    }
+
+    private List<Long> parseIds(String selector, String name) {
+        try {
+            return Arrays.stream(selector.split(","))
+                    .map(String::trim)
+                    .filter(id -> !id.isEmpty())
+                    .map(Long::valueOf)
+                    .toList();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " attend une liste d'identifiants: " + selector);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.yourapp.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Contrôle au démarrage des index dont dépendent les requêtes fréquentes (créés par les migrations V8, V9)
+ * Un index absent (migration non appliquée, index supprimé à la main) est signalé dans les logs,
+ * ou bloque le démarrage si app.schema.fail-on-missing-indexes est activé
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaIndexVerifier {
+
+    // Nom de l'index -> requêtes servies
+    private static final Map<String, String> REQUIRED_INDEXES = new LinkedHashMap<>();
+
+    static {
+        REQUIRED_INDEXES.put("idx_audit_issue_audit_id_id", "problèmes d'un audit (pagination)");
+        REQUIRED_INDEXES.put("idx_audit_issue_audit_id_type", "problèmes d'un audit par type");
+        REQUIRED_INDEXES.put("idx_audit_issue_document_id", "problèmes d'un document");
+        REQUIRED_INDEXES.put("idx_auditdocument_audit_id", "documents d'un audit");
+        REQUIRED_INDEXES.put("idx_auditdocument_project_id", "documents d'un projet");
+        REQUIRED_INDEXES.put("idx_notifications_user_read_created", "notifications d'un utilisateur");
+        REQUIRED_INDEXES.put("idx_notifications_user_unread", "notifications non lues");
+        REQUIRED_INDEXES.put("idx_audit_report_audit_id_generated_at", "dernier rapport d'un audit");
+        REQUIRED_INDEXES.put("idx_audit_report_generated_at_id", "écran Historique");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.schema.verify-indexes:true}")
+    private boolean verifyIndexes;
+
+    @Value("${app.schema.fail-on-missing-indexes:false}")
+    private boolean failOnMissingIndexes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyIndexes() {
+        if (!verifyIndexes) {
+            return;
+        }
+        Set<String> present;
+        try {
+            present = new HashSet<>(jdbcTemplate.queryForList(
+                    "SELECT indexname FROM pg_indexes WHERE schemaname = current_schema()", String.class));
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Vérification des index impossible (base indisponible): {}", e.getMessage());
+            return;
+        }
+
+        List<String> missing = REQUIRED_INDEXES.keySet().stream()
+                .filter(name -> !present.contains(name))
+                .toList();
+        if (missing.isEmpty()) {
+            log.info("✅ {} index des requêtes fréquentes présents", REQUIRED_INDEXES.size());
+            return;
+        }
+
+        for (String name : missing) {
+            log.error("❌ Index manquant: {} ({})", name, REQUIRED_INDEXES.get(name));
+        }
+        if (failOnMissingIndexes) {
+            throw new IllegalStateException("Index manquants: " + String.join(", ", missing)
+                    + " (migrations Flyway non appliquées ?)");
+        }
+    }
+}
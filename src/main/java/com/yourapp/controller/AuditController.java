@@ -6,7 +6,10 @@ import com.yourapp.dto.AuditResponseDto;
 import com.yourapp.dto.AuditTemplateDTO;
 import com.yourapp.dto.AuditIssueDto;
 import com.yourapp.model.Project;
+import com.yourapp.services.AuditProgressBus;
+import com.yourapp.services.DocumentUploadPipeline;
 import com.yourapp.services_UI.AuditApiService;
+import com.yourapp.services_UI.DocumentPreparationService;
 import com.yourapp.services_UI.FileUploadService;
 import com.yourapp.services_UI.ModelService;
 import com.yourapp.services_UI.ProjectApiService;
@@ -27,6 +30,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import com.yourapp.services_UI.ReportService;
+import com.yourapp.utils.AuditProgressEvent;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
@@ -57,8 +61,13 @@ public class AuditController {
     @Autowired private ModelService modelService;
     @Autowired private AuditApiService auditApiService;
     @Autowired private FileUploadService fileUploadService;
+    @Autowired private DocumentPreparationService documentPreparationService;
     @Autowired private ReportService reportService;
 
+    // Part de la barre de progression: upload de 5 à 25%, analyse des documents au-delà
+    private static final double UPLOAD_START = 0.05;
+    private static final double ANALYSIS_START = 0.25;
+
     // ============ Variables d'état ============
     private VBox notificationBox;
     private List<File> selectedFiles = new ArrayList<>();
@@ -245,6 +254,8 @@ public class AuditController {
 
         filesList.getChildren().clear();
         selectedFiles.clear();
+        // Les fichiers qui ne sont plus sélectionnés ne sont plus préparés
+        documentPreparationService.retainOnly(validFiles);
 
         for (File file : validFiles) {
             selectedFiles.add(file);
@@ -272,6 +283,11 @@ public class AuditController {
         Label fileSize = new Label(String.format("%.2f KB", file.length() / 1024.0));
         fileSize.setStyle("-fx-text-fill: #667085; -fx-font-size: 12px;");
 
+        // Préparation en arrière-plan (empreinte, extraction, tokens) pendant que l'utilisateur configure l'audit
+        documentPreparationService.prepare(file).thenAccept(prepared -> Platform.runLater(() ->
+                fileSize.setText(String.format("%.2f KB · %d page(s) · ~%d tokens",
+                        file.length() / 1024.0, prepared.pageCount(), prepared.estimatedTokens()))));
+
         VBox fileInfo = new VBox(fileName, fileSize);
         fileInfo.setSpacing(3);
         HBox.setHgrow(fileInfo, Priority.ALWAYS); // Permet aux infos de prendre l'espace
@@ -427,11 +443,7 @@ public class AuditController {
             protected AuditResponseDto call() throws Exception {
                 try {
                     // Étape 1: Créer l'audit
-                    Platform.runLater(() -> {
-                        statusLabel.setText("Création de l'audit...");
-                        percentLabel.setText("20%");
-                        progressBar.setProgress(0.2);
-                    });
+                    Platform.runLater(() -> showProgress("Création de l'audit...", 0.0, statusLabel, percentLabel, progressBar));
 
                     AuditCreateRequestDto request = new AuditCreateRequestDto();
                     request.setProjectId(selectedProject.getId());
@@ -444,50 +456,37 @@ public class AuditController {
                     log.info("✅ Audit créé avec ID: {}", currentAuditId);
 
                     // Étape 2: Upload des documents (Dans AuditController.java)
-                    Platform.runLater(() -> {
-                        statusLabel.setText("Upload des documents...");
-                        percentLabel.setText("40%");
-                        progressBar.setProgress(0.4);
-                    });
+                    Platform.runLater(() -> showProgress("Upload des documents...", UPLOAD_START, statusLabel, percentLabel, progressBar));
 
 // 🔥 MODIFICATION ICI : On ajoute selectedProject.getId()
                     List<AuditDocumentDto> uploadedDocs = fileUploadService.uploadMultipleFiles(
                             selectedFiles,
                             currentAuditId,
-                            selectedProject.getId()
+                            selectedProject.getId(),
+                            progress -> Platform.runLater(() -> showUploadProgress(progress, statusLabel, percentLabel, progressBar))
                     );
 
                     log.info("✅ {} documents liés au projet {}", uploadedDocs.size(), selectedProject.getName());
 
-                    // Étape 3: Lancer l'analyse
-                    Platform.runLater(() -> {
-                        statusLabel.setText("Lancement de l'analyse IA...");
-                        percentLabel.setText("60%");
-                        progressBar.setProgress(0.6);
-                    });
+                    // Les extractions lancées à la sélection alimentent le cache relu par l'analyse;
+                    // elles ne sont pas attendues: un document encore en préparation est extrait par l'analyse
 
-                    auditApiService.startAnalysis(currentAuditId);
+                    // Étape 3: Lancer l'analyse, suivie document par document via les événements de progression
+                    Platform.runLater(() -> showProgress("Lancement de l'analyse IA...", ANALYSIS_START, statusLabel, percentLabel, progressBar));
 
-                    log.info("✅ Analyse lancée");
+                    AuditResponseDto finalAudit;
+                    try (AuditProgressBus.Subscription ignored = auditApiService.subscribeToProgress(currentAuditId,
+                            event -> Platform.runLater(() -> showAnalysisProgress(event, statusLabel, percentLabel, progressBar)))) {
 
-                    // Étape 4: Polling du statut - OPTIMISÉ avec timeout réduit
-                    Platform.runLater(() -> {
-                        statusLabel.setText("Analyse en cours...");
-                        percentLabel.setText("80%");
-                        progressBar.setProgress(0.8);
-                    });
+                        auditApiService.startAnalysis(currentAuditId);
+                        log.info("✅ Analyse lancée");
 
-                    // Polling avec timeout de 30 secondes max (au lieu de 60)
-                    AuditResponseDto finalAudit = auditApiService.pollAuditStatus(
-                            currentAuditId, 30, 2
-                    );
+                        // Étape 4: Attente de la fin du job d'analyse (exécuté en arrière-plan)
+                        finalAudit = auditApiService.awaitAnalysis(currentAuditId);
+                    }
 
                     // Étape 5: Terminé
-                    Platform.runLater(() -> {
-                        statusLabel.setText("Analyse terminée ✅");
-                        percentLabel.setText("100%");
-                        progressBar.setProgress(1.0);
-                    });
+                    Platform.runLater(() -> showProgress("Analyse terminée ✅", 1.0, statusLabel, percentLabel, progressBar));
 
                     return finalAudit;
 
@@ -499,6 +498,58 @@ public class AuditController {
         };
     }
 
+    /**
+     * Avancement de l'upload fichier par fichier, entre UPLOAD_START et ANALYSIS_START
+     */
+    private void showUploadProgress(DocumentUploadPipeline.Progress progress,
+                                    Label statusLabel, Label percentLabel, ProgressBar progressBar) {
+        String step = switch (progress.status()) {
+            case STORED -> "copié";
+            case DEDUPLICATED -> "déjà stocké";
+            case REGISTERED -> "enregistré";
+            case FAILED -> "échec";
+        };
+        statusLabel.setText(String.format("Upload des documents (%d/%d) - %s: %s",
+                progress.completed(), progress.total(), progress.fileName(), step));
+
+        double ratio = progress.total() > 0 ? (double) progress.completed() / progress.total() : 1.0;
+        double value = UPLOAD_START + (ANALYSIS_START - UPLOAD_START) * ratio;
+        percentLabel.setText(Math.round(value * 100) + "%");
+        progressBar.setProgress(value);
+    }
+
+    /**
+     * Avancement de l'analyse reçu du moteur (pourcentage réel par document), au-delà d'ANALYSIS_START
+     */
+    private void showAnalysisProgress(AuditProgressEvent event,
+                                      Label statusLabel, Label percentLabel, ProgressBar progressBar) {
+        String step = switch (event.getStage()) {
+            case QUEUED -> "Analyse en file d'attente...";
+            case RUNNING -> "Analyse en cours...";
+            case EXTRACTING -> "Extraction de " + event.getDocumentName();
+            case INFERRING -> "Analyse IA de " + event.getDocumentName();
+            case PERSISTING -> "Enregistrement des résultats de " + event.getDocumentName();
+            case DOCUMENT_ANALYZED -> event.getDocumentName() + " analysé";
+            case DOCUMENT_FAILED -> event.getDocumentName() + " en échec";
+            case COMPLETED -> "Analyse terminée";
+            case FAILED -> "Analyse en échec";
+            case CANCELLED -> "Analyse annulée";
+        };
+        if (event.getTotalDocuments() > 0) {
+            step = String.format("%s (%d/%d documents, %d problème(s))", step,
+                    event.getProcessedDocuments(), event.getTotalDocuments(), event.getIssuesCount());
+        }
+        // Les documents progressent en parallèle: la barre ne recule pas sur un événement arrivé en retard
+        double value = ANALYSIS_START + (1.0 - ANALYSIS_START) * event.getAuditPercent() / 100.0;
+        showProgress(step, Math.max(value, progressBar.getProgress()), statusLabel, percentLabel, progressBar);
+    }
+
+    private void showProgress(String status, double value, Label statusLabel, Label percentLabel, ProgressBar progressBar) {
+        statusLabel.setText(status);
+        percentLabel.setText(Math.round(value * 100) + "%");
+        progressBar.setProgress(value);
+    }
+
     /**
      * Créer le résumé du rapport
      */
@@ -524,6 +575,14 @@ public class AuditController {
         subtitle.setStyle("-fx-font-size: 13px; -fx-text-fill: #6b7280;");
 
         box.getChildren().addAll(title, subtitle);
+
+        // Succès partiel: les documents en échec n'ont pas été analysés
+        Integer failedDocs = audit.getFailedDocumentsCount();
+        if (failedDocs != null && failedDocs > 0) {
+            Label failedLabel = new Label(String.format("⚠️ %d document(s) n'ont pas pu être analysés", failedDocs));
+            failedLabel.setStyle("-fx-font-size: 13px; -fx-text-fill: #b45309;");
+            box.getChildren().add(failedLabel);
+        }
         return box;
     }
 
@@ -533,6 +592,7 @@ public class AuditController {
     private void resetAuditForm() {
         filesList.getChildren().clear();
         selectedFiles.clear();
+        documentPreparationService.cancelAll();
         filesContainer.setVisible(false);
         filesContainer.setManaged(false);
         projetDropdown.setValue(null);
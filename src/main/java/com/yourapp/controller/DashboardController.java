@@ -15,7 +15,7 @@ import javafx.scene.control.TextField;
 import com.yourapp.dto.DashboardStatsDto;
 import com.yourapp.dto.ProjectProgressDto;
 import com.yourapp.dto.RecentActivityDto;
-import com.yourapp.services.DashboardService;
+import com.yourapp.services.DashboardCache;
 import com.yourapp.services.GeminiService;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
@@ -57,7 +57,7 @@ public class DashboardController {
     @FXML private Button chatSendButton;
     @FXML private Button refreshButton;
 
-    @Autowired private DashboardService dashboardService;
+    @Autowired private DashboardCache dashboardCache;
     @Autowired private GeminiService chatbotService;
     @Autowired private com.yourapp.utils.DashboardEventListener eventListener;
 
@@ -70,7 +70,11 @@ public class DashboardController {
 
         // Configurer le bouton de rafraîchissement
         if (refreshButton != null) {
-            refreshButton.setOnAction(e -> loadDashboardData());
+            refreshButton.setOnAction(e -> {
+                // Demande explicite: relire la base plutôt que le cache
+                dashboardCache.invalidateAll();
+                loadDashboardData();
+            });
         }
 
         // Charger les données
@@ -114,15 +118,15 @@ public class DashboardController {
             protected Void call() {
                 try {
                     // Charger les statistiques
-                    DashboardStatsDto stats = dashboardService.getDashboardStats(userId);
+                    DashboardStatsDto stats = dashboardCache.getStats(userId);
 
                     // Charger la progression des projets
                     List<ProjectProgressDto> projectsProgress =
-                            dashboardService.getProjectsProgress();
+                            dashboardCache.getProjectsProgress();
 
                     // Charger les activités récentes
                     List<RecentActivityDto> activities =
-                            dashboardService.getRecentActivities();
+                            dashboardCache.getRecentActivities();
 
                     // Mettre à jour l'interface sur le thread JavaFX
                     Platform.runLater(() -> {
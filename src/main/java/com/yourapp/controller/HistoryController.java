@@ -1,105 +1,115 @@
 package com.yourapp.controller;
 
-import com.yourapp.model.Audit;
-import com.yourapp.model.AuditDocument;
-import com.yourapp.model.AuditIssue;
-import com.yourapp.model.AuditReport;
-import com.yourapp.DAO.AuditReportRepository;
+import com.yourapp.DAO.AuditReportHistoryRepository.HistoryCursor;
+import com.yourapp.DAO.AuditReportHistoryRepository.HistoryFilter;
+import com.yourapp.DAO.AuditReportHistoryRepository.SortField;
+import com.yourapp.dto.AuditHistoryDetailsDto;
+import com.yourapp.dto.AuditHistoryRowDto;
 import com.yourapp.services.HistoryService;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.util.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-
+import java.util.Map;
+
+/**
+ * Écran Historique: les lignes sont chargées page par page (pagination par clé), filtrées et triées
+ * par la base; le détail d'un audit n'est chargé qu'à son ouverture
+ */
+@Component
+@Slf4j
 public class HistoryController {
 
+    private static final String ALL_PARTNERS = "Tous les partenaires";
+
     @FXML private TextField searchField;
     @FXML private ComboBox<String> partnerComboBox;
     @FXML private ComboBox<String> sortByComboBox;
     @FXML private ComboBox<String> sortComboBox;
     @FXML private Label auditCountLabel;
+    @FXML private Button loadMoreButton;
+
+    @FXML private TableView<AuditHistoryRowDto> auditTable;
+    @FXML private TableColumn<AuditHistoryRowDto, String> dateColumn;
+    @FXML private TableColumn<AuditHistoryRowDto, String> projectColumn;
+    @FXML private TableColumn<AuditHistoryRowDto, String> scoreColumn;
+    @FXML private TableColumn<AuditHistoryRowDto, String> statusColumn;
+    @FXML private TableColumn<AuditHistoryRowDto, String> problemsColumn;
+    @FXML private TableColumn<AuditHistoryRowDto, Void> reportsColumn;
+
+    @Autowired private HistoryService historyService;
 
-    @FXML private TableView<AuditReport> auditTable;
-    @FXML private TableColumn<AuditReport, String> dateColumn;
-    @FXML private TableColumn<AuditReport, String> projectColumn;
-    @FXML private TableColumn<AuditReport, String> scoreColumn;
-    @FXML private TableColumn<AuditReport, String> statusColumn;
-    @FXML private TableColumn<AuditReport, String> problemsColumn;
-    @FXML private TableColumn<AuditReport, Void> reportsColumn;
+    @Value("${app.history.page-size:50}")
+    private int pageSize;
 
-    private ObservableList<AuditReport> auditList;
-    private ObservableList<AuditReport> filteredList;
+    private ObservableList<AuditHistoryRowDto> rows;
 
-    private HistoryService historyService;
-    private AuditReportRepository auditReportRepository;
+    // État de la pagination pour le filtre courant; generation écarte les réponses d'un ancien filtre
+    private HistoryFilter currentFilter;
+    private HistoryCursor nextCursor;
+    private long generation;
+
+    private PauseTransition searchDelay;
 
     @FXML
     public void initialize() {
-        System.out.println("✅ HistoryController initialized - Prêt pour database");
+        log.info("🚀 Initialisation de l'historique");
 
-        // Initialize empty lists
-        auditList = FXCollections.observableArrayList();
-        filteredList = FXCollections.observableArrayList();
+        rows = FXCollections.observableArrayList();
+        nextCursor = null;
 
-        // Setup table columns
         setupTableColumns();
-
-        // Load data into table
-        auditTable.setItems(filteredList);
-
-        // Setup filters
+        auditTable.setItems(rows);
         setupFilters();
 
-        // Update count
-        updateAuditCount();
-
-        // Search functionality
-        searchField.textProperty().addListener((observable, oldValue, newValue) -> {
-            filterAudits();
+        // Recherche lancée après une courte pause de frappe, pas à chaque caractère
+        searchDelay = new PauseTransition(Duration.millis(300));
+        searchDelay.setOnFinished(e -> reload());
+        searchField.textProperty().addListener((observable, oldValue, newValue) -> searchDelay.playFromStart());
+
+        // Double-clic: ouvrir le détail de la ligne
+        auditTable.setRowFactory(table -> {
+            TableRow<AuditHistoryRowDto> row = new TableRow<>();
+            row.setOnMouseClicked(e -> {
+                if (e.getClickCount() == 2 && !row.isEmpty()) {
+                    handleViewReport(row.getItem());
+                }
+            });
+            return row;
         });
 
-        // Set placeholder message for empty table
+        if (loadMoreButton != null) {
+            loadMoreButton.setOnAction(e -> loadNextPage());
+        }
+
         Label placeholderLabel = new Label("Aucun audit disponible.\nLancez un nouvel audit pour commencer.");
         placeholderLabel.setStyle("-fx-text-fill: #667085; -fx-font-size: 14px; -fx-text-alignment: center;");
         auditTable.setPlaceholder(placeholderLabel);
 
-        System.out.println("⏳ En attente de l'injection de HistoryService...");
-        System.out.println("   ➤ MainLayoutController doit appeler setHistoryService()");
-    }
-
-    // ======================== INJECTION DATABASE ========================
-
-    public void setHistoryService(HistoryService historyService) {
-        this.historyService = historyService;
-        System.out.println("🎯 HistoryService injecté avec succès!");
-        System.out.println("   ➤ Service: " + (historyService != null ? "VALIDE" : "NULL"));
-
-        if (historyService != null) {
-            loadAuditsFromDatabase();
-        } else {
-            System.out.println("❌ ERREUR: HistoryService null - contacter l'équipe");
-        }
-    }
-
-    public void setAuditReportRepository(AuditReportRepository repository) {
-        this.auditReportRepository = repository;
-        System.out.println("⚠️  MÉTHODE DÉPRÉCIÉE: Utilisez setHistoryService() à la place");
-        System.out.println("   ➤ Repository: " + (repository != null ? "VALIDE" : "NULL"));
+        loadPartners();
+        reload();
     }
 
     // ======================== CONFIGURATION UI ========================
 
     private void setupTableColumns() {
-        // Date Column (inchangé)
         dateColumn.setCellValueFactory(cellData -> {
             LocalDateTime date = cellData.getValue().getGeneratedAt();
             if (date != null) {
@@ -109,81 +119,21 @@ public class HistoryController {
             return new SimpleStringProperty("");
         });
 
-        // ======================== PROJECT COLUMN - MODIFIÉ ========================
-        // Project Column - Amélioré pour utiliser projectName
         projectColumn.setCellValueFactory(cellData -> {
-            AuditReport report = cellData.getValue();
-
-            if (report.getAudit() != null) {
-                Audit audit = report.getAudit();
-
-                // 1. Priorité: projectName du modèle Audit (si ajouté dans le modèle)
-                if (audit.getProjectName() != null && !audit.getProjectName().trim().isEmpty()) {
-                    return new SimpleStringProperty(audit.getProjectName());
-                }
-
-                // 2. Fallback: Utiliser le premier document non-null
-                List<AuditDocument> docs = audit.getDocuments();
-                if (docs != null && !docs.isEmpty()) {
-                    for (AuditDocument doc : docs) {
-                        if (doc != null && doc.getDocumentName() != null && !doc.getDocumentName().trim().isEmpty()) {
-                            return new SimpleStringProperty(doc.getDocumentName());
-                        }
-                    }
-                }
-
-                // 3. Dernier recours: projectId
-                return new SimpleStringProperty("Projet #" + audit.getProjectId());
+            AuditHistoryRowDto row = cellData.getValue();
+            if (row.getProjectName() != null && !row.getProjectName().trim().isEmpty()) {
+                return new SimpleStringProperty(row.getProjectName());
             }
-            return new SimpleStringProperty("N/A");
+            return new SimpleStringProperty("Projet #" + row.getProjectId());
         });
 
-        // ======================== SCORE COLUMN - MODIFIÉ ========================
-        // Score Column - Amélioré avec priorité sur les champs de la database
+        // Score du rapport, sinon celui de l'audit
         scoreColumn.setCellValueFactory(cellData -> {
-            AuditReport report = cellData.getValue();
-
-            if (report.getAudit() != null) {
-                Audit audit = report.getAudit();
-
-                // Priorité 1: Score depuis AuditReport (si le champ score existe dans le modèle)
-                try {
-                    if (report.getScore() != null) {
-                        return new SimpleStringProperty(report.getScore() + "%");
-                    }
-                } catch (Exception e) {
-                    // Si la méthode getScore() n'existe pas encore dans AuditReport
-                }
-
-                // Priorité 2: Score depuis Audit (si le champ score existe dans le modèle)
-                try {
-                    if (audit.getScore() != null) {
-                        return new SimpleStringProperty(audit.getScore() + "%");
-                    }
-                } catch (Exception e) {
-                    // Si la méthode getScore() n'existe pas encore dans Audit
-                }
-
-                // Priorité 3: Calculer depuis issues (comportement actuel)
-                List<AuditIssue> issues = audit.getIssues();
-                if (issues != null && !issues.isEmpty()) {
-                    // Compter seulement les issues ouvertes
-                    long openIssues = issues.stream()
-                            .filter(issue -> issue != null &&
-                                    ("Open".equals(issue.getStatus()) || "Ouvert".equals(issue.getStatus())))
-                            .count();
-                    int score = Math.max(0, 100 - ((int)openIssues * 10));
-                    return new SimpleStringProperty(score + "%");
-                }
-
-                // Si pas d'issues: score par défaut
-                return new SimpleStringProperty("100%");
-            }
-
-            return new SimpleStringProperty("0%");
+            Integer score = cellData.getValue().getScore();
+            return new SimpleStringProperty(score != null ? score + "%" : "N/A");
         });
 
-        scoreColumn.setCellFactory(column -> new TableCell<AuditReport, String>() {
+        scoreColumn.setCellFactory(column -> new TableCell<AuditHistoryRowDto, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
@@ -208,17 +158,12 @@ public class HistoryController {
             }
         });
 
-        // Status Column (inchangé)
         statusColumn.setCellValueFactory(cellData -> {
-            AuditReport report = cellData.getValue();
-
-            if (report.getAudit() != null && report.getAudit().getStatus() != null) {
-                return new SimpleStringProperty(report.getAudit().getStatus());
-            }
-            return new SimpleStringProperty("N/A");
+            String status = cellData.getValue().getStatus();
+            return new SimpleStringProperty(status != null ? status : "N/A");
         });
 
-        statusColumn.setCellFactory(column -> new TableCell<AuditReport, String>() {
+        statusColumn.setCellFactory(column -> new TableCell<AuditHistoryRowDto, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
@@ -251,54 +196,15 @@ public class HistoryController {
             }
         });
 
-        // ======================== PROBLEMS COLUMN - MODIFIÉ ========================
-        // Problems Column - Amélioré avec priorité sur les champs de la database
         problemsColumn.setCellValueFactory(cellData -> {
-            AuditReport report = cellData.getValue();
-
-            if (report.getAudit() != null) {
-                Audit audit = report.getAudit();
-
-                // Priorité 1: problemsCount depuis AuditReport (si le champ existe)
-                try {
-                    if (report.getProblemsCount() != null) {
-                        int count = report.getProblemsCount();
-                        if (count > 0) {
-                            return new SimpleStringProperty(count + " problème" + (count > 1 ? "s" : ""));
-                        }
-                        return new SimpleStringProperty("Aucun");
-                    }
-                } catch (Exception e) {
-                    // Si la méthode getProblemsCount() n'existe pas encore
-                }
-
-                // Priorité 2: problemsCount depuis Audit (si le champ existe)
-                try {
-                    if (audit.getProblemsCount() != null) {
-                        int count = audit.getProblemsCount();
-                        if (count > 0) {
-                            return new SimpleStringProperty(count + " problème" + (count > 1 ? "s" : ""));
-                        }
-                        return new SimpleStringProperty("Aucun");
-                    }
-                } catch (Exception e) {
-                    // Si la méthode getProblemsCount() n'existe pas encore
-                }
-
-                // Priorité 3: Compter depuis issues (comportement actuel)
-                List<AuditIssue> issues = audit.getIssues();
-                if (issues != null && !issues.isEmpty()) {
-                    int issueCount = issues.size();
-                    if (issueCount > 0) {
-                        return new SimpleStringProperty(issueCount + " problème" + (issueCount > 1 ? "s" : ""));
-                    }
-                }
+            Integer count = cellData.getValue().getProblemsCount();
+            if (count != null && count > 0) {
+                return new SimpleStringProperty(count + " problème" + (count > 1 ? "s" : ""));
             }
-
             return new SimpleStringProperty("Aucun");
         });
 
-        problemsColumn.setCellFactory(column -> new TableCell<AuditReport, String>() {
+        problemsColumn.setCellFactory(column -> new TableCell<AuditHistoryRowDto, String>() {
             @Override
             protected void updateItem(String item, boolean empty) {
                 super.updateItem(item, empty);
@@ -316,8 +222,7 @@ public class HistoryController {
             }
         });
 
-        // Reports Column with buttons (inchangé)
-        reportsColumn.setCellFactory(column -> new TableCell<AuditReport, Void>() {
+        reportsColumn.setCellFactory(column -> new TableCell<AuditHistoryRowDto, Void>() {
             private final Button viewButton = new Button("👁 Voir");
             private final Button pdfButton = new Button("📥 PDF");
             private final HBox buttonsBox = new HBox(10, viewButton, pdfButton);
@@ -360,294 +265,154 @@ public class HistoryController {
     }
 
     private void setupFilters() {
-        // Partner filter
-        partnerComboBox.getItems().clear();
-        partnerComboBox.getItems().add("Tous les partenaires");
-        partnerComboBox.setValue("Tous les partenaires");
+        partnerComboBox.getItems().setAll(ALL_PARTNERS);
+        partnerComboBox.setValue(ALL_PARTNERS);
 
-        // Sort By filter
-        sortByComboBox.getItems().addAll("Date", "Nom du projet", "Statut");
+        sortByComboBox.getItems().setAll("Date", "Nom du projet", "Statut");
         sortByComboBox.setValue("Date");
 
-        // Sort Order filter
-        sortComboBox.getItems().addAll("Ascendant", "Descendant");
+        sortComboBox.getItems().setAll("Ascendant", "Descendant");
         sortComboBox.setValue("Descendant");
 
-        // Add listeners
-        partnerComboBox.setOnAction(e -> filterAudits());
-        sortByComboBox.setOnAction(e -> filterAudits());
-        sortComboBox.setOnAction(e -> filterAudits());
+        partnerComboBox.setOnAction(e -> reload());
+        sortByComboBox.setOnAction(e -> reload());
+        sortComboBox.setOnAction(e -> reload());
     }
 
-    // ======================== LOGIQUE DATABASE ========================
-
-    public void loadAuditsFromDatabase() {
-        System.out.println("📋 Chargement des audits depuis HistoryService...");
-
-        auditList.clear();
-        filteredList.clear();
-
-        try {
-            if (historyService == null) {
-                System.out.println("❌ ERREUR CRITIQUE: HistoryService est NULL");
-                System.out.println("   ACTION REQUISE: MainLayoutController doit:");
-                System.out.println("   1. Créer HistoryService avec @Service");
-                System.out.println("   2. Injecter via setHistoryService()");
-                System.out.println("   3. Vérifier que HistoryService est dans le package services/");
-                return;
-            }
-
-            List<AuditReport> reports = historyService.getAllAuditReports();
+    // ======================== CHARGEMENT ========================
 
-            if (reports != null && !reports.isEmpty()) {
-                auditList.addAll(reports);
-                filteredList.addAll(reports);
-                System.out.println("✅ SUCCÈS: " + reports.size() + " audits chargés via HistoryService");
+    private void loadPartners() {
+        runInBackground(() -> historyService.getPartners(), partners -> {
+            String selected = partnerComboBox.getValue();
+            partnerComboBox.getItems().setAll(ALL_PARTNERS);
+            partnerComboBox.getItems().addAll(partners);
+            partnerComboBox.setValue(partners.contains(selected) ? selected : ALL_PARTNERS);
+        });
+    }
 
-                updatePartnerFilter();
-                logSampleData(reports);
-            } else {
-                System.out.println("ℹ️  INFO: Aucun audit trouvé dans la database");
-                System.out.println("   ➤ Les tables sont vides");
-                System.out.println("   ➤ Lancez un audit pour générer des données");
+    /**
+     * Recharger depuis la première page avec le filtre affiché
+     */
+    private void reload() {
+        currentFilter = readFilter();
+        nextCursor = null;
+        long requestGeneration = ++generation;
+        HistoryFilter filter = currentFilter;
+
+        rows.clear();
+        runInBackground(() -> historyService.countHistory(filter), count -> {
+            if (requestGeneration == generation) {
+                auditCountLabel.setText(count + " audits");
             }
+        });
+        loadPage(filter, null, requestGeneration);
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ ERREUR DATABASE via HistoryService: " + e.getMessage());
-            System.err.println("   PROBLÈMES POSSIBLES:");
-            System.err.println("   1. HistoryService non configuré");
-            System.err.println("   2. Connexion PostgreSQL échouée");
-            System.err.println("   3. Méthode getAllAuditReports() n'existe pas");
-            e.printStackTrace();
+    private void loadNextPage() {
+        if (nextCursor != null) {
+            loadPage(currentFilter, nextCursor, generation);
         }
-
-        updateAuditCount();
-        filterAudits();
     }
 
-    private void logSampleData(List<AuditReport> reports) {
-        if (reports != null && !reports.isEmpty()) {
-            System.out.println("📊 Échantillon des données chargées:");
-            for (int i = 0; i < Math.min(reports.size(), 3); i++) {
-                AuditReport report = reports.get(i);
-                System.out.println("   Audit #" + (i+1) + ":");
-                System.out.println("     ➤ ID: " + report.getId());
-                System.out.println("     ➤ Date: " + report.getGeneratedAt());
-                if (report.getAudit() != null) {
-                    Audit audit = report.getAudit();
-                    System.out.println("     ➤ Projet ID: " + audit.getProjectId());
-
-                    // Essayer d'afficher projectName si disponible
-                    try {
-                        if (audit.getProjectName() != null) {
-                            System.out.println("     ➤ Projet Nom: " + audit.getProjectName());
-                        }
-                    } catch (Exception e) {
-                        // Si getProjectName() n'existe pas encore
-                    }
-
-                    System.out.println("     ➤ Statut: " + audit.getStatus());
-                    System.out.println("     ➤ Documents: " + audit.getDocuments().size());
-                    System.out.println("     ➤ Issues: " + audit.getIssues().size());
-
-                    // Afficher score si disponible
-                    try {
-                        if (audit.getScore() != null) {
-                            System.out.println("     ➤ Score: " + audit.getScore() + "%");
-                        }
-                    } catch (Exception e) {
-                        // Si getScore() n'existe pas encore
-                    }
-                }
+    private void loadPage(HistoryFilter filter, HistoryCursor after, long requestGeneration) {
+        setLoadMoreVisible(false);
+        runInBackground(() -> historyService.getHistoryPage(filter, after, pageSize), page -> {
+            if (requestGeneration != generation) {
+                return; // filtre changé entre-temps
             }
-        }
+            rows.addAll(page.rows());
+            nextCursor = page.next();
+            setLoadMoreVisible(nextCursor != null);
+            log.debug("📋 Historique: {} lignes affichées", rows.size());
+        });
     }
 
-    private void updatePartnerFilter() {
-        partnerComboBox.getItems().clear();
-        partnerComboBox.getItems().add("Tous les partenaires");
-
-        auditList.stream()
-                .map(report -> report.getAudit())
-                .filter(audit -> audit != null)
-                .map(audit -> audit.getProjectId())
-                .distinct()
-                .sorted()
-                .forEach(projectId -> {
-                    partnerComboBox.getItems().add("Projet #" + projectId);
-                });
-
-        partnerComboBox.setValue("Tous les partenaires");
-        System.out.println("✅ Filtre partenaire: " + (partnerComboBox.getItems().size() - 1) + " projets");
+    private HistoryFilter readFilter() {
+        String partner = partnerComboBox.getValue();
+        SortField sort = switch (sortByComboBox.getValue() != null ? sortByComboBox.getValue() : "Date") {
+            case "Nom du projet" -> SortField.PROJECT_NAME;
+            case "Statut" -> SortField.STATUS;
+            default -> SortField.DATE;
+        };
+        return new HistoryFilter(
+                searchField.getText(),
+                ALL_PARTNERS.equals(partner) ? null : partner,
+                sort,
+                "Ascendant".equals(sortComboBox.getValue()));
     }
 
-    // ======================== FONCTIONNALITÉS UI ========================
-
-    private void filterAudits() {
-        filteredList.clear();
-
-        String searchText = searchField.getText().toLowerCase();
-        String selectedPartner = partnerComboBox.getValue();
-
-        for (AuditReport report : auditList) {
-            boolean matchesSearch = searchText.isEmpty() ||
-                    (report.getReportSummary() != null && report.getReportSummary().toLowerCase().contains(searchText)) ||
-                    (report.getAudit() != null && report.getAudit().getComments() != null &&
-                            report.getAudit().getComments().toLowerCase().contains(searchText));
-
-            boolean matchesPartner = selectedPartner == null ||
-                    selectedPartner.equals("Tous les partenaires") ||
-                    isMatchingPartner(report, selectedPartner);
-
-            if (matchesSearch && matchesPartner) {
-                filteredList.add(report);
-            }
+    private void setLoadMoreVisible(boolean visible) {
+        if (loadMoreButton != null) {
+            loadMoreButton.setVisible(visible);
+            loadMoreButton.setManaged(visible);
         }
+    }
 
-        // Tri
-        String sortBy = sortByComboBox.getValue();
-        String sortOrder = sortComboBox.getValue();
-        boolean ascending = sortOrder != null && sortOrder.equals("Ascendant");
-
-        if (sortBy != null) {
-            switch (sortBy) {
-                case "Date":
-                    filteredList.sort((r1, r2) -> {
-                        LocalDateTime date1 = r1.getGeneratedAt();
-                        LocalDateTime date2 = r2.getGeneratedAt();
-                        if (date1 != null && date2 != null) {
-                            return ascending ? date1.compareTo(date2) : date2.compareTo(date1);
-                        }
-                        return 0;
-                    });
-                    break;
-
-                case "Statut":
-                    filteredList.sort((r1, r2) -> {
-                        String status1 = getStatusForSort(r1);
-                        String status2 = getStatusForSort(r2);
-                        int comparison = status1.compareToIgnoreCase(status2);
-                        return ascending ? comparison : -comparison;
-                    });
-                    break;
+    private <T> void runInBackground(java.util.concurrent.Callable<T> query, java.util.function.Consumer<T> onSuccess) {
+        Task<T> task = new Task<>() {
+            @Override
+            protected T call() throws Exception {
+                return query.call();
             }
-        }
+        };
+        task.setOnSucceeded(e -> onSuccess.accept(task.getValue()));
+        task.setOnFailed(e -> log.error("❌ Erreur de chargement de l'historique", task.getException()));
 
-        updateAuditCount();
+        Thread thread = new Thread(task, "history-loader");
+        thread.setDaemon(true);
+        thread.start();
     }
 
-    private boolean isMatchingPartner(AuditReport report, String selectedPartner) {
-        if (report.getAudit() == null || selectedPartner == null) {
-            return false;
-        }
+    // ======================== ACTIONS ========================
 
-        if (selectedPartner.startsWith("Projet #")) {
-            try {
-                Long selectedProjectId = Long.parseLong(selectedPartner.replace("Projet #", "").trim());
-                return report.getAudit().getProjectId().equals(selectedProjectId);
-            } catch (NumberFormatException e) {
-                return false;
-            }
+    private void handleViewReport(AuditHistoryRowDto row) {
+        if (row == null) {
+            return;
         }
-
-        return false;
+        runInBackground(() -> historyService.getHistoryDetails(row.getReportId()),
+                details -> showDetails(row, details));
     }
 
-    private String getStatusForSort(AuditReport report) {
-        if (report.getAudit() != null && report.getAudit().getStatus() != null) {
-            return report.getAudit().getStatus();
+    private void showDetails(AuditHistoryRowDto row, AuditHistoryDetailsDto details) {
+        StringBuilder content = new StringBuilder();
+        if (details.getReportSummary() != null) {
+            content.append(details.getReportSummary()).append("\n\n");
         }
-        return "";
-    }
-
-    private void updateAuditCount() {
-        auditCountLabel.setText(filteredList.size() + " audits");
-    }
-
-    private void handleViewReport(AuditReport report) {
-        if (report != null) {
-            System.out.println("📄 Viewing report #" + report.getId());
-            System.out.println("   Report Path: " + report.getReportPath());
-            if (report.getAudit() != null) {
-                Audit audit = report.getAudit();
-                System.out.println("   Audit ID: " + audit.getId());
-                System.out.println("   Audit Status: " + audit.getStatus());
-                System.out.println("   Documents: " + audit.getDocuments().size());
-                System.out.println("   Issues: " + audit.getIssues().size());
-
-                // Afficher plus d'informations si disponibles
-                try {
-                    if (audit.getProjectName() != null) {
-                        System.out.println("   Project Name: " + audit.getProjectName());
-                    }
-                } catch (Exception e) {}
-
-                try {
-                    if (audit.getScore() != null) {
-                        System.out.println("   Score: " + audit.getScore() + "%");
-                    }
-                } catch (Exception e) {}
+        content.append("Modèle: ").append(details.getModelName() != null ? details.getModelName() : "N/A").append("\n");
+        content.append("Documents (").append(details.getDocumentNames().size()).append("):\n");
+        details.getDocumentNames().forEach(name -> content.append("  • ").append(name).append("\n"));
+
+        if (!details.getIssuesByType().isEmpty()) {
+            content.append("\nProblèmes par type:\n");
+            for (Map.Entry<String, Integer> entry : details.getIssuesByType().entrySet()) {
+                content.append("  • ").append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
             }
         }
-    }
-
-    private void handleDownloadPDF(AuditReport report) {
-        if (report != null) {
-            System.out.println("📥 Downloading PDF for report #" + report.getId());
-            System.out.println("   PDF Path: " + report.getReportPath());
+        if (details.getComments() != null && !details.getComments().isBlank()) {
+            content.append("\nCommentaires: ").append(details.getComments()).append("\n");
         }
-    }
 
-    // ======================== MÉTHODES PUBLIQUES ========================
-
-    public void refreshAudits() {
-        System.out.println("🔄 Rafraîchissement des audits via HistoryService...");
-        loadAuditsFromDatabase();
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("Détail de l'audit");
+        alert.setHeaderText(row.getProjectName() != null ? row.getProjectName() : "Projet #" + row.getProjectId());
+        alert.setContentText(content.toString());
+        alert.show();
     }
 
-    public void addNewAudit(AuditReport newReport) {
-        if (newReport == null) {
-            System.out.println("⚠️  Audit null - non ajouté");
-            return;
+    private void handleDownloadPDF(AuditHistoryRowDto row) {
+        if (row != null) {
+            runInBackground(() -> historyService.getHistoryDetails(row.getReportId()), details ->
+                    log.info("📥 Téléchargement du rapport #{}: {}", row.getReportId(), details.getReportPath()));
         }
-
-        System.out.println("🎯 Ajout d'un NOUVEL audit à l'historique:");
-        System.out.println("   ➤ Report ID: " + newReport.getId());
-        System.out.println("   ➤ Date: " + newReport.getGeneratedAt());
-
-        auditList.add(0, newReport);
-        filterAudits();
-
-        if (auditTable != null) {
-            auditTable.scrollTo(0);
-            auditTable.getSelectionModel().select(0);
-        }
-
-        updatePartnerFilter();
-        System.out.println("✅ Nouvel audit ajouté à l'historique!");
     }
 
-    public void setAuditData(List<AuditReport> reports) {
-        auditList.clear();
-        filteredList.clear();
-
-        if (reports != null && !reports.isEmpty()) {
-            auditList.addAll(reports);
-            filteredList.addAll(reports);
-            System.out.println("✅ " + reports.size() + " audits définis");
-            updatePartnerFilter();
-        }
-
-        updateAuditCount();
-        filterAudits();
-    }
+    // ======================== MÉTHODES PUBLIQUES ========================
 
-    public void checkStatus() {
-        System.out.println("\n=== ÉTAT HISTORY CONTROLLER ===");
-        System.out.println("HistoryService injecté: " + (historyService != null ? "✅ OUI" : "❌ NON"));
-        System.out.println("Repository injecté: " + (auditReportRepository != null ? "✅ OUI (déprécié)" : "❌ NON"));
-        System.out.println("Audits chargés: " + auditList.size());
-        System.out.println("Table initialisée: " + (auditTable != null ? "✅ OUI" : "❌ NON"));
-        System.out.println("===============================\n");
+    public void refreshAudits() {
+        log.info("🔄 Rafraîchissement de l'historique");
+        Platform.runLater(() -> {
+            loadPartners();
+            reload();
+        });
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package com.yourapp.controller;
 
 import com.yourapp.model.AuditDocument;
 import com.yourapp.model.Project;
+import com.yourapp.services.DocumentStorage;
 import com.yourapp.services.ProjectService;
 import com.yourapp.utils.SpringContext;
 import javafx.application.Platform;
@@ -228,18 +229,22 @@ public class ProjectCardController {
         btnView.setStyle(btnBase);
         btnView.setOnMouseEntered(e -> btnView.setStyle(btnHover));
         btnView.setOnMouseExited(e -> btnView.setStyle(btnBase));
-        btnView.setOnAction(e -> ouvrirFichier(doc.getDocumentPath()));
+        btnView.setOnAction(e -> ouvrirFichier(doc));
 
         card.getChildren().addAll(iconBadge, fileName, spacer, btnView);
         return card;
     }
 
-    private void ouvrirFichier(String path) {
+    private void ouvrirFichier(AuditDocument doc) {
         try {
-            String cleanPath = path.replace("/", java.io.File.separator).replace("\\", java.io.File.separator);
+            String cleanPath = doc.getDocumentPath().replace("/", java.io.File.separator).replace("\\", java.io.File.separator);
             java.io.File file = new java.io.File(System.getProperty("user.dir") + java.io.File.separator + cleanPath);
 
             if (file.exists()) {
+                // Les blobs n'ont pas d'extension: ouvrir une copie portant le nom d'origine
+                DocumentStorage storage = SpringContext.getContext().getBean(DocumentStorage.class);
+                file = storage.viewableCopy(file.toPath(), doc.getDocumentName()).toFile();
+
                 if (java.awt.Desktop.isDesktopSupported()) {
                     java.awt.Desktop.getDesktop().open(file);
                 } else {
@@ -0,0 +1,27 @@
+package com.yourapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO pour le détail d'une ligne de l'historique, chargé à la demande
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditHistoryDetailsDto {
+    private Long reportId;
+    private Long auditId;
+    private String reportPath;
+    private String reportSummary;
+    private String comments;
+    private String modelName;
+    private List<String> documentNames;
+    private Map<String, Integer> issuesByType;
+}
@@ -0,0 +1,28 @@
+package com.yourapp.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO pour une ligne de l'historique des audits (un rapport généré)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AuditHistoryRowDto {
+    private Long reportId;
+    private Long auditId;
+    private LocalDateTime generatedAt;
+    private Long projectId;
+    private String projectName;
+    private String partner;
+    private String status;
+    private Integer score;
+    private Integer problemsCount;
+    private long documentsCount;
+}
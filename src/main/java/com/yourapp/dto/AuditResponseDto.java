@@ -36,6 +36,8 @@ public class AuditResponseDto {
 
     private Integer problemsCount;
 
+    private Integer failedDocumentsCount; // documents en échec d'analyse (succès partiel)
+
     private String comments;
 
     private List<AuditDocumentDto> documents;
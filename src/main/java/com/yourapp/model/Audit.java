@@ -41,6 +41,10 @@ public class Audit {
     @Column(name = "problems_count")  // ⬅️ AJOUTÉ
     private Integer problemsCount;
 
+    // Documents en échec lors de l'analyse (succès partiel si > 0 avec un statut COMPLETED)
+    @Column(name = "failed_documents_count")
+    private Integer failedDocumentsCount;
+
     @Column(columnDefinition = "TEXT")
     private String comments;
 
@@ -102,6 +106,9 @@ public class Audit {
     public Integer getProblemsCount() { return problemsCount; }  // ⬅️ AJOUTÉ
     public void setProblemsCount(Integer problemsCount) { this.problemsCount = problemsCount; }  // ⬅️ AJOUTÉ
 
+    public Integer getFailedDocumentsCount() { return failedDocumentsCount; }
+    public void setFailedDocumentsCount(Integer failedDocumentsCount) { this.failedDocumentsCount = failedDocumentsCount; }
+
     public String getComments() { return comments; }
     public void setComments(String comments) { this.comments = comments; }
 
@@ -8,8 +8,10 @@ import java.time.LocalDateTime;
 @Table(name = "auditdocument")
 public class AuditDocument {
 
+    // Identifiants réservés par 50: les lots d'upload sont insérés en une seule requête groupée
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auditdocument_seq")
+    @SequenceGenerator(name = "auditdocument_seq", sequenceName = "auditdocument_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -22,6 +24,10 @@ public class AuditDocument {
     @Column(name = "document_path", nullable = false, length = 512)
     private String documentPath;
 
+    // Empreinte SHA-256 du contenu: clé du blob partagé entre les documents identiques
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "uploaded_at", updatable = false)
     private LocalDateTime uploadedAt;
 
@@ -82,6 +88,14 @@ public class AuditDocument {
         this.documentPath = documentPath;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public LocalDateTime getUploadedAt() {
         return uploadedAt;
     }
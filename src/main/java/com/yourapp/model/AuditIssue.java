@@ -7,8 +7,10 @@ import java.time.LocalDateTime;
 @Table(name = "audit_issue")
 public class AuditIssue {
 
+    // Séquence par pas de 50: les insertions en lot restent groupées (IDENTITY désactive le batch JDBC)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_issue_seq")
+    @SequenceGenerator(name = "audit_issue_seq", sequenceName = "audit_issue_seq", allocationSize = 50)
     private Long id;
 
 
@@ -56,6 +58,11 @@ public class AuditIssue {
         return id;
     }
 
+    // Renseigné à la main par l'insertion en masse (COPY), qui contourne Hibernate
+    public void setId(Long id) {
+        this.id = id;
+    }
+
     public Audit getAudit() {
         return audit;
     }
@@ -123,4 +130,8 @@ public class AuditIssue {
     public LocalDateTime getReportedAt() {
         return reportedAt;
     }
+
+    public void setReportedAt(LocalDateTime reportedAt) {
+        this.reportedAt = reportedAt;
+    }
 }
@@ -0,0 +1,125 @@
+package com.yourapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Exécution en arrière-plan de l'analyse IA d'un audit
+ * Persistée pour survivre à un redémarrage: un job QUEUED ou RUNNING est repris au démarrage,
+ * les documents déjà ANALYZED ne sont pas réanalysés
+ */
+@Entity
+@Table(name = "audit_job")
+public class AuditJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "audit_id", nullable = false)
+    private Long auditId;
+
+    @Column(name = "status", nullable = false, length = 20)
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+
+    @Column(name = "total_documents")
+    private Integer totalDocuments;
+
+    @Column(name = "processed_documents")
+    private Integer processedDocuments;
+
+    @Column(name = "failed_documents")
+    private Integer failedDocuments;
+
+    @Column(name = "attempts")
+    private Integer attempts;
+
+    @Column(name = "cancel_requested")
+    private boolean cancelRequested;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "deadline_at")
+    private LocalDateTime deadlineAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "submitted_by")
+    private Long submittedBy; // utilisateur ayant lancé l'analyse (null pour un job système)
+
+    @Column(name = "estimated_cost")
+    private Long estimatedCost; // coût estimé en tokens, pour l'ordonnancement
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // ========================
+    // Getters & Setters
+    // ========================
+
+    public Long getId() { return id; }
+
+    public Long getAuditId() { return auditId; }
+
+    public void setAuditId(Long auditId) { this.auditId = auditId; }
+
+    public String getStatus() { return status; }
+
+    public void setStatus(String status) { this.status = status; }
+
+    public Integer getTotalDocuments() { return totalDocuments; }
+
+    public void setTotalDocuments(Integer totalDocuments) { this.totalDocuments = totalDocuments; }
+
+    public Integer getProcessedDocuments() { return processedDocuments; }
+
+    public void setProcessedDocuments(Integer processedDocuments) { this.processedDocuments = processedDocuments; }
+
+    public Integer getFailedDocuments() { return failedDocuments; }
+
+    public void setFailedDocuments(Integer failedDocuments) { this.failedDocuments = failedDocuments; }
+
+    public Integer getAttempts() { return attempts; }
+
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public boolean isCancelRequested() { return cancelRequested; }
+
+    public void setCancelRequested(boolean cancelRequested) { this.cancelRequested = cancelRequested; }
+
+    public String getErrorMessage() { return errorMessage; }
+
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+
+    public LocalDateTime getDeadlineAt() { return deadlineAt; }
+
+    public void setDeadlineAt(LocalDateTime deadlineAt) { this.deadlineAt = deadlineAt; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+
+    public Long getSubmittedBy() { return submittedBy; }
+
+    public void setSubmittedBy(Long submittedBy) { this.submittedBy = submittedBy; }
+
+    public Long getEstimatedCost() { return estimatedCost; }
+
+    public void setEstimatedCost(Long estimatedCost) { this.estimatedCost = estimatedCost; }
+}
@@ -0,0 +1,61 @@
+package com.yourapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Compteurs du tableau de bord, par portée ('*' pour tout, 'org:<organisation>')
+ * Lecture seule côté application: la table est tenue à jour par triggers sur audit et projects (V7)
+ */
+@Entity
+@Table(name = "dashboard_summary")
+public class DashboardSummary {
+
+    public static final String GLOBAL_SCOPE = "*";
+
+    @Id
+    @Column(name = "scope", length = 300)
+    private String scope;
+
+    @Column(name = "total_audits", nullable = false, insertable = false, updatable = false)
+    private long totalAudits;
+
+    @Column(name = "audits_conforme", nullable = false, insertable = false, updatable = false)
+    private long auditsConforme;
+
+    @Column(name = "audits_non_conforme", nullable = false, insertable = false, updatable = false)
+    private long auditsNonConforme;
+
+    @Column(name = "total_projects", nullable = false, insertable = false, updatable = false)
+    private long totalProjects;
+
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
+    public DashboardSummary() {}
+
+    // Portée sans aucune donnée (ligne pas encore créée par les triggers)
+    public DashboardSummary(String scope) {
+        this.scope = scope;
+    }
+
+    public static String organizationScope(String organization) {
+        return "org:" + organization;
+    }
+
+    // ========================
+    // Getters
+    // ========================
+
+    public String getScope() { return scope; }
+
+    public long getTotalAudits() { return totalAudits; }
+
+    public long getAuditsConforme() { return auditsConforme; }
+
+    public long getAuditsNonConforme() { return auditsNonConforme; }
+
+    public long getTotalProjects() { return totalProjects; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
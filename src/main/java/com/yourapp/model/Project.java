@@ -18,6 +18,8 @@ public class Project {
     private String partner;
     private String status; // "Actif", "Clôturé"
     private int progress; // ex: 87
+    @Column(name = "audit_priority", nullable = false)
+    private int auditPriority = 1; // poids dans la file d'analyse (1 = normal)
 
     public Project() {} // Obligatoire pour Spring
 
@@ -58,4 +60,7 @@ public class Project {
 
     public int getProgress() { return progress; }
     public void setProgress(int progress) { this.progress = progress; }
-}
\ No newline at end of file
+
+    public int getAuditPriority() { return auditPriority; }
+    public void setAuditPriority(int auditPriority) { this.auditPriority = auditPriority; }
+}
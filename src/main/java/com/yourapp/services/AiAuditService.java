@@ -9,11 +9,14 @@ import com.yourapp.model.AuditIssue;
 import com.yourapp.model.AuditTemplate;
 import com.yourapp.DAO.AuditDocumentRepository;
 import com.yourapp.DAO.AuditTemplateRepository;
+import com.yourapp.utils.AuditProgressEvent.Stage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -32,90 +35,115 @@ public class AiAuditService {
     private final AuditDocumentRepository documentRepository;
     private final AuditTemplateRepository templateRepository;
     private final AuditIssueService issueService;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditProgressBus progressBus;
+
+    // Taille maximale du contenu envoyé dans un prompt, au-delà le document est découpé par paragraphes
+    @Value("${ai.prompt.max-document-chars:24000}")
+    private int maxDocumentChars;
 
     /**
-     * Analyser un audit complet avec tous ses documents
+     * Analyser un document spécifique, étapes enchaînées dans le thread appelant
+     * Le moteur d'analyse passe par AuditAnalysisPipeline, qui exécute ces mêmes étapes sur des pools dédiés.
+     * Aucune connexion n'est retenue pendant l'extraction et les appels IA: seules l'écriture du statut
+     * et l'enregistrement final (issues + document ANALYZED) ouvrent chacun une transaction courte
      */
-    @Transactional
-    public void analyzeAudit(Audit audit) {
-        log.info("Démarrage de l'analyse IA pour l'audit {}", audit.getId());
+    public void analyzeDocument(Audit audit, AuditDocument document, AuditTemplate template) {
+        log.info("Analyse du document {} pour l'audit {}", document.getId(), audit.getId());
 
         try {
-            // Récupérer le template (modèle) d'analyse
-            AuditTemplate template = templateRepository.findById(audit.getModelId())
-                    .orElseThrow(() -> new RuntimeException("Template introuvable avec l'ID: " + audit.getModelId()));
-
-            // Récupérer tous les documents de l'audit
-            List<AuditDocument> documents = documentRepository.findByAuditId(audit.getId());
-
-            if (documents.isEmpty()) {
-                throw new RuntimeException("Aucun document à analyser pour l'audit " + audit.getId());
-            }
+            ExtractedContent content = startDocument(audit, document);
+            List<String> prompts = buildPrompts(template, document, content);
+            List<AuditIssue> issues = new ArrayList<>();
 
-            // Analyser chaque document
-            for (AuditDocument document : documents) {
-                analyzeDocument(audit, document, template);
+            for (int i = 0; i < prompts.size(); i++) {
+                String aiResponse = infer(audit, document, prompts.get(i), 10 + 80 * i / prompts.size());
+                issues.addAll(parse(aiResponse, audit, document, content));
             }
 
-            log.info("Analyse IA terminée pour l'audit {}", audit.getId());
+            completeDocument(audit, document, issues);
 
         } catch (Exception e) {
-            log.error("Erreur lors de l'analyse IA de l'audit {}", audit.getId(), e);
-            throw new RuntimeException("Erreur lors de l'analyse IA: " + e.getMessage(), e);
+            failDocument(audit, document, e);
+            throw new RuntimeException("Erreur lors de l'analyse du document: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Analyser un document spécifique
+     * Étape extraction: passer le document à PROCESSING et lire son contenu et son index de structure
      */
-    @Transactional
-    public void analyzeDocument(Audit audit, AuditDocument document, AuditTemplate template) {
-        log.info("Analyse du document {} pour l'audit {}", document.getId(), audit.getId());
+    public ExtractedContent startDocument(Audit audit, AuditDocument document) {
+        // Mettre à jour le statut du document (transaction courte du repository)
+        document.setStatus("PROCESSING");
+        documentRepository.save(document);
+        progressBus.documentStage(audit.getId(), document, Stage.EXTRACTING, 0);
 
-        try {
-            // Mettre à jour le statut du document
-            document.setStatus("PROCESSING");
-            documentRepository.save(document);
-
-            // Lire le contenu du document
-            String documentContent = documentService.readDocumentContent(document.getId());
+        return documentService.readDocumentStructure(document.getId());
+    }
 
-            // Construire le prompt avec le template et le contenu du document
-            String prompt = promptBuilder.buildPrompt(template, documentContent, document.getDocumentName());
+    /**
+     * Étape prompt: un prompt par tranche de paragraphes, les repères [§n] restent globaux au document
+     */
+    public List<String> buildPrompts(AuditTemplate template, AuditDocument document, ExtractedContent content) {
+        List<String> prompts = new ArrayList<>();
+        for (int[] chunk : content.chunkParagraphs(maxDocumentChars)) {
+            String prompt = promptBuilder.buildPrompt(template, content, document.getDocumentName(),
+                    chunk[0], chunk[1]);
 
             log.debug("Prompt construit pour le document {}: {}", document.getId(),
                     prompt.substring(0, Math.min(200, prompt.length())) + "...");
+            prompts.add(prompt);
+        }
+        return prompts;
+    }
 
-            // Envoyer la requête à l'IA
-            String aiResponse = aiClient.sendRequest(prompt);
+    /**
+     * Étape inférence: envoyer un prompt à l'IA (documentPercent = avancement du document à publier)
+     */
+    public String infer(Audit audit, AuditDocument document, String prompt, int documentPercent) {
+        progressBus.documentStage(audit.getId(), document, Stage.INFERRING, documentPercent);
+        String aiResponse = aiClient.sendRequest(prompt);
 
-            log.debug("Réponse IA reçue pour le document {}", document.getId());
+        log.debug("Réponse IA reçue pour le document {}", document.getId());
+        return aiResponse;
+    }
 
-            // Parser la réponse de l'IA et créer les issues
-            List<AuditIssue> issues = responseParser.parseResponse(aiResponse, audit, document);
+    /**
+     * Étape parsing: créer les issues localisées à partir d'une réponse de l'IA
+     */
+    public List<AuditIssue> parse(String aiResponse, Audit audit, AuditDocument document, ExtractedContent content) {
+        return responseParser.parseResponse(aiResponse, audit, document, content);
+    }
 
-            // Sauvegarder les issues détectées
+    /**
+     * Étape persistance: issues et statut ANALYZED ensemble, un document ANALYZED a toujours ses issues
+     */
+    public void completeDocument(Audit audit, AuditDocument document, List<AuditIssue> issues) {
+        document.setStatus("ANALYZED");
+        document.setAnalyzedAt(java.time.LocalDateTime.now());
+        document.setIssuesCount(issues.size());
+        progressBus.documentStage(audit.getId(), document, Stage.PERSISTING, 90);
+        transactionTemplate.executeWithoutResult(status -> {
             issueService.saveIssues(issues);
-
-            // Mettre à jour le statut du document
-            document.setStatus("ANALYZED");
-            document.setAnalyzedAt(java.time.LocalDateTime.now());
-            document.setIssuesCount(issues.size());
             documentRepository.save(document);
+        });
 
-            log.info("Document {} analysé avec succès. {} problèmes détectés.",
-                    document.getId(), issues.size());
-
-        } catch (Exception e) {
-            log.error("Erreur lors de l'analyse du document {}", document.getId(), e);
-
-            // Mettre à jour le statut en erreur
-            document.setStatus("ERROR");
-            document.setErrorMessage(e.getMessage());
-            documentRepository.save(document);
+        log.info("Document {} analysé avec succès. {} problèmes détectés.",
+                document.getId(), issues.size());
+        progressBus.documentFinished(audit.getId(), document, issues.size(), null);
+    }
 
-            throw new RuntimeException("Erreur lors de l'analyse du document: " + e.getMessage(), e);
-        }
+    /**
+     * Marquer le document en erreur, avec la cause structurée si l'extraction a échoué
+     */
+    public void failDocument(Audit audit, AuditDocument document, Exception e) {
+        log.error("Erreur lors de l'analyse du document {}", document.getId(), e);
+
+        ExtractionException extractionFailure = ExtractionException.find(e);
+        document.setStatus("ERROR");
+        document.setErrorMessage(extractionFailure != null ? extractionFailure.toErrorMessage() : e.getMessage());
+        documentRepository.save(document);
+        progressBus.documentFinished(audit.getId(), document, 0, document.getErrorMessage());
     }
 
     /**
@@ -160,27 +188,27 @@ public class AiAuditService {
 
     /**
      * Analyser un document avec un modèle personnalisé (prompt custom)
+     * Pas de transaction englobante: l'appel IA ne retient aucune connexion
      */
-    @Transactional
     public List<AuditIssue> analyzeWithCustomPrompt(Audit audit, Long documentId, String customPrompt) {
         log.info("Analyse avec prompt personnalisé pour le document {}", documentId);
 
         try {
-            // Lire le contenu du document
-            String documentContent = documentService.readDocumentContent(documentId);
+            // Lire le contenu du document et son index de structure
+            ExtractedContent content = documentService.readDocumentStructure(documentId);
 
             // Récupérer le document
             AuditDocument document = documentRepository.findById(documentId)
                     .orElseThrow(() -> new RuntimeException("Document introuvable"));
 
-            // Construire le prompt complet
-            String fullPrompt = customPrompt + "\n\nContenu du document:\n" + documentContent;
-
-            // Envoyer la requête
-            String aiResponse = aiClient.sendRequest(fullPrompt);
-
-            // Parser la réponse
-            List<AuditIssue> issues = responseParser.parseResponse(aiResponse, audit, document);
+            // Un prompt par tranche de paragraphes, repères [§n] résolus par le parser
+            List<AuditIssue> issues = new ArrayList<>();
+            for (int[] chunk : content.chunkParagraphs(maxDocumentChars)) {
+                String prompt = promptBuilder.buildCustomPrompt(customPrompt, content, document.getDocumentName(),
+                        chunk[0], chunk[1]);
+                String aiResponse = aiClient.sendRequest(prompt);
+                issues.addAll(responseParser.parseResponse(aiResponse, audit, document, content));
+            }
 
             // Sauvegarder les issues
             issueService.saveIssues(issues);
@@ -0,0 +1,339 @@
+package com.yourapp.services;
+
+import com.yourapp.model.Audit;
+import com.yourapp.model.AuditDocument;
+import com.yourapp.model.AuditIssue;
+import com.yourapp.model.AuditTemplate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pipeline d'analyse des documents par étapes: extraction, prompt, inférence, parsing, persistance
+ * Chaque étape a son propre pool et une file bornée devant elle: l'extraction du document suivant
+ * se fait pendant l'inférence du précédent, et des prompts sont toujours prêts quand un appel IA se libère.
+ * Une file pleine bloque l'étape amont (contre-pression depuis l'inférence jusqu'à l'extraction);
+ * seule la file d'entrée est non bornée, elle ne contient que des références aux documents
+ * (chaque job n'y place qu'une fenêtre de documents, voir app.audit.pipeline.documents-per-job)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditAnalysisPipeline {
+
+    private final AiAuditService aiAuditService;
+
+    @Value("${app.audit.pipeline.extract-threads:2}")
+    private int extractThreads;
+
+    @Value("${app.audit.pipeline.prompt-threads:1}")
+    private int promptThreads;
+
+    // Par défaut autant que d'appels IA simultanés autorisés: chaque thread garde son appel occupé
+    @Value("${app.audit.pipeline.infer-threads:${ai.max-concurrent-requests:2}}")
+    private int inferThreads;
+
+    @Value("${app.audit.pipeline.parse-threads:1}")
+    private int parseThreads;
+
+    @Value("${app.audit.pipeline.persist-threads:1}")
+    private int persistThreads;
+
+    @Value("${app.audit.pipeline.queue-capacity:8}")
+    private int queueCapacity;
+
+    private PipelineStage extractStage;
+    private PipelineStage promptStage;
+    private PipelineStage inferStage;
+    private PipelineStage parseStage;
+    private PipelineStage persistStage;
+
+    /**
+     * Mesures d'une étape: profondeur de file, temps moyen d'attente en file et de traitement
+     */
+    public record StageMetrics(String stage, int threads, int queueDepth, int queueCapacity, int active,
+                               long completed, long failed, double avgWaitMillis, double avgServiceMillis) {}
+
+    /**
+     * Suivi d'un document soumis au pipeline; le résultat vaut false si le document est en échec
+     */
+    public static final class DocumentHandle {
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        public CompletableFuture<Boolean> result() {
+            return result;
+        }
+
+        /**
+         * Vrai dès que l'extraction du document a commencé (ou qu'il a été annulé)
+         */
+        public boolean isStarted() {
+            return started.get();
+        }
+
+        /**
+         * Annuler le document s'il n'a pas encore commencé son extraction
+         */
+        public boolean cancel() {
+            if (started.compareAndSet(false, true)) {
+                return result.cancel(false);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * État d'un document entre les étapes; les réponses de chaque tranche sont rangées à leur index
+     */
+    private static final class DocumentWork {
+        private final Audit audit;
+        private final AuditDocument document;
+        private final AuditTemplate template;
+        private final DocumentHandle handle;
+        private final AtomicBoolean failed = new AtomicBoolean();
+        private ExtractedContent content;
+        private List<AuditIssue>[] chunkIssues;
+        private AtomicInteger remainingChunks;
+
+        DocumentWork(Audit audit, AuditDocument document, AuditTemplate template, DocumentHandle handle) {
+            this.audit = audit;
+            this.document = document;
+            this.template = template;
+            this.handle = handle;
+        }
+    }
+
+    @PostConstruct
+    void initStages() {
+        // File d'entrée non bornée: la soumission d'un job ne bloque jamais
+        extractStage = new PipelineStage("extract", extractThreads, 0);
+        promptStage = new PipelineStage("prompt", promptThreads, queueCapacity);
+        inferStage = new PipelineStage("infer", inferThreads, queueCapacity);
+        parseStage = new PipelineStage("parse", parseThreads, queueCapacity);
+        persistStage = new PipelineStage("persist", persistThreads, queueCapacity);
+        log.info("🧵 Pipeline d'analyse initialisé: extraction {}, prompt {}, inférence {}, parsing {}, persistance {} (files de {})",
+                extractThreads, promptThreads, inferThreads, parseThreads, persistThreads, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdownStages() {
+        for (PipelineStage stage : stages()) {
+            if (stage != null) {
+                stage.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Soumettre un document au pipeline
+     */
+    public DocumentHandle submit(Audit audit, AuditDocument document, AuditTemplate template) {
+        DocumentHandle handle = new DocumentHandle();
+        DocumentWork work = new DocumentWork(audit, document, template, handle);
+        enqueue(extractStage, work, () -> extract(work));
+        return handle;
+    }
+
+    public List<StageMetrics> metrics() {
+        List<StageMetrics> metrics = new ArrayList<>();
+        for (PipelineStage stage : stages()) {
+            metrics.add(stage.metrics());
+        }
+        return metrics;
+    }
+
+    /**
+     * Résumé des mesures pour les logs, ex: "infer[q=3/8 wait=120ms run=4500ms]"
+     */
+    public String describeMetrics() {
+        StringBuilder summary = new StringBuilder();
+        for (StageMetrics stage : metrics()) {
+            if (!summary.isEmpty()) {
+                summary.append(' ');
+            }
+            summary.append(String.format("%s[q=%d/%s wait=%.0fms run=%.0fms]", stage.stage(), stage.queueDepth(),
+                    stage.queueCapacity() > 0 ? String.valueOf(stage.queueCapacity()) : "∞",
+                    stage.avgWaitMillis(), stage.avgServiceMillis()));
+        }
+        return summary.toString();
+    }
+
+    private List<PipelineStage> stages() {
+        List<PipelineStage> stages = new ArrayList<>();
+        stages.add(extractStage);
+        stages.add(promptStage);
+        stages.add(inferStage);
+        stages.add(parseStage);
+        stages.add(persistStage);
+        return stages;
+    }
+
+    // ============ Étapes ============
+
+    private void extract(DocumentWork work) {
+        if (!work.handle.started.compareAndSet(false, true)) {
+            // Annulé avant de commencer
+            return;
+        }
+        work.content = aiAuditService.startDocument(work.audit, work.document);
+        enqueue(promptStage, work, () -> buildPrompts(work));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void buildPrompts(DocumentWork work) {
+        List<String> prompts = aiAuditService.buildPrompts(work.template, work.document, work.content);
+        if (prompts.isEmpty()) {
+            enqueue(persistStage, work, () -> persist(work));
+            return;
+        }
+        work.chunkIssues = new List[prompts.size()];
+        work.remainingChunks = new AtomicInteger(prompts.size());
+        for (int i = 0; i < prompts.size(); i++) {
+            int index = i;
+            String prompt = prompts.get(i);
+            enqueue(inferStage, work, () -> infer(work, index, prompt));
+        }
+    }
+
+    private void infer(DocumentWork work, int index, String prompt) {
+        if (work.failed.get()) {
+            return;
+        }
+        int total = work.chunkIssues.length;
+        int done = total - work.remainingChunks.get();
+        String aiResponse = aiAuditService.infer(work.audit, work.document, prompt, 10 + 80 * done / total);
+        enqueue(parseStage, work, () -> parse(work, index, aiResponse));
+    }
+
+    private void parse(DocumentWork work, int index, String aiResponse) {
+        if (work.failed.get()) {
+            return;
+        }
+        work.chunkIssues[index] = aiAuditService.parse(aiResponse, work.audit, work.document, work.content);
+        if (work.remainingChunks.decrementAndGet() == 0) {
+            enqueue(persistStage, work, () -> persist(work));
+        }
+    }
+
+    private void persist(DocumentWork work) {
+        List<AuditIssue> issues = new ArrayList<>();
+        if (work.chunkIssues != null) {
+            for (List<AuditIssue> chunk : work.chunkIssues) {
+                issues.addAll(chunk);
+            }
+        }
+        aiAuditService.completeDocument(work.audit, work.document, issues);
+        work.handle.result.complete(true);
+    }
+
+    /**
+     * Passer un document à l'étape suivante; toute erreur d'étape met le document en échec
+     */
+    private void enqueue(PipelineStage stage, DocumentWork work, Runnable step) {
+        try {
+            stage.submit(() -> {
+                try {
+                    step.run();
+                } catch (RuntimeException e) {
+                    fail(work, e);
+                    throw e;
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Arrêt de l'application: le document n'est pas marqué en erreur, le job sera repris
+            work.handle.result.completeExceptionally(e);
+        }
+    }
+
+    private void fail(DocumentWork work, RuntimeException e) {
+        if (!work.failed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            aiAuditService.failDocument(work.audit, work.document, e);
+        } catch (RuntimeException saveError) {
+            log.error("❌ Impossible d'enregistrer l'échec du document {}", work.document.getId(), saveError);
+        } finally {
+            work.handle.result.complete(false);
+        }
+    }
+
+    /**
+     * Étape du pipeline: pool dédié, file bornée (capacity > 0) dont l'ajout bloque quand elle est pleine
+     */
+    private static final class PipelineStage {
+        private final String name;
+        private final int threads;
+        private final int capacity;
+        private final ThreadPoolExecutor executor;
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder serviceNanos = new LongAdder();
+
+        PipelineStage(String name, int threads, int capacity) {
+            this.name = name;
+            this.threads = Math.max(1, threads);
+            this.capacity = capacity;
+            BlockingQueue<Runnable> queue = capacity > 0 ? new ArrayBlockingQueue<>(capacity) : new LinkedBlockingQueue<>();
+            AtomicInteger counter = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS, queue,
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "pipeline-" + name + "-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (runnable, pool) -> {
+                        // Contre-pression: l'étape amont attend une place dans la file
+                        if (pool.isShutdown()) {
+                            throw new RejectedExecutionException("Étape " + name + " arrêtée");
+                        }
+                        try {
+                            pool.getQueue().put(runnable);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Attente de l'étape " + name + " interrompue", e);
+                        }
+                    });
+        }
+
+        void submit(Runnable task) {
+            long enqueuedAt = System.nanoTime();
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                waitNanos.add(startedAt - enqueuedAt);
+                try {
+                    task.run();
+                    completed.increment();
+                } catch (RuntimeException e) {
+                    failed.increment();
+                } finally {
+                    serviceNanos.add(System.nanoTime() - startedAt);
+                }
+            });
+        }
+
+        StageMetrics metrics() {
+            long done = completed.sum() + failed.sum();
+            double avgWait = done > 0 ? waitNanos.sum() / 1_000_000.0 / done : 0;
+            double avgService = done > 0 ? serviceNanos.sum() / 1_000_000.0 / done : 0;
+            return new StageMetrics(name, threads, executor.getQueue().size(), capacity, executor.getActiveCount(),
+                    completed.sum(), failed.sum(), avgWait, avgService);
+        }
+
+        void shutdownNow() {
+            executor.shutdownNow();
+        }
+    }
+}
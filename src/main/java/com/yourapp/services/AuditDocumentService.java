@@ -8,13 +8,13 @@ import com.yourapp.DAO.AuditDocumentRepository;
 import com.yourapp.DAO.AuditRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -22,10 +22,11 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,66 +37,146 @@ public class AuditDocumentService {
     private final AuditDocumentRepository documentRepository;
     private final AuditRepository auditRepository;
     private final AuditIssueRepository auditIssueRepository;
+    private final DocumentContentExtractor contentExtractor;
+    private final ExtractionWorkerPool extractionWorkers;
 
-    private final String uploadDir = "uploads/audit-documents/";
+    private final DocumentStorage documentStorage;
+    private final DocumentUploadPipeline uploadPipeline;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Uploader un document pour un audit et un projet spécifique
+     * La copie du fichier se fait hors transaction: seule l'insertion retient une connexion
      */
-    @Transactional
     public AuditDocumentDto uploadDocument(MultipartFile file, Long auditId, Long projectId) {
         // 1. Sauvegarde du fichier physique
-        String path = storeFile(file);
-
-        // 2. Récupération de l'audit parent
-        Audit audit = auditRepository.findById(auditId)
-                .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
-
-        // 3. Création de l'entité Document avec liaison Projet
-        AuditDocument doc = new AuditDocument();
-        doc.setDocumentName(file.getOriginalFilename());
-        doc.setDocumentPath(path);
-        doc.setAudit(audit);
-        doc.setStatus("UPLOADED");
-        doc.setProjectId(projectId); // Liaison Supabase
-
-        // 4. Enregistrement
-        AuditDocument savedDoc = documentRepository.save(doc);
+        DocumentStorage.StoredFile stored;
+        try (InputStream input = file.getInputStream()) {
+            stored = documentStorage.store(input, file.getOriginalFilename());
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors du stockage du fichier: " + e.getMessage());
+        }
 
-        log.info("✅ Document '{}' enregistré et lié au projet ID: {}", file.getOriginalFilename(), projectId);
-        return mapToDto(savedDoc);
+        return registerDocument(stored, file.getOriginalFilename(), auditId, projectId);
     }
 
     /**
-     * Méthode interne pour sauvegarder le fichier sur le disque
+     * Uploader un fichier local (application desktop) sans le charger en mémoire
      */
-    private String storeFile(MultipartFile file) {
-        try {
-            Path root = Paths.get(uploadDir);
-            if (!Files.exists(root)) {
-                Files.createDirectories(root);
-            }
-
-            String fileName = UUID.randomUUID().toString() + "_" + file.getOriginalFilename();
-            Path targetPath = root.resolve(fileName);
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
+    public AuditDocumentDto uploadLocalDocument(Path source, Long auditId, Long projectId) {
+        String originalName = source.getFileName().toString();
 
-            return targetPath.toString();
+        // 1. Sauvegarde du fichier physique (copie et empreinte en un seul passage)
+        DocumentStorage.StoredFile stored;
+        try {
+            stored = documentStorage.storeLocal(source, originalName);
         } catch (IOException e) {
             throw new RuntimeException("Erreur lors du stockage du fichier: " + e.getMessage());
         }
+
+        return registerDocument(stored, originalName, auditId, projectId);
+    }
+
+    private AuditDocumentDto registerDocument(DocumentStorage.StoredFile stored, String originalName,
+                                              Long auditId, Long projectId) {
+        return registerBatch(List.of(new DocumentUploadPipeline.Stored(originalName, stored)), auditId, projectId).get(0);
     }
 
     /**
      * Uploader plusieurs documents (Corrigé pour inclure projectId)
+     * Stockage en parallèle puis enregistrement par lots, voir DocumentUploadPipeline
      */
-    @Transactional
     public List<AuditDocumentDto> uploadMultipleDocuments(List<MultipartFile> files, Long auditId, Long projectId) {
         log.info("📤 Upload de {} documents pour l'audit {} et projet {}", files.size(), auditId, projectId);
 
-        return files.stream()
-                .map(file -> uploadDocument(file, auditId, projectId))
-                .collect(Collectors.toList());
+        List<DocumentUploadPipeline.Source> sources = files.stream()
+                .map(file -> new DocumentUploadPipeline.Source(file.getOriginalFilename(), storage -> {
+                    try (InputStream input = file.getInputStream()) {
+                        return storage.store(input, file.getOriginalFilename());
+                    }
+                }))
+                .toList();
+
+        return uploadPipeline.upload(sources, batch -> registerBatch(batch, auditId, projectId), null);
+    }
+
+    /**
+     * Uploader plusieurs fichiers locaux, avec suivi de l'avancement fichier par fichier
+     */
+    public List<AuditDocumentDto> uploadLocalDocuments(List<Path> files, Long auditId, Long projectId,
+                                                       Consumer<DocumentUploadPipeline.Progress> listener) {
+        log.info("📤 Upload de {} fichiers locaux pour l'audit {} et projet {}", files.size(), auditId, projectId);
+
+        List<DocumentUploadPipeline.Source> sources = files.stream()
+                .map(DocumentUploadPipeline.Source::local)
+                .toList();
+
+        return uploadPipeline.upload(sources, batch -> registerBatch(batch, auditId, projectId), listener);
+    }
+
+    /**
+     * Rattacher à un audit des documents déjà stockés (ré-audit): les blobs existants sont référencés, pas recopiés
+     */
+    public List<AuditDocumentDto> reuseDocuments(List<AuditDocument> documents, Long auditId, Long projectId) {
+        log.info("♻️ Rattachement de {} documents existants à l'audit {}", documents.size(), auditId);
+
+        List<DocumentUploadPipeline.Source> sources = documents.stream()
+                .map(document -> new DocumentUploadPipeline.Source(document.getDocumentName(),
+                        storage -> document.getContentHash() != null
+                                ? storage.reference(document.getContentHash(), document.getDocumentName())
+                                : storage.storeLocal(Paths.get(document.getDocumentPath()), document.getDocumentName())))
+                .toList();
+
+        return uploadPipeline.upload(sources, batch -> registerBatch(batch, auditId, projectId), null);
+    }
+
+    /**
+     * Enregistrer un lot de fichiers stockés en une seule transaction (une lecture de l'audit, un saveAll)
+     * Les blobs restent épinglés jusqu'à la fin de la transaction, puis sont libérés quoi qu'il arrive;
+     * si la transaction échoue, les blobs qu'elle devait référencer sont collectés
+     */
+    private List<AuditDocumentDto> registerBatch(List<DocumentUploadPipeline.Stored> batch,
+                                                 Long auditId, Long projectId) {
+        RuntimeException failure;
+        try {
+            return transactionTemplate.execute(status -> {
+                Audit audit = auditRepository.findById(auditId)
+                        .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
+
+                List<AuditDocument> documents = batch.stream()
+                        .map(stored -> newDocument(stored.file(), stored.fileName(), audit, projectId))
+                        .toList();
+                List<AuditDocument> saved = documentRepository.saveAll(documents);
+
+                List<AuditDocumentDto> dtos = new ArrayList<>(saved.size());
+                for (int i = 0; i < saved.size(); i++) {
+                    dtos.add(mapToDto(saved.get(i), batch.get(i).file()));
+                }
+                log.info("✅ {} documents enregistrés et liés au projet ID: {}", dtos.size(), projectId);
+                return dtos;
+            });
+        } catch (RuntimeException e) {
+            failure = e;
+        } finally {
+            // Hors du template: les épingles sont retirées même si la transaction n'a pas pu démarrer
+            batch.forEach(stored -> unpinAfterTransaction(stored.file().contentHash()));
+        }
+
+        batch.forEach(stored -> documentStorage.collectIfUnreferenced(stored.file().contentHash(),
+                () -> documentRepository.countByContentHash(stored.file().contentHash()) == 0));
+        throw failure;
+    }
+
+    private AuditDocument newDocument(DocumentStorage.StoredFile stored, String originalName,
+                                      Audit audit, Long projectId) {
+        AuditDocument doc = new AuditDocument();
+        doc.setDocumentName(originalName);
+        doc.setDocumentPath(stored.path().toString());
+        doc.setContentHash(stored.contentHash());
+        doc.setAudit(audit);
+        doc.setStatus("UPLOADED");
+        doc.setProjectId(projectId); // Liaison Supabase
+        return doc;
     }
 
     public AuditDocumentDto getDocumentById(Long documentId) {
@@ -115,7 +196,7 @@ public class AuditDocumentService {
                 .orElseThrow(() -> new RuntimeException("Document introuvable"));
 
         try {
-            Path filePath = Paths.get(document.getDocumentPath());
+            Path filePath = documentStorage.readablePath(Paths.get(document.getDocumentPath()));
             Resource resource = new UrlResource(filePath.toUri());
             if (resource.exists() || resource.isReadable()) return resource;
             else throw new RuntimeException("Fichier non lisible");
@@ -135,61 +216,46 @@ public class AuditDocumentService {
         return mapToDto(documentRepository.save(document));
     }
 
+    /**
+     * Lire le texte d'un document (servi depuis le cache d'extraction si le fichier n'a pas changé)
+     */
     public String readDocumentContent(Long documentId) {
         AuditDocument document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new RuntimeException("Document introuvable"));
 
         try {
-            Path filePath = Paths.get(document.getDocumentPath());
-            String fileName = document.getDocumentName().toLowerCase();
-
-            if (fileName.endsWith(".txt")) return readTextFile(filePath);
-            if (fileName.endsWith(".docx")) return readDocxFile(filePath);
-            if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) return readExcelFile(filePath);
-            // Pour le PDF, utilisez votre méthode existante ou Apache PDFBox
-            return "[Contenu non extrait pour ce format]";
+            Path filePath = documentStorage.readablePath(Paths.get(document.getDocumentPath()));
+            String fileName = document.getDocumentName();
+
+            if (!contentExtractor.isSupported(fileName)) return "[Contenu non extrait pour ce format]";
+            return extractionWorkers.extractContent(filePath, fileName);
+        } catch (ExtractionException e) {
+            throw new RuntimeException("Erreur lecture: " + e.toErrorMessage(), e);
         } catch (Exception e) {
             throw new RuntimeException("Erreur lecture: " + e.getMessage());
         }
     }
 
-    private String readTextFile(Path filePath) throws IOException {
-        return Files.readString(filePath);
-    }
+    /**
+     * Lire le contenu d'un document avec son index de pages et de paragraphes
+     */
+    public ExtractedContent readDocumentStructure(Long documentId) {
+        AuditDocument document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new RuntimeException("Document introuvable"));
 
-    private String readDocxFile(Path filePath) throws IOException {
-        try (InputStream fis = Files.newInputStream(filePath);
-             XWPFDocument document = new XWPFDocument(fis);
-             XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
-            return extractor.getText();
-        }
-    }
+        try {
+            Path filePath = documentStorage.readablePath(Paths.get(document.getDocumentPath()));
+            String fileName = document.getDocumentName();
 
-    private String readExcelFile(Path filePath) throws IOException {
-        StringBuilder content = new StringBuilder();
-        try (InputStream fis = Files.newInputStream(filePath);
-             Workbook workbook = WorkbookFactory.create(fis)) {
-            for (Sheet sheet : workbook) {
-                for (Row row : sheet) {
-                    for (Cell cell : row) {
-                        content.append(getCellValueAsString(cell)).append("\t");
-                    }
-                    content.append("\n");
-                }
+            if (!contentExtractor.isSupported(fileName)) {
+                return ExtractedContent.plain("[Contenu non extrait pour ce format]");
             }
+            return extractionWorkers.extract(filePath, fileName);
+        } catch (ExtractionException e) {
+            throw new RuntimeException("Erreur lecture: " + e.toErrorMessage(), e);
+        } catch (Exception e) {
+            throw new RuntimeException("Erreur lecture: " + e.getMessage());
         }
-        return content.toString();
-    }
-
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) return "";
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> DateUtil.isCellDateFormatted(cell) ? cell.getDateCellValue().toString() : String.valueOf(cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            case FORMULA -> cell.getCellFormula();
-            default -> "";
-        };
     }
 
     /**
@@ -209,13 +275,17 @@ public class AuditDocumentService {
             auditIssueRepository.deleteByDocumentId(documentId);
             log.info("✅ Issues liées au document {} supprimées", documentId);
 
-            // 3. Supprimer le fichier physique sur le disque
-            Path filePath = Paths.get(document.getDocumentPath());
-            Files.deleteIfExists(filePath);
-
-            // 4. Supprimer l'entrée dans la table auditdocument
+            // 3. Supprimer l'entrée dans la table auditdocument
             documentRepository.delete(document);
 
+            // 4. Supprimer le fichier physique: blob partagé collecté s'il n'est plus référencé, après validation
+            String contentHash = document.getContentHash();
+            if (contentHash != null) {
+                collectAfterCommit(contentHash);
+            } else {
+                Files.deleteIfExists(Paths.get(document.getDocumentPath()));
+            }
+
             log.info("✅ Document et enregistrements associés supprimés avec succès");
         } catch (IOException e) {
             log.error("❌ Erreur lors de la suppression du fichier physique", e);
@@ -226,6 +296,60 @@ public class AuditDocumentService {
         }
     }
 
+    /**
+     * Retirer la protection d'un blob une fois la transaction d'upload terminée (validée ou annulée)
+     * Appelé après le template: immédiat, sauf si l'enregistrement a rejoint une transaction englobante
+     */
+    private void unpinAfterTransaction(String contentHash) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            documentStorage.unpin(contentHash);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                documentStorage.unpin(contentHash);
+            }
+        });
+    }
+
+    /**
+     * Collecter les blobs de documents supprimés ailleurs (audit, projet), après validation de la suppression
+     * Les empreintes sont lues avant la suppression; un blob encore référencé est conservé
+     */
+    public void collectAfterCommit(Collection<String> contentHashes) {
+        contentHashes.forEach(this::collectAfterCommit);
+    }
+
+    /**
+     * Collecter le blob d'un document supprimé quand plus aucun document ne le référence
+     */
+    private void collectAfterCommit(String contentHash) {
+        Runnable collect = () -> documentStorage.collectIfUnreferenced(contentHash,
+                () -> documentRepository.countByContentHash(contentHash) == 0);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            collect.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                collect.run();
+            }
+        });
+    }
+
+    /**
+     * DTO d'un document qui vient d'être stocké: type et taille détectés à la copie
+     */
+    private AuditDocumentDto mapToDto(AuditDocument document, DocumentStorage.StoredFile stored) {
+        AuditDocumentDto dto = mapToDto(document);
+        dto.setFileType(stored.mimeType());
+        dto.setFileSize(stored.size());
+        return dto;
+    }
+
     private AuditDocumentDto mapToDto(AuditDocument document) {
         return AuditDocumentDto.builder()
                 .id(document.getId())
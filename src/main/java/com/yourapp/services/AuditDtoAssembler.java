@@ -0,0 +1,144 @@
+package com.yourapp.services;
+
+import com.yourapp.DAO.AuditDocumentRepository;
+import com.yourapp.DAO.AuditStatisticsRepository;
+import com.yourapp.dto.AuditDocumentDto;
+import com.yourapp.dto.AuditReportDto;
+import com.yourapp.dto.AuditResponseDto;
+import com.yourapp.model.Audit;
+import com.yourapp.model.AuditDocument;
+import com.yourapp.model.AuditReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Construction des DTO d'audits et de rapports par lot
+ * Les enfants d'une liste de parents (documents, nombres de documents) sont lus en une requête IN
+ * puis associés en mémoire, au lieu d'une requête par parent
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditDtoAssembler {
+
+    // Taille maximale d'une liste IN (au-delà, plusieurs requêtes)
+    private static final int IN_CHUNK_SIZE = 1000;
+
+    private final AuditDocumentRepository documentRepository;
+    private final AuditStatisticsRepository statisticsRepository;
+
+    public AuditResponseDto toResponseDto(Audit audit) {
+        return toResponseDtos(List.of(audit)).get(0);
+    }
+
+    /**
+     * Audits avec leurs documents: une requête pour tous les documents de la liste
+     */
+    public List<AuditResponseDto> toResponseDtos(List<Audit> audits) {
+        Map<Long, List<AuditDocument>> documentsByAudit = new HashMap<>();
+        for (List<Long> chunk : chunks(ids(audits.stream().map(Audit::getId).toList()))) {
+            for (AuditDocument document : documentRepository.findByAuditIdIn(chunk)) {
+                documentsByAudit.computeIfAbsent(document.getAudit().getId(), id -> new ArrayList<>()).add(document);
+            }
+        }
+
+        return audits.stream()
+                .map(audit -> toResponseDto(audit, documentsByAudit.getOrDefault(audit.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
+    public AuditReportDto toReportDto(AuditReport report, Map<String, Integer> issuesByCategory,
+                                      Map<String, Integer> issuesByType) {
+        long documentsCount = statisticsRepository.countDocumentsByAuditId(report.getAudit().getId());
+        return toReportDto(report, documentsCount, issuesByCategory, issuesByType);
+    }
+
+    /**
+     * Rapports avec le nombre de documents de leur audit: un GROUP BY pour toute la liste
+     * (l'audit de chaque rapport doit être déjà chargé, ex: JOIN FETCH)
+     */
+    public List<AuditReportDto> toReportDtos(List<AuditReport> reports) {
+        Map<Long, Long> documentsCountByAudit = new HashMap<>();
+        for (List<Long> chunk : chunks(ids(reports.stream().map(report -> report.getAudit().getId()).toList()))) {
+            for (AuditStatisticsRepository.AuditCount row : statisticsRepository.countDocumentsByAuditIds(chunk)) {
+                documentsCountByAudit.put(row.getAuditId(), row.getTotal());
+            }
+        }
+
+        return reports.stream()
+                .map(report -> toReportDto(report, documentsCountByAudit.getOrDefault(report.getAudit().getId(), 0L),
+                        null, null))
+                .collect(Collectors.toList());
+    }
+
+    public AuditDocumentDto toDocumentDto(AuditDocument doc) {
+        return AuditDocumentDto.builder()
+                .id(doc.getId())
+                .auditId(doc.getAudit() != null ? doc.getAudit().getId() : null)
+                .fileName(doc.getDocumentName())
+                .storagePath(doc.getDocumentPath())
+                .status(doc.getStatus())
+                .uploadedAt(doc.getUploadedAt())
+                .analyzedAt(doc.getAnalyzedAt())
+                .errorMessage(doc.getErrorMessage())
+                .issuesCount(doc.getIssuesCount())
+                .build();
+    }
+
+    private AuditResponseDto toResponseDto(Audit audit, List<AuditDocument> documents) {
+        return AuditResponseDto.builder()
+                .id(audit.getId())
+                .projectId(audit.getProjectId())
+                .projectName(audit.getProjectName())
+                .modelId(audit.getModelId())
+                .modelName(audit.getModelName())
+                .status(audit.getStatus())
+                .createdAt(audit.getCreatedAt())
+                .score(audit.getScore())
+                .problemsCount(audit.getProblemsCount())
+                .failedDocumentsCount(audit.getFailedDocumentsCount())
+                .comments(audit.getComments())
+                .documents(documents.stream().map(this::toDocumentDto).collect(Collectors.toList()))
+                .build();
+    }
+
+    private AuditReportDto toReportDto(AuditReport report, long documentsCount,
+                                       Map<String, Integer> issuesByCategory, Map<String, Integer> issuesByType) {
+        return AuditReportDto.builder()
+                .id(report.getId().longValue())
+                .auditId(report.getAudit().getId())
+                .reportTitle("Rapport d'audit - " + report.getAudit().getProjectName())
+                .summary(report.getReportSummary())
+                .totalIssuesFound(report.getProblemsCount() != null ? report.getProblemsCount() : 0)
+                .documentsAnalyzed((int) documentsCount)
+                .issuesByCategory(issuesByCategory)
+                .issuesByType(issuesByType)
+                .reportFilePath(report.getReportPath())
+                .reportFormat("TXT")
+                .generatedAt(report.getGeneratedAt())
+                .generatedBy("System")
+                .status("COMPLETED")
+                .build();
+    }
+
+    private static Set<Long> ids(Collection<Long> ids) {
+        return new LinkedHashSet<>(ids);
+    }
+
+    private static List<List<Long>> chunks(Set<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int start = 0; start < all.size(); start += IN_CHUNK_SIZE) {
+            chunks.add(all.subList(start, Math.min(start + IN_CHUNK_SIZE, all.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,136 @@
+package com.yourapp.services;
+
+import com.yourapp.model.AuditIssue;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Insertion en masse des problèmes d'audit par COPY (PostgreSQL CopyManager)
+ * Un seul flux vers la base quel que soit le nombre de lignes, plus une requête pour réserver les ids
+ * dans audit_issue_seq. Utilisé pour les très gros résultats, dans la transaction de l'appelant
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditIssueCopyWriter {
+
+    // Doit correspondre à l'allocationSize de AuditIssue et à l'INCREMENT de la séquence (V6)
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval('audit_issue_seq') FROM generate_series(1, ?)";
+
+    private static final String COPY_SQL = "COPY audit_issue (id, audit_id, document_id, page_number, "
+            + "paragraph_number, issue_type, description, suggestion, status, reported_at) "
+            + "FROM STDIN WITH (FORMAT csv)";
+
+    private final DataSource dataSource;
+
+    /**
+     * Insérer les problèmes (les entités reçoivent leur id mais ne sont pas attachées à la session JPA)
+     */
+    public void copy(List<AuditIssue> issues) {
+        // Connexion de la transaction en cours (la même que celle d'Hibernate)
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            List<Long> ids = reserveIds(connection, issues.size());
+            LocalDateTime now = LocalDateTime.now();
+
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                    new PGCopyOutputStream(pgConnection, COPY_SQL), StandardCharsets.UTF_8))) {
+                for (int i = 0; i < issues.size(); i++) {
+                    AuditIssue issue = issues.get(i);
+                    issue.setId(ids.get(i));
+                    if (issue.getReportedAt() == null) {
+                        issue.setReportedAt(now);
+                    }
+                    writeRow(out, issue);
+                }
+            }
+            log.debug("📥 {} problèmes insérés par COPY", issues.size());
+        } catch (SQLException | IOException e) {
+            throw new RuntimeException("Insertion en masse des problèmes impossible: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Réserver count ids: chaque valeur de la séquence couvre le bloc ]valeur - 50, valeur]
+     */
+    private List<Long> reserveIds(Connection connection, int count) throws SQLException {
+        List<Long> ids = new ArrayList<>(count);
+        int blocks = (count + SEQUENCE_INCREMENT - 1) / SEQUENCE_INCREMENT;
+        try (PreparedStatement statement = connection.prepareStatement(RESERVE_IDS_SQL)) {
+            statement.setInt(1, blocks);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next() && ids.size() < count) {
+                    long high = result.getLong(1);
+                    for (long id = high - SEQUENCE_INCREMENT + 1; id <= high && ids.size() < count; id++) {
+                        ids.add(id);
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void writeRow(Writer out, AuditIssue issue) throws IOException {
+        out.write(String.valueOf(issue.getId()));
+        out.write(',');
+        out.write(String.valueOf(issue.getAudit().getId()));
+        out.write(',');
+        writeValue(out, issue.getDocument() != null ? issue.getDocument().getId() : null);
+        out.write(',');
+        writeValue(out, issue.getPageNumber());
+        out.write(',');
+        writeValue(out, issue.getParagraphNumber());
+        out.write(',');
+        writeText(out, issue.getIssueType());
+        out.write(',');
+        writeText(out, issue.getDescription());
+        out.write(',');
+        writeText(out, issue.getSuggestion());
+        out.write(',');
+        writeText(out, issue.getStatus());
+        out.write(',');
+        writeValue(out, issue.getReportedAt());
+        out.write('\n');
+    }
+
+    // CSV de COPY: un champ vide non quoté est NULL
+    private void writeValue(Writer out, Object value) throws IOException {
+        if (value != null) {
+            out.write(value.toString());
+        }
+    }
+
+    // Texte toujours quoté: une chaîne vide reste une chaîne vide, pas NULL
+    private void writeText(Writer out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
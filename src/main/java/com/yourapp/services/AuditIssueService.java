@@ -5,13 +5,17 @@ import com.yourapp.model.AuditIssue;
 import com.yourapp.model.Audit;
 import com.yourapp.model.AuditDocument;
 import com.yourapp.DAO.AuditIssueRepository;
+import com.yourapp.DAO.AuditIssueSpecifications;
 import com.yourapp.DAO.AuditDocumentRepository;
 import com.yourapp.DAO.AuditRepository;
+import com.yourapp.DAO.AuditStatisticsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,14 +34,35 @@ public class AuditIssueService {
     private final AuditIssueRepository issueRepository;
     private final AuditDocumentRepository documentRepository;
     private final AuditRepository auditRepository;
+    private final AuditStatisticsRepository statisticsRepository;
+    private final AuditIssueCopyWriter copyWriter;
+
+    // Au-delà, insertion en masse par COPY plutôt que par INSERT groupés
+    @Value("${app.issues.copy-threshold:500}")
+    private int copyThreshold;
 
     /**
      * Sauvegarder une liste de problèmes
+     * INSERT groupés par lots, ou COPY pour les très gros résultats
      */
     @Transactional
     public List<AuditIssue> saveIssues(List<AuditIssue> issues) {
-        log.info("Sauvegarde de {} problèmes d'audit", issues.size());
-        return issueRepository.saveAll(issues);
+        if (issues.isEmpty()) {
+            return issues;
+        }
+        long start = System.currentTimeMillis();
+
+        if (issues.size() >= copyThreshold) {
+            copyWriter.copy(issues);
+            log.info("Sauvegarde de {} problèmes d'audit par COPY en {} ms", issues.size(), System.currentTimeMillis() - start);
+            return issues;
+        }
+
+        // Ids pré-alloués par la séquence: les INSERT partent par lots (hibernate.jdbc.batch_size)
+        List<AuditIssue> saved = issueRepository.saveAll(issues);
+        issueRepository.flush();
+        log.info("Sauvegarde de {} problèmes d'audit en {} ms", issues.size(), System.currentTimeMillis() - start);
+        return saved;
     }
 
     /**
@@ -83,22 +108,12 @@ public class AuditIssueService {
     }
 
     /**
-     * Récupérer tous les problèmes d'un audit avec pagination
+     * Récupérer une page des problèmes d'un audit
+     * Seule la page demandée est lue (LIMIT/OFFSET), le total vient d'une requête COUNT
      */
     @Transactional(readOnly = true)
     public Page<AuditIssueDto> getIssuesByAudit(Long auditId, Pageable pageable) {
-        Audit audit = auditRepository.findById(auditId)
-                .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
-
-        List<AuditIssue> allIssues = issueRepository.findByAudit(audit);
-        List<AuditIssueDto> issueDtos = allIssues.stream()
-                .map(this::mapToDtoSafe)
-                .collect(Collectors.toList());
-
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), issueDtos.size());
-
-        return new PageImpl<>(issueDtos.subList(start, end), pageable, issueDtos.size());
+        return filterIssues(auditId, AuditIssueRepository.IssueFilter.none(), pageable);
     }
 
     /**
@@ -116,27 +131,18 @@ public class AuditIssueService {
     }
 
     /**
-     * Filtrer les problèmes selon plusieurs critères
+     * Filtrer les problèmes selon plusieurs critères, avec pagination
      */
     @Transactional(readOnly = true)
-    public List<AuditIssueDto> filterIssues(Long auditId, String issueType,
-                                            String severity, String category, Boolean resolved) {
-        Audit audit = auditRepository.findById(auditId)
-                .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
+    public Page<AuditIssueDto> filterIssues(Long auditId, AuditIssueRepository.IssueFilter filter, Pageable pageable) {
+        requireAudit(auditId);
 
-        List<AuditIssue> issues = issueRepository.findByAudit(audit);
+        // Ordre stable entre les pages si l'appelant ne trie pas
+        Pageable ordered = pageable.getSort().isSorted() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("id"));
 
-        return issues.stream()
-                .filter(issue -> issueType == null || issue.getIssueType().equals(issueType))
-                .filter(issue -> {
-                    if (resolved != null) {
-                        boolean isResolved = "Closed".equals(issue.getStatus()) || "Resolved".equals(issue.getStatus());
-                        return isResolved == resolved;
-                    }
-                    return true;
-                })
-                .map(this::mapToDtoSafe)
-                .collect(Collectors.toList());
+        return issueRepository.findAll(AuditIssueSpecifications.forAudit(auditId, filter), ordered)
+                .map(this::mapToDtoSafe);
     }
 
     /**
@@ -198,7 +204,7 @@ public class AuditIssueService {
      */
     @Transactional(readOnly = true)
     public int countByAudit(Audit audit) {
-        return issueRepository.findByAudit(audit).size();
+        return (int) statisticsRepository.countIssuesByAuditId(audit.getId());
     }
 
     /**
@@ -206,18 +212,14 @@ public class AuditIssueService {
      */
     @Transactional(readOnly = true)
     public Map<String, Object> getIssueStatistics(Long auditId) {
-        Audit audit = auditRepository.findById(auditId)
-                .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
-
-        List<AuditIssue> issues = issueRepository.findByAudit(audit);
+        requireAudit(auditId);
 
-        int totalIssues = issues.size();
-        long resolvedIssues = issues.stream()
-                .filter(i -> "Resolved".equals(i.getStatus()) || "Closed".equals(i.getStatus()))
-                .count();
+        AuditStatisticsRepository.IssueTotals totals = statisticsRepository.issueTotalsByAuditId(auditId);
+        long totalIssues = totals.getTotal();
+        long resolvedIssues = totals.getResolved();
 
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalIssues", totalIssues);
+        stats.put("totalIssues", (int) totalIssues);
         stats.put("resolvedIssues", resolvedIssues);
         stats.put("unresolvedIssues", totalIssues - resolvedIssues);
         stats.put("resolutionRate", totalIssues > 0 ? (resolvedIssues * 100.0 / totalIssues) : 0);
@@ -230,16 +232,14 @@ public class AuditIssueService {
      */
     @Transactional(readOnly = true)
     public Map<String, Integer> getIssuesByCategory(Long auditId) {
-        Audit audit = auditRepository.findById(auditId)
-                .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
+        requireAudit(auditId);
 
-        List<AuditIssue> issues = issueRepository.findByAudit(audit);
-
-        return issues.stream()
-                .collect(Collectors.groupingBy(
-                        issue -> issue.getIssueType() != null ? issue.getIssueType() : "OTHER",
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
+        Map<String, Integer> result = new HashMap<>();
+        for (AuditStatisticsRepository.TypeCount row : statisticsRepository.countIssuesByTypeForAudit(auditId)) {
+            String type = row.getIssueType() != null ? row.getIssueType() : "OTHER";
+            result.merge(type, (int) row.getTotal(), Integer::sum);
+        }
+        return result;
     }
 
     /**
@@ -247,20 +247,23 @@ public class AuditIssueService {
      */
     @Transactional(readOnly = true)
     public Map<String, Integer> getIssuesBySeverity(Long auditId) {
-        Audit audit = auditRepository.findById(auditId)
-                .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
-
-        List<AuditIssue> issues = issueRepository.findByAudit(audit);
+        requireAudit(auditId);
 
         Map<String, Integer> result = new HashMap<>();
         result.put("HIGH", 0);
         result.put("MEDIUM", 0);
         result.put("LOW", 0);
-        result.put("TOTAL", issues.size());
+        result.put("TOTAL", (int) statisticsRepository.countIssuesByAuditId(auditId));
 
         return result;
     }
 
+    private void requireAudit(Long auditId) {
+        if (!auditRepository.existsById(auditId)) {
+            throw new RuntimeException("Audit introuvable avec l'ID: " + auditId);
+        }
+    }
+
     /**
      * 🔥 NOUVELLE MÉTHODE: Mapper de façon sécurisée (évite LazyInitializationException)
      * Cette méthode accède aux propriétés lazy DANS la transaction
@@ -0,0 +1,177 @@
+package com.yourapp.services;
+
+import com.yourapp.AI.AiPromptBuilder;
+import com.yourapp.model.AuditDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordonnancement des jobs d'analyse en file
+ * Partage équitable pondéré (weighted fair queuing) entre classes (utilisateur, projet): chaque classe
+ * reçoit une part du temps d'analyse proportionnelle à la priorité de son projet, mesurée en coût estimé
+ * (tokens). Dans une classe, le job le moins coûteux passe en premier; un job qui attend depuis plus de
+ * app.audit.scheduler.max-wait-seconds passe devant tous les autres (garde contre la famine)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditJobScheduler {
+
+    // Approximation pour un document pas encore extrait: formats binaires (PDF, Office) ~6 octets par token
+    private static final long BYTES_PER_TOKEN = 6;
+
+    private final ExtractedTextCache textCache;
+    private final AiPromptBuilder promptBuilder;
+
+    @Value("${app.audit.scheduler.max-wait-seconds:600}")
+    private long maxWaitSeconds;
+
+    // Coût fixe d'une page (extraction, découpage), en tokens équivalents
+    @Value("${app.audit.scheduler.page-cost-tokens:50}")
+    private long pageCostTokens;
+
+    // Coût minimal d'un document (prompt du modèle d'audit, appel IA)
+    @Value("${app.audit.scheduler.document-base-cost-tokens:1000}")
+    private long documentBaseCostTokens;
+
+    // Temps virtuel: étiquette de début du dernier job démarré
+    private double virtualTime;
+
+    private final Map<String, JobClass> classes = new HashMap<>();
+
+    /**
+     * Job en attente; classKey identifie la classe de partage, weight est la priorité du projet
+     */
+    public record QueuedJob(Long jobId, Long auditId, String classKey, int weight, long cost, long enqueuedAtNanos) {
+
+        public static QueuedJob of(Long jobId, Long auditId, Long userId, Long projectId, int weight, long cost) {
+            return new QueuedJob(jobId, auditId, "user:" + userId + "/project:" + projectId,
+                    Math.max(1, weight), Math.max(1, cost), System.nanoTime());
+        }
+    }
+
+    private static final class JobClass {
+        private final List<QueuedJob> jobs = new ArrayList<>();
+        private double lastFinish;
+    }
+
+    /**
+     * Estimer le coût d'analyse des documents, en tokens
+     * Un document déjà extrait (cache alimenté par l'upload ou la préparation) est mesuré exactement,
+     * sinon la taille du fichier sert d'approximation
+     */
+    public long estimateCost(List<AuditDocument> documents) {
+        long cost = 0;
+        for (AuditDocument document : documents) {
+            cost += documentBaseCostTokens + estimateContentCost(document);
+        }
+        return Math.max(1, cost);
+    }
+
+    private long estimateContentCost(AuditDocument document) {
+        if (document.getContentHash() != null) {
+            Optional<ExtractedContent> cached = textCache.get(document.getContentHash());
+            if (cached.isPresent()) {
+                ExtractedContent content = cached.get();
+                return promptBuilder.estimateTokens(content.getText()) + content.getPageCount() * pageCostTokens;
+            }
+        }
+        try {
+            return Files.size(Paths.get(document.getDocumentPath())) / BYTES_PER_TOKEN;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Taille du document {} inconnue, coût minimal retenu", document.getId());
+            return 0;
+        }
+    }
+
+    public synchronized void add(QueuedJob job) {
+        classes.computeIfAbsent(job.classKey(), key -> new JobClass()).jobs.add(job);
+        log.debug("📋 Job {} en file ({}, coût {}, poids {})", job.jobId(), job.classKey(), job.cost(), job.weight());
+    }
+
+    /**
+     * Retirer un job encore en file
+     * @return false s'il a déjà été démarré (ou n'a jamais été mis en file)
+     */
+    public synchronized boolean remove(Long jobId) {
+        for (Iterator<JobClass> it = classes.values().iterator(); it.hasNext(); ) {
+            JobClass jobClass = it.next();
+            if (jobClass.jobs.removeIf(job -> job.jobId().equals(jobId))) {
+                if (jobClass.jobs.isEmpty() && jobClass.lastFinish <= virtualTime) {
+                    it.remove();
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return classes.values().stream().mapToInt(jobClass -> jobClass.jobs.size()).sum();
+    }
+
+    /**
+     * Choisir le prochain job à démarrer
+     */
+    public synchronized Optional<QueuedJob> next() {
+        QueuedJob starving = oldestStarving();
+        if (starving != null) {
+            log.info("⏳ Job {} en attente depuis plus de {} s: démarré en priorité", starving.jobId(), maxWaitSeconds);
+            return Optional.of(dispatch(classes.get(starving.classKey()), starving));
+        }
+
+        // Classe dont le job le plus court finirait le plus tôt en temps virtuel
+        JobClass bestClass = null;
+        QueuedJob bestJob = null;
+        double bestFinish = Double.MAX_VALUE;
+        for (JobClass jobClass : classes.values()) {
+            QueuedJob shortest = jobClass.jobs.stream()
+                    .min(Comparator.comparingLong(QueuedJob::cost).thenComparingLong(QueuedJob::enqueuedAtNanos))
+                    .orElse(null);
+            if (shortest == null) {
+                continue;
+            }
+            double finish = Math.max(virtualTime, jobClass.lastFinish) + (double) shortest.cost() / shortest.weight();
+            if (finish < bestFinish || (finish == bestFinish && shortest.enqueuedAtNanos() < bestJob.enqueuedAtNanos())) {
+                bestClass = jobClass;
+                bestJob = shortest;
+                bestFinish = finish;
+            }
+        }
+        return bestJob == null ? Optional.empty() : Optional.of(dispatch(bestClass, bestJob));
+    }
+
+    private QueuedJob oldestStarving() {
+        long limit = System.nanoTime() - TimeUnit.SECONDS.toNanos(maxWaitSeconds);
+        return classes.values().stream()
+                .flatMap(jobClass -> jobClass.jobs.stream())
+                .filter(job -> job.enqueuedAtNanos() - limit < 0)
+                .min(Comparator.comparingLong(QueuedJob::enqueuedAtNanos))
+                .orElse(null);
+    }
+
+    private QueuedJob dispatch(JobClass jobClass, QueuedJob job) {
+        jobClass.jobs.remove(job);
+        double start = Math.max(virtualTime, jobClass.lastFinish);
+        jobClass.lastFinish = start + (double) job.cost() / job.weight();
+        virtualTime = start;
+
+        // Une classe vide ne garde pas de crédit au-delà du temps virtuel courant
+        classes.values().removeIf(other -> other.jobs.isEmpty() && other.lastFinish <= virtualTime);
+        return job;
+    }
+}
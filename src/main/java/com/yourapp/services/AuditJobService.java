@@ -0,0 +1,527 @@
+package com.yourapp.services;
+
+import com.yourapp.DAO.AuditDocumentRepository;
+import com.yourapp.DAO.AuditJobRepository;
+import com.yourapp.DAO.AuditRepository;
+import com.yourapp.DAO.AuditStatisticsRepository;
+import com.yourapp.DAO.AuditTemplateRepository;
+import com.yourapp.DAO.ProjectRepository;
+import com.yourapp.model.Audit;
+import com.yourapp.model.AuditDocument;
+import com.yourapp.model.AuditJob;
+import com.yourapp.model.AuditTemplate;
+import com.yourapp.model.Project;
+import com.yourapp.utils.AuditProgressEvent;
+import com.yourapp.utils.DashboardRefreshEvent;
+import com.yourapp.utils.SessionManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moteur de jobs d'analyse IA
+ * Chaque analyse est un job persistant (table audit_job) exécuté par un pool borné de workers:
+ * l'appelant n'attend plus la fin de l'analyse. L'ordre de démarrage des jobs en file est décidé par
+ * AuditJobScheduler (partage équitable entre projets et utilisateurs, jobs courts d'abord). Les documents d'un audit passent par le pipeline d'analyse
+ * (AuditAnalysisPipeline), chacun enregistré dans sa propre transaction, si bien qu'un job interrompu (arrêt, crash) reprend au démarrage
+ * là où il s'était arrêté. Un document en échec n'interrompt pas les autres (succès partiel)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditJobService {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    private static final List<String> ACTIVE_STATUSES = List.of(QUEUED, RUNNING);
+
+    // Un job repris plus de MAX_ATTEMPTS fois (crash récurrent) est abandonné
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final long POLL_MILLIS = 500;
+
+    private final AuditJobRepository jobRepository;
+    private final AuditRepository auditRepository;
+    private final AuditDocumentRepository documentRepository;
+    private final AuditStatisticsRepository statisticsRepository;
+    private final AuditTemplateRepository templateRepository;
+    private final ProjectRepository projectRepository;
+    private final AuditJobScheduler scheduler;
+    private final AuditAnalysisPipeline analysisPipeline;
+    private final AuditIssueService auditIssueService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditProgressBus progressBus;
+
+    @Value("${app.audit.max-concurrent-audits:3}")
+    private int maxConcurrentAudits;
+
+    // Désactivé par le ré-audit en masse: un processus batch ne reprend pas les jobs de l'application
+    @Value("${app.audit.resume-on-startup:true}")
+    private boolean resumeOnStartup;
+
+    @Value("${app.audit.timeout-minutes:5}")
+    private long timeoutMinutes;
+
+    // Documents d'un même job présents en même temps dans le pipeline: les jobs concurrents
+    // s'intercalent dans la file d'extraction au lieu d'attendre derrière un gros audit
+    @Value("${app.audit.pipeline.documents-per-job:4}")
+    private int documentsPerJob;
+
+    private ExecutorService workers;
+
+    // Annulations demandées dans ce processus (aussi persistées en base pour la reprise)
+    private final Set<Long> cancelRequests = ConcurrentHashMap.newKeySet();
+
+    // Fin d'analyse attendue par l'interface, par id d'audit; complétée avec le statut final du job
+    private final Map<Long, CompletableFuture<String>> completions = new ConcurrentHashMap<>();
+
+    /**
+     * Fin anticipée d'un job (annulation demandée, délai dépassé)
+     */
+    private static final class JobStoppedException extends RuntimeException {
+        private final String status;
+
+        JobStoppedException(String status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    @PostConstruct
+    void initWorkers() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, maxConcurrentAudits), runnable -> {
+            Thread thread = new Thread(runnable, "audit-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("🧵 Moteur d'analyse initialisé: {} audits simultanés, délai {} min par audit",
+                maxConcurrentAudits, timeoutMinutes);
+    }
+
+    @PreDestroy
+    void shutdownWorkers() {
+        if (workers != null) {
+            // Les jobs interrompus restent RUNNING en base et seront repris au prochain démarrage
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Créer le job d'analyse d'un audit et le mettre en file
+     */
+    public AuditJob submit(Long auditId) {
+        // Estimation hors transaction: elle peut relire le cache d'extraction sur disque
+        long estimatedCost = scheduler.estimateCost(documentRepository.findByAuditId(auditId));
+
+        AuditJob job = transactionTemplate.execute(status -> {
+            Audit audit = auditRepository.findById(auditId)
+                    .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
+
+            // Vérifier que l'audit n'est pas déjà en cours ou terminé
+            if ("IN_PROGRESS".equals(audit.getStatus()) || "COMPLETED".equals(audit.getStatus())
+                    || jobRepository.findFirstByAuditIdAndStatusIn(auditId, ACTIVE_STATUSES).isPresent()) {
+                throw new RuntimeException("L'audit est déjà en cours ou terminé");
+            }
+
+            audit.setStatus("IN_PROGRESS");
+            auditRepository.save(audit);
+
+            AuditJob newJob = new AuditJob();
+            newJob.setAuditId(auditId);
+            newJob.setStatus(QUEUED);
+            newJob.setTotalDocuments((int) statisticsRepository.countDocumentsByAuditId(auditId));
+            newJob.setProcessedDocuments(0);
+            newJob.setFailedDocuments(0);
+            newJob.setAttempts(0);
+            newJob.setSubmittedBy(SessionManager.getInstance().getCurrentUserId());
+            newJob.setEstimatedCost(estimatedCost);
+            return jobRepository.save(newJob);
+        });
+
+        eventPublisher.publishEvent(new DashboardRefreshEvent(this, "Analyse démarrée pour l'audit " + auditId,
+                DashboardRefreshEvent.Section.STATS));
+        progressBus.auditQueued(auditId, job.getTotalDocuments());
+        enqueue(job);
+        log.info("📥 Job {} en file pour l'audit {}", job.getId(), auditId);
+        return job;
+    }
+
+    /**
+     * Demander l'annulation de l'analyse d'un audit
+     * Un job en file est annulé immédiatement; un job en cours s'arrête avant le document suivant
+     */
+    public boolean cancel(Long auditId) {
+        Optional<AuditJob> active = transactionTemplate.execute(status -> {
+            Optional<AuditJob> job = jobRepository.findFirstByAuditIdAndStatusIn(auditId, ACTIVE_STATUSES);
+            job.ifPresent(found -> {
+                found.setCancelRequested(true);
+                jobRepository.save(found);
+            });
+            return job;
+        });
+
+        if (active.isEmpty()) {
+            return false;
+        }
+
+        AuditJob job = active.get();
+        cancelRequests.add(job.getId());
+        if (scheduler.remove(job.getId())) {
+            // Jamais démarré: le worker ne le finalisera pas
+            finish(job.getId(), auditId, CANCELLED, "Analyse annulée", null);
+        }
+        log.info("🛑 Annulation demandée pour l'audit {}", auditId);
+        return true;
+    }
+
+    /**
+     * Attendre la fin de l'analyse d'un audit soumise dans ce processus
+     * @return le statut final du job, ou empty si aucun job n'est suivi pour cet audit
+     */
+    public Optional<String> awaitCompletion(Long auditId, Duration timeout) throws InterruptedException, TimeoutException {
+        CompletableFuture<String> completion = completions.get(auditId);
+        if (completion == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(completion.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            return Optional.of(FAILED);
+        }
+    }
+
+    /**
+     * Délai d'attente raisonnable pour l'interface: le temps en file plus la durée maximale d'un job
+     */
+    public Duration defaultAwaitTimeout() {
+        return Duration.ofMinutes(timeoutMinutes * 2);
+    }
+
+    public Optional<AuditJob> findLatestJob(Long auditId) {
+        return jobRepository.findFirstByAuditIdOrderByIdDesc(auditId);
+    }
+
+    /**
+     * Reprendre les jobs interrompus par un arrêt de l'application
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        List<AuditJob> interrupted;
+        try {
+            interrupted = jobRepository.findByStatusInOrderByIdAsc(ACTIVE_STATUSES);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Reprise des analyses interrompues impossible (base indisponible): {}", e.getMessage());
+            return;
+        }
+
+        for (AuditJob job : interrupted) {
+            if (job.isCancelRequested()) {
+                finish(job.getId(), job.getAuditId(), CANCELLED, "Analyse annulée", null);
+            } else if (job.getAttempts() != null && job.getAttempts() >= MAX_ATTEMPTS) {
+                finish(job.getId(), job.getAuditId(), FAILED,
+                        "Analyse abandonnée après " + MAX_ATTEMPTS + " tentatives interrompues", null);
+            } else {
+                log.info("🔁 Reprise du job {} (audit {})", job.getId(), job.getAuditId());
+                enqueue(job);
+            }
+        }
+    }
+
+    /**
+     * Mettre un job en file d'ordonnancement; chaque mise en file libère un worker qui démarrera
+     * le meilleur job du moment, pas forcément celui-ci
+     */
+    private void enqueue(AuditJob job) {
+        completions.computeIfAbsent(job.getAuditId(), id -> new CompletableFuture<>());
+
+        Long projectId = null;
+        int priority = 1;
+        try {
+            projectId = auditRepository.findById(job.getAuditId()).map(Audit::getProjectId).orElse(null);
+            if (projectId != null) {
+                priority = projectRepository.findById(projectId).map(Project::getAuditPriority).orElse(1);
+            }
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Priorité du projet de l'audit {} illisible, priorité normale retenue", job.getAuditId());
+        }
+        long cost = job.getEstimatedCost() != null ? job.getEstimatedCost() : 1;
+
+        scheduler.add(AuditJobScheduler.QueuedJob.of(job.getId(), job.getAuditId(), job.getSubmittedBy(),
+                projectId, priority, cost));
+        workers.submit(this::runNextJob);
+    }
+
+    private void runNextJob() {
+        scheduler.next().ifPresent(next -> runJob(next.jobId(), next.auditId()));
+    }
+
+    private void runJob(Long jobId, Long auditId) {
+        try {
+            AuditJob job = start(jobId);
+            if (job == null) {
+                return;
+            }
+
+            Audit audit = auditRepository.findById(auditId)
+                    .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
+            AuditTemplate template = templateRepository.findById(audit.getModelId())
+                    .orElseThrow(() -> new RuntimeException("Template introuvable avec l'ID: " + audit.getModelId()));
+            List<AuditDocument> documents = documentRepository.findByAuditId(auditId);
+
+            if (documents.isEmpty()) {
+                throw new RuntimeException("Aucun document à analyser pour l'audit " + auditId);
+            }
+
+            // Reprise: un document déjà analysé (transaction validée) n'est pas réanalysé
+            List<AuditDocument> pending = documents.stream()
+                    .filter(document -> !"ANALYZED".equals(document.getStatus()))
+                    .toList();
+            int alreadyIssues = documents.stream()
+                    .filter(document -> "ANALYZED".equals(document.getStatus()) && document.getIssuesCount() != null)
+                    .mapToInt(AuditDocument::getIssuesCount)
+                    .sum();
+            progressBus.auditStarted(auditId, documents.size(), documents.size() - pending.size(), alreadyIssues);
+
+            int failed = analyzeDocuments(jobId, job.getDeadlineAt(), audit, template, pending,
+                    documents.size() - pending.size());
+
+            if (failed == documents.size()) {
+                throw new RuntimeException("Aucun document n'a pu être analysé pour l'audit " + auditId);
+            }
+
+            log.info("Analyse IA terminée pour l'audit {} ({} document(s) en échec)", auditId, failed);
+            log.info("📈 Pipeline d'analyse: {}", analysisPipeline.describeMetrics());
+            finish(jobId, auditId, COMPLETED, null, failed);
+
+        } catch (InterruptedException e) {
+            // Arrêt de l'application: le job reste RUNNING en base et sera repris au prochain démarrage
+            log.warn("⏸️ Job {} interrompu par l'arrêt de l'application", jobId);
+            Thread.currentThread().interrupt();
+        } catch (JobStoppedException e) {
+            log.warn("⏹️ Job {} arrêté: {}", jobId, e.getMessage());
+            finish(jobId, auditId, e.status, e.getMessage(), null);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'analyse de l'audit {}", auditId, e);
+            finish(jobId, auditId, FAILED, e.getMessage(), null);
+        } finally {
+            cancelRequests.remove(jobId);
+        }
+    }
+
+    /**
+     * Passer le job à RUNNING; null s'il n'est plus à exécuter
+     */
+    private AuditJob start(Long jobId) {
+        AuditJob job = transactionTemplate.execute(status -> {
+            AuditJob found = jobRepository.findById(jobId).orElse(null);
+            if (found == null || !ACTIVE_STATUSES.contains(found.getStatus()) || found.isCancelRequested()) {
+                return found;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            found.setStatus(RUNNING);
+            found.setStartedAt(now);
+            found.setDeadlineAt(now.plusMinutes(timeoutMinutes));
+            found.setAttempts((found.getAttempts() != null ? found.getAttempts() : 0) + 1);
+            return jobRepository.save(found);
+        });
+
+        if (job == null) {
+            return null;
+        }
+        if (job.isCancelRequested()) {
+            finish(jobId, job.getAuditId(), CANCELLED, "Analyse annulée", null);
+            return null;
+        }
+        if (!RUNNING.equals(job.getStatus())) {
+            return null;
+        }
+        log.info("▶️ Job {} démarré (tentative {}), échéance {}", jobId, job.getAttempts(), job.getDeadlineAt());
+        return job;
+    }
+
+    /**
+     * Soumettre les documents au pipeline d'analyse, par fenêtre de documentsPerJob documents:
+     * le suivant n'est soumis qu'à la fin d'un document. Chaque document a son propre résultat et sa propre erreur.
+     * L'échéance du job est repoussée du temps où tous ses documents attendent dans la file d'extraction
+     * (derrière ceux des autres jobs): seul le temps de traitement effectif est compté
+     * @return le nombre de documents en échec
+     */
+    private int analyzeDocuments(Long jobId, LocalDateTime deadline, Audit audit, AuditTemplate template,
+                                 List<AuditDocument> pending, int alreadyAnalyzed) throws InterruptedException {
+        BlockingQueue<CompletableFuture<Boolean>> completed = new LinkedBlockingQueue<>();
+        Map<CompletableFuture<Boolean>, AuditAnalysisPipeline.DocumentHandle> inFlight = new HashMap<>();
+        Iterator<AuditDocument> next = pending.iterator();
+        int window = Math.max(1, documentsPerJob);
+
+        int processed = alreadyAnalyzed;
+        int failed = 0;
+        JobStoppedException stopped = null;
+        long queuedNanos = 0;
+        long lastTick = System.nanoTime();
+
+        try {
+            while (true) {
+                while (stopped == null && inFlight.size() < window && next.hasNext()) {
+                    AuditAnalysisPipeline.DocumentHandle handle = analysisPipeline.submit(audit, next.next(), template);
+                    inFlight.put(handle.result(), handle);
+                    handle.result().whenComplete((result, error) -> completed.add(handle.result()));
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+
+                CompletableFuture<Boolean> done = completed.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                long now = System.nanoTime();
+                if (inFlight.values().stream().noneMatch(AuditAnalysisPipeline.DocumentHandle::isStarted)) {
+                    queuedNanos += now - lastTick;
+                }
+                lastTick = now;
+
+                // Vérifié à chaque tour: des fins de documents rapprochées ne doivent pas masquer l'annulation ou l'échéance
+                if (stopped == null) {
+                    stopped = stopReason(jobId, deadline != null ? deadline.plusNanos(queuedNanos) : null);
+                    if (stopped != null) {
+                        // Les documents pas encore commencés ne le seront pas; ceux en cours se terminent
+                        inFlight.values().forEach(AuditAnalysisPipeline.DocumentHandle::cancel);
+                    }
+                }
+                if (done == null) {
+                    continue;
+                }
+
+                inFlight.remove(done);
+                if (done.isCancelled()) {
+                    continue;
+                }
+                processed++;
+                if (!getResult(done)) {
+                    failed++;
+                }
+                recordProgress(jobId, processed, failed);
+            }
+        } catch (InterruptedException e) {
+            inFlight.values().forEach(AuditAnalysisPipeline.DocumentHandle::cancel);
+            throw e;
+        }
+
+        if (queuedNanos > 0) {
+            log.debug("Job {}: {} s d'attente dans la file d'extraction non comptées dans le délai",
+                    jobId, TimeUnit.NANOSECONDS.toSeconds(queuedNanos));
+        }
+        if (stopped != null) {
+            throw stopped;
+        }
+        return failed;
+    }
+
+    private boolean getResult(Future<Boolean> done) {
+        try {
+            return done.get();
+        } catch (InterruptedException | ExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Raison d'arrêter le job (annulation demandée, délai dépassé), null s'il peut continuer
+     */
+    private JobStoppedException stopReason(Long jobId, LocalDateTime deadline) {
+        if (cancelRequests.contains(jobId)) {
+            return new JobStoppedException(CANCELLED, "Analyse annulée");
+        }
+        if (deadline != null && LocalDateTime.now().isAfter(deadline)) {
+            return new JobStoppedException(FAILED, "Délai d'analyse dépassé (" + timeoutMinutes + " min)");
+        }
+        return null;
+    }
+
+    private void recordProgress(Long jobId, int processed, int failed) {
+        transactionTemplate.executeWithoutResult(status -> jobRepository.findById(jobId).ifPresent(job -> {
+            job.setProcessedDocuments(processed);
+            job.setFailedDocuments(failed);
+            jobRepository.save(job);
+        }));
+    }
+
+    /**
+     * Finaliser le job et son audit (score et nombre de problèmes si l'analyse a abouti)
+     */
+    private void finish(Long jobId, Long auditId, String jobStatus, String errorMessage, Integer failedDocuments) {
+        int problemsCount = 0;
+        try {
+            Audit audit = transactionTemplate.execute(status -> {
+                jobRepository.findById(jobId).ifPresent(job -> {
+                    job.setStatus(jobStatus);
+                    job.setErrorMessage(errorMessage);
+                    job.setFinishedAt(LocalDateTime.now());
+                    if (failedDocuments != null) {
+                        job.setFailedDocuments(failedDocuments);
+                        job.setProcessedDocuments(job.getTotalDocuments());
+                    }
+                    jobRepository.save(job);
+                });
+
+                Audit found = auditRepository.findById(auditId).orElse(null);
+                if (found == null) {
+                    return null;
+                }
+                if (COMPLETED.equals(jobStatus)) {
+                    int issuesCount = auditIssueService.countByAudit(found);
+                    found.setProblemsCount(issuesCount);
+                    found.setScore(AuditService.calculateAuditScore(issuesCount));
+                    found.setFailedDocumentsCount(failedDocuments);
+                    found.setStatus("COMPLETED");
+                    log.info("Analyse terminée: {} problèmes détectés, score: {}%", issuesCount, found.getScore());
+                } else {
+                    found.setStatus(CANCELLED.equals(jobStatus) ? "CANCELLED" : "FAILED");
+                }
+                return auditRepository.save(found);
+            });
+
+            if (audit != null && COMPLETED.equals(jobStatus)) {
+                String conformeStatus = audit.getProblemsCount() < 5 ? "conforme" : "non conforme";
+                eventPublisher.publishEvent(new DashboardRefreshEvent(this,
+                        "Audit complété (" + conformeStatus + "): " + audit.getProjectName(),
+                        DashboardRefreshEvent.Section.STATS, DashboardRefreshEvent.Section.ACTIVITIES));
+            }
+            if (audit != null && audit.getProblemsCount() != null) {
+                problemsCount = audit.getProblemsCount();
+            }
+        } catch (RuntimeException e) {
+            log.error("❌ Finalisation du job {} impossible", jobId, e);
+        } finally {
+            progressBus.auditFinished(auditId, AuditProgressEvent.Stage.valueOf(jobStatus), problemsCount, errorMessage);
+            CompletableFuture<String> completion = completions.remove(auditId);
+            if (completion != null) {
+                completion.complete(jobStatus);
+            }
+        }
+    }
+}
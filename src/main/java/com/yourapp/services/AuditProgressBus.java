@@ -0,0 +1,206 @@
+package com.yourapp.services;
+
+import com.yourapp.model.AuditDocument;
+import com.yourapp.utils.AuditProgressEvent;
+import com.yourapp.utils.AuditProgressEvent.Stage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus de progression des analyses d'audit
+ * Le moteur de jobs et l'analyse des documents y publient leurs transitions d'état; l'interface s'abonne
+ * à un audit et reçoit chaque étape (avec pourcentages et nombre de problèmes) au lieu d'interroger la base.
+ * Les événements sont aussi publiés dans le contexte Spring (AuditProgressEvent) pour les autres listeners
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditProgressBus {
+
+    // Derniers événements conservés pour les abonnés tardifs (audits terminés compris)
+    private static final int MAX_RETAINED_AUDITS = 256;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Avancement des analyses en cours, par id d'audit
+    private final Map<Long, AuditProgress> progressByAudit = new ConcurrentHashMap<>();
+
+    private final Map<Long, List<Consumer<AuditProgressEvent>>> subscribers = new ConcurrentHashMap<>();
+
+    private final Map<Long, AuditProgressEvent> lastEvents = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, AuditProgressEvent> eldest) {
+                    return size() > MAX_RETAINED_AUDITS;
+                }
+            });
+
+    /**
+     * Abonnement à la progression d'un audit; close() le résilie
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Avancement d'un audit: pourcentage de chaque document en cours et cumul des documents terminés
+     */
+    private static final class AuditProgress {
+        private final int totalDocuments;
+        private final Map<Long, Integer> documentPercents = new HashMap<>();
+        private int finishedDocuments;
+        private int issuesCount;
+
+        AuditProgress(int totalDocuments, int alreadyAnalyzed, int alreadyIssues) {
+            this.totalDocuments = totalDocuments;
+            this.finishedDocuments = alreadyAnalyzed;
+            this.issuesCount = alreadyIssues;
+        }
+
+        synchronized void documentAt(Long documentId, int percent) {
+            documentPercents.put(documentId, percent);
+        }
+
+        synchronized void documentFinished(Long documentId, int issues) {
+            documentPercents.remove(documentId);
+            finishedDocuments++;
+            issuesCount += issues;
+        }
+
+        synchronized int auditPercent() {
+            if (totalDocuments <= 0) {
+                return 0;
+            }
+            int inProgress = documentPercents.values().stream().mapToInt(Integer::intValue).sum();
+            return Math.min(100, (finishedDocuments * 100 + inProgress) / totalDocuments);
+        }
+
+        synchronized int finishedDocuments() {
+            return finishedDocuments;
+        }
+
+        synchronized int issuesCount() {
+            return issuesCount;
+        }
+    }
+
+    /**
+     * Audit mis en file d'analyse
+     */
+    public void auditQueued(Long auditId, int totalDocuments) {
+        progressByAudit.put(auditId, new AuditProgress(totalDocuments, 0, 0));
+        publish(auditId, null, null, Stage.QUEUED, 0, 0, "Analyse en file d'attente");
+    }
+
+    /**
+     * Job démarré (ou repris: les documents déjà analysés comptent comme terminés)
+     */
+    public void auditStarted(Long auditId, int totalDocuments, int alreadyAnalyzed, int alreadyIssues) {
+        progressByAudit.put(auditId, new AuditProgress(totalDocuments, alreadyAnalyzed, alreadyIssues));
+        publish(auditId, null, null, Stage.RUNNING, 0, 0, "Analyse démarrée");
+    }
+
+    /**
+     * Étape intermédiaire d'un document (extraction, appel IA, enregistrement)
+     */
+    public void documentStage(Long auditId, AuditDocument document, Stage stage, int documentPercent) {
+        AuditProgress progress = progressByAudit.get(auditId);
+        if (progress != null) {
+            progress.documentAt(document.getId(), documentPercent);
+        }
+        publish(auditId, document.getId(), document.getDocumentName(), stage, documentPercent, 0, null);
+    }
+
+    /**
+     * Document terminé, analysé (error null) ou en échec
+     */
+    public void documentFinished(Long auditId, AuditDocument document, int issuesCount, String error) {
+        AuditProgress progress = progressByAudit.get(auditId);
+        if (progress != null) {
+            progress.documentFinished(document.getId(), issuesCount);
+        }
+        Stage stage = error == null ? Stage.DOCUMENT_ANALYZED : Stage.DOCUMENT_FAILED;
+        publish(auditId, document.getId(), document.getDocumentName(), stage, 100, 0, error);
+    }
+
+    /**
+     * Fin de l'analyse (COMPLETED, FAILED ou CANCELLED)
+     */
+    public void auditFinished(Long auditId, Stage stage, int issuesCount, String message) {
+        publish(auditId, null, null, stage, 100, issuesCount, message);
+        progressByAudit.remove(auditId);
+    }
+
+    /**
+     * S'abonner à la progression d'un audit
+     * Le dernier événement connu est rejoué immédiatement; les événements arrivent sur les threads d'analyse
+     */
+    public Subscription subscribe(Long auditId, Consumer<AuditProgressEvent> listener) {
+        subscribers.computeIfAbsent(auditId, id -> new CopyOnWriteArrayList<>()).add(listener);
+        AuditProgressEvent last = lastEvents.get(auditId);
+        if (last != null) {
+            deliver(listener, last);
+        }
+        return () -> subscribers.computeIfPresent(auditId, (id, listeners) -> {
+            listeners.remove(listener);
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /**
+     * Dernier état connu d'un audit (sans accès à la base)
+     */
+    public Optional<AuditProgressEvent> lastEvent(Long auditId) {
+        return Optional.ofNullable(lastEvents.get(auditId));
+    }
+
+    /**
+     * Diffuser aux abonnés de l'audit (listener Spring: reçoit aussi les événements publiés ailleurs)
+     */
+    @EventListener
+    public void dispatch(AuditProgressEvent event) {
+        lastEvents.put(event.getAuditId(), event);
+        List<Consumer<AuditProgressEvent>> listeners = subscribers.get(event.getAuditId());
+        if (listeners != null) {
+            listeners.forEach(listener -> deliver(listener, event));
+        }
+    }
+
+    /**
+     * Publier un événement; issuesCount n'est utilisé que pour l'étape finale (sinon cumul en mémoire)
+     */
+    private void publish(Long auditId, Long documentId, String documentName, Stage stage,
+                         int documentPercent, int issuesCount, String message) {
+        AuditProgress progress = progressByAudit.get(auditId);
+        int auditPercent = stage == Stage.COMPLETED ? 100 : progress != null ? progress.auditPercent() : 0;
+        int processed = progress != null ? progress.finishedDocuments() : 0;
+        int total = progress != null ? progress.totalDocuments : 0;
+        int issues = stage.isTerminal() || progress == null ? issuesCount : progress.issuesCount();
+
+        log.debug("📡 Audit {} - {} {} ({}%)", auditId, stage, documentName != null ? documentName : "", auditPercent);
+        eventPublisher.publishEvent(new AuditProgressEvent(this, auditId, documentId, documentName, stage,
+                documentPercent, auditPercent, processed, total, issues, message));
+    }
+
+    private void deliver(Consumer<AuditProgressEvent> listener, AuditProgressEvent event) {
+        try {
+            listener.accept(event);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Erreur d'un abonné à la progression de l'audit {}", event.getAuditId(), e);
+        }
+    }
+}
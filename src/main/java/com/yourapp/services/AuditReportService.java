@@ -3,11 +3,10 @@ package com.yourapp.services;
 import com.yourapp.dto.AuditReportDto;
 import com.yourapp.model.Audit;
 import com.yourapp.model.AuditReport;
-import com.yourapp.model.AuditIssue;
 import com.yourapp.DAO.AuditReportRepository;
 import com.yourapp.DAO.AuditRepository;
 import com.yourapp.DAO.AuditIssueRepository;
-import com.yourapp.DAO.AuditDocumentRepository;
+import com.yourapp.DAO.AuditStatisticsRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
@@ -24,7 +23,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Service responsable de la génération et gestion des rapports d'audit
@@ -37,7 +35,8 @@ public class AuditReportService {
     private final AuditReportRepository reportRepository;
     private final AuditRepository auditRepository;
     private final AuditIssueRepository issueRepository;
-    private final AuditDocumentRepository documentRepository;
+    private final AuditStatisticsRepository statisticsRepository;
+    private final AuditDtoAssembler dtoAssembler;
 
     private final String reportsDir = "reports/";
 
@@ -57,25 +56,23 @@ public class AuditReportService {
             throw new RuntimeException("L'audit doit être terminé avant de générer un rapport");
         }
 
-        // Récupérer tous les problèmes de l'audit
-        List<AuditIssue> issues = issueRepository.findByAudit(audit);
+        // Statistiques calculées par la base (COUNT / GROUP BY)
+        int totalIssues = (int) statisticsRepository.countIssuesByAuditId(auditId);
+        Map<String, Integer> issuesByCategory = calculateIssuesByCategory(auditId);
+        Map<String, Integer> issuesByType = calculateIssuesByType(totalIssues);
 
-        // Calculer les statistiques
-        Map<String, Integer> issuesByCategory = calculateIssuesByCategory(issues);
-        Map<String, Integer> issuesByType = calculateIssuesByType(issues);
-
-        int totalIssues = issues.size();
-        int documentsCount = (int) documentRepository.findByAuditId(auditId).size();
+        int documentsCount = (int) statisticsRepository.countDocumentsByAuditId(auditId);
 
         // Générer le contenu du rapport
-        String summary = generateSummary(audit, issues, documentsCount);
+        String summary = generateSummary(audit, totalIssues, documentsCount);
 
         // Calculer le score (exemple : 100 - nombre de problèmes)
         int score = Math.max(0, 100 - totalIssues * 5);
 
         try {
             // Générer le fichier du rapport
-            String reportPath = generateReportFile(audit, issues, summary, score);
+            String reportPath = generateReportFile(audit, issueRepository.findReportLinesByAuditId(auditId),
+                    totalIssues, summary, score);
 
             // Créer l'entité AuditReport
             AuditReport report = new AuditReport(audit, reportPath, summary, score, totalIssues);
@@ -87,7 +84,7 @@ public class AuditReportService {
             auditRepository.save(audit);
 
             log.info("Rapport généré avec succès pour l'audit {}", auditId);
-            return mapToDto(report, issuesByCategory, issuesByType);
+            return dtoAssembler.toReportDto(report, issuesByCategory, issuesByType);
 
         } catch (Exception e) {
             log.error("Erreur lors de la génération du rapport", e);
@@ -101,7 +98,7 @@ public class AuditReportService {
     public AuditReportDto getReportById(Long reportId) {
         AuditReport report = reportRepository.findById(reportId.intValue())
                 .orElseThrow(() -> new RuntimeException("Rapport introuvable avec l'ID: " + reportId));
-        return mapToDto(report, null, null);
+        return dtoAssembler.toReportDto(report, null, null);
     }
 
     /**
@@ -110,20 +107,15 @@ public class AuditReportService {
     public AuditReportDto getReportByAudit(Long auditId) {
         AuditReport report = reportRepository.findTopByAuditIdOrderByGeneratedAtDesc(auditId)
                 .orElseThrow(() -> new RuntimeException("Aucun rapport trouvé pour l'audit: " + auditId));
-        return mapToDto(report, null, null);
+        return dtoAssembler.toReportDto(report, null, null);
     }
 
     /**
      * Récupérer tous les rapports d'un projet
      */
     public List<AuditReportDto> getReportsByProject(Long projectId) {
-        // Récupérer tous les audits du projet
-        List<Audit> audits = auditRepository.findByProjectId(projectId);
-
-        return audits.stream()
-                .flatMap(audit -> reportRepository.findByAudit(audit).stream())
-                .map(report -> mapToDto(report, null, null))
-                .collect(Collectors.toList());
+        // Rapports et audits en une requête, nombres de documents en un seul GROUP BY
+        return dtoAssembler.toReportDtos(reportRepository.findByProjectIdWithAudit(projectId));
     }
 
     /**
@@ -208,9 +200,7 @@ public class AuditReportService {
     /**
      * Générer le résumé du rapport
      */
-    private String generateSummary(Audit audit, List<AuditIssue> issues, int documentsCount) {
-        int totalIssues = issues.size();
-
+    private String generateSummary(Audit audit, int totalIssues, int documentsCount) {
         return String.format(
                 "Rapport d'audit pour le projet '%s' effectué le %s. " +
                         "L'analyse a porté sur %d document(s) et a révélé %d problème(s). " +
@@ -226,7 +216,8 @@ public class AuditReportService {
     /**
      * Générer le fichier du rapport
      */
-    private String generateReportFile(Audit audit, List<AuditIssue> issues, String summary, int score)
+    private String generateReportFile(Audit audit, List<AuditIssueRepository.ReportLine> issues, int totalIssues,
+                                      String summary, int score)
             throws IOException {
 
         // Créer le répertoire s'il n'existe pas
@@ -247,13 +238,13 @@ public class AuditReportService {
         content.append("=".repeat(80)).append("\n\n");
         content.append("Date: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))).append("\n");
         content.append("Score: ").append(score).append("/100\n");
-        content.append("Problèmes détectés: ").append(issues.size()).append("\n\n");
+        content.append("Problèmes détectés: ").append(totalIssues).append("\n\n");
         content.append("RÉSUMÉ\n").append("-".repeat(80)).append("\n");
         content.append(summary).append("\n\n");
 
         if (!issues.isEmpty()) {
             content.append("PROBLÈMES DÉTECTÉS\n").append("-".repeat(80)).append("\n");
-            for (AuditIssue issue : issues) {
+            for (AuditIssueRepository.ReportLine issue : issues) {
                 content.append("• ").append(issue.getIssueType()).append("\n");
                 content.append("  ").append(issue.getDescription()).append("\n");
                 if (issue.getSuggestion() != null) {
@@ -272,42 +263,21 @@ public class AuditReportService {
     /**
      * Calculer le nombre de problèmes par catégorie
      */
-    private Map<String, Integer> calculateIssuesByCategory(List<AuditIssue> issues) {
-        return issues.stream()
-                .collect(Collectors.groupingBy(
-                        issue -> issue.getIssueType() != null ? issue.getIssueType() : "OTHER",
-                        Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-                ));
+    private Map<String, Integer> calculateIssuesByCategory(Long auditId) {
+        Map<String, Integer> result = new HashMap<>();
+        for (AuditStatisticsRepository.TypeCount row : statisticsRepository.countIssuesByTypeForAudit(auditId)) {
+            String type = row.getIssueType() != null ? row.getIssueType() : "OTHER";
+            result.merge(type, (int) row.getTotal(), Integer::sum);
+        }
+        return result;
     }
 
     /**
      * Calculer le nombre de problèmes par type
      */
-    private Map<String, Integer> calculateIssuesByType(List<AuditIssue> issues) {
+    private Map<String, Integer> calculateIssuesByType(int totalIssues) {
         Map<String, Integer> result = new HashMap<>();
-        result.put("TOTAL", issues.size());
+        result.put("TOTAL", totalIssues);
         return result;
     }
-
-    /**
-     * Mapper une entité AuditReport vers AuditReportDto
-     */
-    private AuditReportDto mapToDto(AuditReport report, Map<String, Integer> issuesByCategory,
-                                    Map<String, Integer> issuesByType) {
-        return AuditReportDto.builder()
-                .id(report.getId().longValue())
-                .auditId(report.getAudit().getId())
-                .reportTitle("Rapport d'audit - " + report.getAudit().getProjectName())
-                .summary(report.getReportSummary())
-                .totalIssuesFound(report.getProblemsCount() != null ? report.getProblemsCount() : 0)
-                .documentsAnalyzed((int) documentRepository.findByAuditId(report.getAudit().getId()).size())
-                .issuesByCategory(issuesByCategory)
-                .issuesByType(issuesByType)
-                .reportFilePath(report.getReportPath())
-                .reportFormat("TXT")
-                .generatedAt(report.getGeneratedAt())
-                .generatedBy("System")
-                .status("COMPLETED")
-                .build();
-    }
-}
\ No newline at end of file
+}
@@ -2,7 +2,6 @@ package com.yourapp.services;
 
 import com.yourapp.dto.AuditCreateRequestDto;
 import com.yourapp.dto.AuditResponseDto;
-import com.yourapp.dto.AuditDocumentDto;
 import com.yourapp.model.Audit;
 import com.yourapp.model.Project;
 import com.yourapp.model.AuditTemplate;
@@ -11,19 +10,22 @@ import com.yourapp.DAO.AuditRepository;
 import com.yourapp.DAO.ProjectRepository;
 import com.yourapp.DAO.AuditTemplateRepository;
 import com.yourapp.DAO.AuditDocumentRepository;
+import com.yourapp.DAO.AuditStatisticsRepository;
 import com.yourapp.utils.DashboardRefreshEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service responsable de la gestion complète des audits
@@ -37,8 +39,11 @@ public class AuditService {
     private final ProjectRepository projectRepository;
     private final AuditTemplateRepository templateRepository;
     private final AuditDocumentRepository auditDocumentRepository;
-    private final AiAuditService aiAuditService;
+    private final AuditStatisticsRepository statisticsRepository;
     private final AuditIssueService auditIssueService;
+    private final AuditDocumentService auditDocumentService;
+    private final AuditJobService auditJobService;
+    private final AuditDtoAssembler dtoAssembler;
     private final ApplicationEventPublisher eventPublisher; // ✅ AJOUTÉ
 
     /**
@@ -84,71 +89,49 @@ public class AuditService {
 
         // ✅ PUBLIER L'ÉVÉNEMENT pour rafraîchir le dashboard
         eventPublisher.publishEvent(
-                new DashboardRefreshEvent(this, "Nouvel audit créé pour: " + project.getName())
+                new DashboardRefreshEvent(this, "Nouvel audit créé pour: " + project.getName(),
+                        DashboardRefreshEvent.Section.STATS, DashboardRefreshEvent.Section.ACTIVITIES)
         );
 
         log.info("Audit créé avec succès: {}", audit.getId());
-        return mapToResponseDto(audit);
+        return dtoAssembler.toResponseDto(audit);
     }
 
     /**
      * Démarrer l'analyse IA d'un audit
+     * L'analyse est exécutée en arrière-plan par AuditJobService: l'audit est renvoyé IN_PROGRESS
      */
-    @Transactional
     public AuditResponseDto startAnalysis(Long auditId) {
         log.info("Démarrage de l'analyse pour l'audit {}", auditId);
 
-        Audit audit = auditRepository.findById(auditId)
-                .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
-
-        // Vérifier que l'audit n'est pas déjà en cours ou terminé
-        if ("IN_PROGRESS".equals(audit.getStatus()) || "COMPLETED".equals(audit.getStatus())) {
-            throw new RuntimeException("L'audit est déjà en cours ou terminé");
-        }
+        auditJobService.submit(auditId);
+        return getAuditById(auditId);
+    }
 
-        // Mettre à jour le statut
-        audit.setStatus("IN_PROGRESS");
-        audit = auditRepository.save(audit);
+    /**
+     * Annuler l'analyse en cours ou en attente d'un audit
+     */
+    public boolean cancelAnalysis(Long auditId) {
+        return auditJobService.cancel(auditId);
+    }
 
-        // ✅ PUBLIER L'ÉVÉNEMENT pour le statut IN_PROGRESS
-        eventPublisher.publishEvent(
-                new DashboardRefreshEvent(this, "Analyse démarrée pour: " + audit.getProjectName())
-        );
+    /**
+     * Attendre la fin de l'analyse d'un audit sans interroger la base en boucle
+     */
+    public AuditResponseDto awaitAnalysis(Long auditId) {
+        return awaitAnalysis(auditId, auditJobService.defaultAwaitTimeout());
+    }
 
-        // Lancer l'analyse IA de manière asynchrone
+    public AuditResponseDto awaitAnalysis(Long auditId, Duration timeout) {
         try {
-            aiAuditService.analyzeAudit(audit);
-
-            audit.setStatus("COMPLETED");
-
-            // Compter les problèmes détectés
-            int problemsCount = auditIssueService.countByAudit(audit);
-            audit.setProblemsCount(problemsCount);
-
-            // ✅ CALCULER LE SCORE basé sur les problèmes
-            int score = calculateAuditScore(problemsCount);
-            audit.setScore(score);
-
-            log.info("Analyse terminée: {} problèmes détectés, score: {}%", problemsCount, score);
-
-        } catch (Exception e) {
-            log.error("Erreur lors de l'analyse de l'audit {}", auditId, e);
-            audit.setStatus("FAILED");
+            auditJobService.awaitCompletion(auditId, timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Attente de l'analyse interrompue", e);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Timeout: L'analyse de l'audit " + auditId + " est toujours en cours", e);
         }
-
-        audit = auditRepository.save(audit);
-
-        // ✅ PUBLIER L'ÉVÉNEMENT pour la complétion
-        if ("COMPLETED".equals(audit.getStatus())) {
-            String conformeStatus = audit.getProblemsCount() < 5 ? "conforme" : "non conforme";
-            eventPublisher.publishEvent(
-                    new DashboardRefreshEvent(this,
-                            "Audit complété (" + conformeStatus + "): " + audit.getProjectName())
-            );
-        }
-
-        log.info("Analyse terminée pour l'audit {}", auditId);
-        return mapToResponseDto(audit);
+        return getAuditById(auditId);
     }
 
     /**
@@ -174,11 +157,12 @@ public class AuditService {
         String conformeStatus = problemsCount < 5 ? "conforme" : "non conforme";
         eventPublisher.publishEvent(
                 new DashboardRefreshEvent(this,
-                        "Audit complété (" + conformeStatus + "): " + audit.getProjectName())
+                        "Audit complété (" + conformeStatus + "): " + audit.getProjectName(),
+                        DashboardRefreshEvent.Section.STATS, DashboardRefreshEvent.Section.ACTIVITIES)
         );
 
         log.info("Audit {} complété manuellement", auditId);
-        return mapToResponseDto(audit);
+        return dtoAssembler.toResponseDto(audit);
     }
 
     /**
@@ -187,34 +171,29 @@ public class AuditService {
     public AuditResponseDto getAuditById(Long auditId) {
         Audit audit = auditRepository.findById(auditId)
                 .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
-        return mapToResponseDto(audit);
+        return dtoAssembler.toResponseDto(audit);
     }
 
     /**
      * Récupérer tous les audits d'un projet
      */
     public List<AuditResponseDto> getAuditsByProject(Long projectId) {
-        List<Audit> audits = auditRepository.findByProjectId(projectId);
-        return audits.stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return dtoAssembler.toResponseDtos(auditRepository.findByProjectId(projectId));
     }
 
     /**
      * Récupérer tous les audits avec pagination
      */
     public Page<AuditResponseDto> getAllAudits(Pageable pageable) {
-        return auditRepository.findAll(pageable)
-                .map(this::mapToResponseDto);
+        Page<Audit> audits = auditRepository.findAll(pageable);
+        return new PageImpl<>(dtoAssembler.toResponseDtos(audits.getContent()), pageable, audits.getTotalElements());
     }
 
     /**
      * ✅ NOUVELLE MÉTHODE: Récupérer tous les audits (sans pagination)
      */
     public List<AuditResponseDto> getAllAudits() {
-        return auditRepository.findAll().stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return dtoAssembler.toResponseDtos(auditRepository.findAll());
     }
 
     /**
@@ -233,11 +212,12 @@ public class AuditService {
         // ✅ PUBLIER L'ÉVÉNEMENT si le statut change vers COMPLETED
         if ("COMPLETED".equals(status) && !"COMPLETED".equals(oldStatus)) {
             eventPublisher.publishEvent(
-                    new DashboardRefreshEvent(this, "Audit complété: " + audit.getProjectName())
+                    new DashboardRefreshEvent(this, "Audit complété: " + audit.getProjectName(),
+                            DashboardRefreshEvent.Section.STATS, DashboardRefreshEvent.Section.ACTIVITIES)
             );
         }
 
-        return mapToResponseDto(audit);
+        return dtoAssembler.toResponseDto(audit);
     }
 
     /**
@@ -253,13 +233,16 @@ public class AuditService {
 
         Audit audit = auditRepository.findById(auditId).orElseThrow();
         String projectName = audit.getProjectName();
+        List<String> contentHashes = auditDocumentRepository.findContentHashesByAuditId(auditId);
 
         // Supprimer les documents, issues et rapports associés (cascade)
         auditRepository.deleteById(auditId);
+        auditDocumentService.collectAfterCommit(contentHashes);
 
         // ✅ PUBLIER L'ÉVÉNEMENT
         eventPublisher.publishEvent(
-                new DashboardRefreshEvent(this, "Audit supprimé pour: " + projectName)
+                new DashboardRefreshEvent(this, "Audit supprimé pour: " + projectName,
+                        DashboardRefreshEvent.Section.STATS, DashboardRefreshEvent.Section.ACTIVITIES)
         );
 
         log.info("Audit {} supprimé avec succès", auditId);
@@ -273,7 +256,7 @@ public class AuditService {
                 .orElseThrow(() -> new RuntimeException("Audit introuvable avec l'ID: " + auditId));
 
         int totalIssues = auditIssueService.countByAudit(audit);
-        int documentsCount = (int) auditDocumentRepository.findByAuditId(audit.getId()).size();
+        int documentsCount = (int) statisticsRepository.countDocumentsByAuditId(audit.getId());
 
         return java.util.Map.of(
                 "auditId", auditId,
@@ -289,7 +272,7 @@ public class AuditService {
      * ✅ NOUVELLE MÉTHODE: Calculer le score d'un audit basé sur le nombre de problèmes
      * Score de 0 à 100
      */
-    private int calculateAuditScore(int problemsCount) {
+    static int calculateAuditScore(int problemsCount) {
         if (problemsCount == 0) {
             return 100; // Parfait
         } else if (problemsCount <= 2) {
@@ -304,46 +287,4 @@ public class AuditService {
             return 20; // Très insuffisant
         }
     }
-
-    /**
-     * Mapper une entité Audit vers AuditResponseDto
-     */
-    private AuditResponseDto mapToResponseDto(Audit audit) {
-        // Récupérer les documents
-        List<AuditDocument> documents = auditDocumentRepository.findByAuditId(audit.getId());
-        List<AuditDocumentDto> documentDtos = documents.stream()
-                .map(this::mapDocumentToDto)
-                .collect(Collectors.toList());
-
-        return AuditResponseDto.builder()
-                .id(audit.getId())
-                .projectId(audit.getProjectId())
-                .projectName(audit.getProjectName())
-                .modelId(audit.getModelId())
-                .modelName(audit.getModelName())
-                .status(audit.getStatus())
-                .createdAt(audit.getCreatedAt() != null ? audit.getCreatedAt() : null)
-                .score(audit.getScore())
-                .problemsCount(audit.getProblemsCount())
-                .comments(audit.getComments())
-                .documents(documentDtos)
-                .build();
-    }
-
-    /**
-     * Mapper AuditDocument vers AuditDocumentDto
-     */
-    private AuditDocumentDto mapDocumentToDto(AuditDocument doc) {
-        return AuditDocumentDto.builder()
-                .id(doc.getId())
-                .auditId(doc.getAudit() != null ? doc.getAudit().getId() : null)
-                .fileName(doc.getDocumentName())
-                .storagePath(doc.getDocumentPath())
-                .status(doc.getStatus())
-                .uploadedAt(doc.getUploadedAt())
-                .analyzedAt(doc.getAnalyzedAt())
-                .errorMessage(doc.getErrorMessage())
-                .issuesCount(doc.getIssuesCount())
-                .build();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,93 @@
+package com.yourapp.services;
+
+import com.yourapp.dto.DashboardStatsDto;
+import com.yourapp.dto.ProjectProgressDto;
+import com.yourapp.dto.RecentActivityDto;
+import com.yourapp.utils.DashboardRefreshEvent.Section;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cache des données du dashboard: statistiques (par utilisateur), progression des projets, activités récentes
+ * Une section n'est relue en base qu'après son invalidation (DashboardRefreshEvent) ou à expiration;
+ * l'expiration garde à jour les libellés relatifs ("il y a 5 min") et les fenêtres mois / semaine
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCache {
+
+    private final DashboardService dashboardService;
+
+    @Value("${app.dashboard.cache-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private record Cached<T>(T value, long loadedAtNanos) {}
+
+    // Clé: id utilisateur pour STATS, 0 pour les sections communes
+    private final Map<Section, Map<Long, Cached<?>>> entries = new EnumMap<>(Section.class);
+
+    // Incrémenté à chaque invalidation: un chargement commencé avant n'est pas mis en cache
+    private final Map<Section, Long> generations = new EnumMap<>(Section.class);
+
+    {
+        for (Section section : Section.values()) {
+            entries.put(section, new ConcurrentHashMap<>());
+            generations.put(section, 0L);
+        }
+    }
+
+    public DashboardStatsDto getStats(Long userId) {
+        return get(Section.STATS, userId, () -> dashboardService.getDashboardStats(userId));
+    }
+
+    public List<ProjectProgressDto> getProjectsProgress() {
+        return get(Section.PROJECTS, 0L, dashboardService::getProjectsProgress);
+    }
+
+    public List<RecentActivityDto> getRecentActivities() {
+        return get(Section.ACTIVITIES, 0L, dashboardService::getRecentActivities);
+    }
+
+    public synchronized void invalidate(Collection<Section> sections) {
+        for (Section section : sections) {
+            generations.merge(section, 1L, Long::sum);
+            entries.get(section).clear();
+        }
+        log.debug("🧹 Cache du dashboard invalidé: {}", sections);
+    }
+
+    public void invalidateAll() {
+        invalidate(List.of(Section.values()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(Section section, Long key, Supplier<T> loader) {
+        Cached<?> cached = entries.get(section).get(key);
+        if (cached != null && System.nanoTime() - cached.loadedAtNanos() < TimeUnit.SECONDS.toNanos(ttlSeconds)) {
+            return (T) cached.value();
+        }
+
+        long generation;
+        synchronized (this) {
+            generation = generations.get(section);
+        }
+        T value = loader.get();
+        synchronized (this) {
+            if (generations.get(section) == generation) {
+                entries.get(section).put(key, new Cached<>(value, System.nanoTime()));
+            }
+        }
+        return value;
+    }
+}
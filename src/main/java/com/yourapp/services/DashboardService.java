@@ -4,21 +4,20 @@ import com.yourapp.DAO.AuditRepository;
 import com.yourapp.DAO.ProjectRepository;
 import com.yourapp.DAO.AuditDocumentRepository;
 import com.yourapp.DAO.UserRepository;
+import com.yourapp.DAO.DashboardSummaryRepository;
 import com.yourapp.dto.DashboardStatsDto;
 import com.yourapp.dto.ProjectProgressDto;
 import com.yourapp.dto.RecentActivityDto;
 import com.yourapp.utils.DashboardMapper;
-import com.yourapp.model.Audit;
-import com.yourapp.model.Project;
-import com.yourapp.model.AuditDocument;
+import com.yourapp.model.DashboardSummary;
 import com.yourapp.model.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,50 +30,43 @@ public class DashboardService {
     private final ProjectRepository projectRepository;
     private final AuditDocumentRepository documentRepository;
     private final UserRepository userRepository;
+    private final DashboardSummaryRepository summaryRepository;
     private final DashboardMapper dashboardMapper;
 
     /**
-     * ✅ OPTIMISÉ: Récupérer les statistiques du dashboard avec données en temps réel
-     * Une seule transaction pour toutes les données
+     * Statistiques du dashboard sur toutes les données
+     * Compteurs lus dans dashboard_summary (une ligne), fenêtres de dates comptées par index
      */
     @Transactional(readOnly = true)
     public DashboardStatsDto getDashboardStats(Long userId) {
         long startTime = System.currentTimeMillis();
         log.info("📊 Récupération des stats dashboard pour user {}", userId);
 
-        // Récupérer l'utilisateur
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé avec ID: " + userId));
-
-        // ✅ UNE SEULE requête pour TOUTES les données
-        List<Audit> allAudits = auditRepository.findAll();
-        List<Project> allProjects = projectRepository.findAll();
-
-        // Calculer les statistiques en mémoire (très rapide)
-        int totalAudits = allAudits.size();
-        int auditsThisMonth = calculateAuditsThisMonth(allAudits);
-        int totalProjects = allProjects.size();
-        int projectsThisWeek = calculateProjectsThisWeek(allProjects);
-        int auditsConforme = calculateConformeAudits(allAudits);
-        int auditsNonConforme = calculateNonConformeAudits(allAudits);
-        int globalScore = calculateGlobalScore(totalAudits, auditsConforme);
-        String complianceStatus = getComplianceStatus(globalScore, totalAudits);
+        User user = findUser(userId);
+        DashboardSummary summary = findSummary(DashboardSummary.GLOBAL_SCOPE);
+        int auditsThisMonth = (int) auditRepository.countByAuditDateGreaterThanEqual(firstDayOfMonth());
 
-        long duration = System.currentTimeMillis() - startTime;
-        log.info("✅ Stats calculées en {}ms: {} audits, {} projets, score: {}%",
-                duration, totalAudits, totalProjects, globalScore);
+        DashboardStatsDto stats = buildStats(user, summary, auditsThisMonth);
+        log.info("✅ Stats lues en {}ms: {} audits, {} projets, score: {}%",
+                System.currentTimeMillis() - startTime, stats.getTotalAudits(), stats.getTotalProjects(),
+                stats.getGlobalScore());
+        return stats;
+    }
 
-        return DashboardStatsDto.builder()
-                .userName(user.getFullName())
-                .totalAudits(totalAudits)
-                .auditsThisMonth(auditsThisMonth)
-                .totalProjects(totalProjects)
-                .projectsThisWeek(projectsThisWeek)
-                .auditsConforme(auditsConforme)
-                .auditsNonConforme(auditsNonConforme)
-                .globalScore(globalScore)
-                .complianceStatus(complianceStatus)
-                .build();
+    /**
+     * Statistiques du dashboard limitées aux audits d'une organisation
+     * Les projets n'étant pas rattachés à une organisation, leurs compteurs restent globaux
+     */
+    @Transactional(readOnly = true)
+    public DashboardStatsDto getDashboardStats(Long userId, String organization) {
+        User user = findUser(userId);
+        DashboardSummary summary = findSummary(DashboardSummary.organizationScope(organization));
+        int auditsThisMonth = (int) auditRepository.countByOrganizationAndAuditDateGreaterThanEqual(
+                organization, firstDayOfMonth());
+
+        DashboardStatsDto stats = buildStats(user, summary, auditsThisMonth);
+        stats.setTotalProjects((int) findSummary(DashboardSummary.GLOBAL_SCOPE).getTotalProjects());
+        return stats;
     }
 
     /**
@@ -82,53 +74,31 @@ public class DashboardService {
      */
     @Transactional(readOnly = true)
     public List<ProjectProgressDto> getProjectsProgress() {
-        List<Project> projects = projectRepository.findAll();
-
-        return projects.stream()
+        return projectRepository.findTop5ByOrderByProgressDesc().stream()
                 .map(dashboardMapper::toProjectProgressDto)
-                .sorted((p1, p2) -> Double.compare(p2.getProgress(), p1.getProgress()))
-                .limit(5)
                 .collect(Collectors.toList());
     }
 
     /**
      * ✅ OPTIMISÉ: Récupérer les activités récentes (dernières 10)
+     * Chaque source ne lit que ses derniers éléments (requêtes top-N indexées)
      */
     @Transactional(readOnly = true)
     public List<RecentActivityDto> getRecentActivities() {
         List<RecentActivityDto> activities = new ArrayList<>();
 
         // 1. Audits récents complétés (derniers 3)
-        List<Audit> recentCompletedAudits = auditRepository.findAll().stream()
-                .filter(a -> "COMPLETED".equals(a.getStatus()))
-                .sorted(Comparator.comparing(Audit::getUpdatedAt,
-                        Comparator.nullsLast(Comparator.reverseOrder())))
-                .limit(3)
-                .collect(Collectors.toList());
-
-        recentCompletedAudits.forEach(audit ->
+        auditRepository.findRecentByStatus("COMPLETED", PageRequest.of(0, 3)).forEach(audit ->
                 activities.add(dashboardMapper.toActivityDto(audit, "AUDIT_COMPLETED"))
         );
 
         // 2. Documents récemment importés (derniers 2)
-        List<AuditDocument> recentDocs = documentRepository.findAll().stream()
-                .sorted(Comparator.comparing(AuditDocument::getUploadedAt,
-                        Comparator.nullsLast(Comparator.reverseOrder())))
-                .limit(2)
-                .collect(Collectors.toList());
-
-        recentDocs.forEach(doc ->
+        documentRepository.findRecentWithAudit(PageRequest.of(0, 2)).forEach(doc ->
                 activities.add(dashboardMapper.toActivityDto(doc))
         );
 
         // 3. Nouveaux projets créés (derniers 2)
-        List<Project> recentProjects = projectRepository.findAll().stream()
-                .sorted(Comparator.comparing(Project::getStartDate,
-                        Comparator.nullsLast(Comparator.reverseOrder())))
-                .limit(2)
-                .collect(Collectors.toList());
-
-        recentProjects.forEach(project ->
+        projectRepository.findRecent(PageRequest.of(0, 2)).forEach(project ->
                 activities.add(dashboardMapper.toActivityDto(project))
         );
 
@@ -142,35 +112,35 @@ public class DashboardService {
 
     // =============== Méthodes de calcul privées ===============
 
-    private int calculateAuditsThisMonth(List<Audit> audits) {
-        LocalDate firstDayOfMonth = LocalDate.now().withDayOfMonth(1);
-
-        return (int) audits.stream()
-                .filter(a -> a.getAuditDate() != null &&
-                        !a.getAuditDate().isBefore(firstDayOfMonth))
-                .count();
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé avec ID: " + userId));
     }
 
-    private int calculateProjectsThisWeek(List<Project> projects) {
-        LocalDate weekAgo = LocalDate.now().minusWeeks(1);
-
-        return (int) projects.stream()
-                .filter(p -> p.getStartDate() != null &&
-                        !p.getStartDate().isBefore(weekAgo))
-                .count();
+    private DashboardSummary findSummary(String scope) {
+        return summaryRepository.findById(scope).orElseGet(() -> new DashboardSummary(scope));
     }
 
-    private int calculateConformeAudits(List<Audit> audits) {
-        return (int) audits.stream()
-                .filter(a -> "COMPLETED".equals(a.getStatus()))
-                .filter(a -> a.getProblemsCount() != null && a.getProblemsCount() < 5)
-                .count();
+    private LocalDate firstDayOfMonth() {
+        return LocalDate.now().withDayOfMonth(1);
     }
 
-    private int calculateNonConformeAudits(List<Audit> audits) {
-        return (int) audits.stream()
-                .filter(a -> a.getProblemsCount() != null && a.getProblemsCount() >= 5)
-                .count();
+    private DashboardStatsDto buildStats(User user, DashboardSummary summary, int auditsThisMonth) {
+        int totalAudits = (int) summary.getTotalAudits();
+        int auditsConforme = (int) summary.getAuditsConforme();
+        int globalScore = calculateGlobalScore(totalAudits, auditsConforme);
+
+        return DashboardStatsDto.builder()
+                .userName(user.getFullName())
+                .totalAudits(totalAudits)
+                .auditsThisMonth(auditsThisMonth)
+                .totalProjects((int) summary.getTotalProjects())
+                .projectsThisWeek((int) projectRepository.countByStartDateGreaterThanEqual(LocalDate.now().minusWeeks(1)))
+                .auditsConforme(auditsConforme)
+                .auditsNonConforme((int) summary.getAuditsNonConforme())
+                .globalScore(globalScore)
+                .complianceStatus(getComplianceStatus(globalScore, totalAudits))
+                .build();
     }
 
     /**
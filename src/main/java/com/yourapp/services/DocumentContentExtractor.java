@@ -1,216 +1,522 @@
 package com.yourapp.services;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.text.PDFTextStripper;
-import org.apache.poi.xwpf.usermodel.XWPFDocument;
-import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.*;
 import org.apache.poi.hwpf.HWPFDocument;
 import org.apache.poi.hwpf.extractor.WordExtractor;
-import org.apache.poi.ss.usermodel.*;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STBrType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.ClosedByInterruptException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Service d'extraction de contenu pour tous types de documents
  * Supporte: PDF, DOCX, DOC, XLSX, XLS, TXT
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class DocumentContentExtractor {
 
+    private final ExcelStreamingExtractor excelExtractor;
+    private final ExtractedTextCache textCache;
+    private final ExtractionMemoryBudget memoryBudget;
+
+    // En dessous de ce nombre de pages, l'extraction PDF reste séquentielle
+    @Value("${app.extraction.pdf.parallel-threshold-pages:40}")
+    private int parallelThresholdPages;
+
+    // Nombre maximal de pages traitées par une tâche du pool
+    @Value("${app.extraction.pdf.pages-per-task:25}")
+    private int pagesPerTask;
+
+    // 0 = nombre de processeurs disponibles
+    @Value("${app.extraction.pdf.parallelism:0}")
+    private int pdfParallelism;
+
+    private ForkJoinPool pdfPool;
+
+    @PostConstruct
+    void initPdfPool() {
+        int parallelism = pdfParallelism > 0 ? pdfParallelism : Runtime.getRuntime().availableProcessors();
+        pdfPool = new ForkJoinPool(parallelism);
+        log.info("🧵 Pool d'extraction PDF initialisé: {} threads, seuil parallèle: {} pages",
+                parallelism, parallelThresholdPages);
+    }
+
+    @PreDestroy
+    void shutdownPdfPool() {
+        if (pdfPool != null) {
+            pdfPool.shutdownNow();
+        }
+    }
+
     /**
      * Extraire le contenu d'un document selon son type
+     * Le texte est servi depuis le cache tant que le contenu du fichier ne change pas
      */
     public String extractContent(Path filePath, String fileName) throws IOException {
+        return extractStructured(filePath, fileName).getText();
+    }
+
+    /**
+     * Extraire le contenu et son index de structure (pages, paragraphes, offsets)
+     * Sert à localiser précisément les problèmes remontés par l'IA
+     */
+    public ExtractedContent extractStructured(Path filePath, String fileName) throws IOException {
+        if (!isSupported(fileName) || !textCache.isEnabled()) {
+            return extractUncached(filePath, fileName);
+        }
+
+        String contentHash = textCache.hashOf(filePath);
+        Optional<ExtractedContent> cached = textCache.get(contentHash);
+        if (cached.isPresent()) {
+            log.info("♻️ Contenu de {} servi depuis le cache d'extraction", fileName);
+            return cached.get();
+        }
+
+        ExtractedContent content = extractUncached(filePath, fileName);
+        textCache.put(contentHash, content);
+        return content;
+    }
+
+    /**
+     * Contenu déjà présent dans le cache d'extraction, sans rien extraire
+     * Permet de ne pas lancer le bac à sable quand le résultat est connu
+     */
+    public Optional<ExtractedContent> findCached(Path filePath, String fileName) throws IOException {
+        if (!isSupported(fileName) || !textCache.isEnabled()) {
+            return Optional.empty();
+        }
+        return textCache.get(textCache.hashOf(filePath));
+    }
+
+    /**
+     * Extraire le contenu en relisant le fichier source
+     */
+    private ExtractedContent extractUncached(Path filePath, String fileName) throws IOException {
         log.info("📖 Extraction du contenu de: {}", fileName);
 
         String lowerFileName = fileName.toLowerCase();
 
+        ExtractedContent content;
         if (lowerFileName.endsWith(".txt")) {
-            return extractTextContent(filePath);
+            content = extractTextContent(filePath);
         } else if (lowerFileName.endsWith(".pdf")) {
-            return extractPdfContent(filePath);
+            content = extractPdfContent(filePath);
         } else if (lowerFileName.endsWith(".docx")) {
-            return extractDocxContent(filePath);
+            content = extractDocxContent(filePath);
         } else if (lowerFileName.endsWith(".doc")) {
-            return extractDocContent(filePath);
+            content = extractDocContent(filePath);
         } else if (lowerFileName.endsWith(".xlsx") || lowerFileName.endsWith(".xls")) {
-            return extractExcelContent(filePath);
+            content = extractExcelContent(filePath);
         } else {
             log.warn("⚠️ Type de fichier non supporté: {}", fileName);
-            return "";
+            return ExtractedContent.plain("");
         }
+
+        log.debug("🗂️ Structure de {}: {} pages, {} paragraphes",
+                fileName, content.getPageCount(), content.getParagraphCount());
+        return content;
     }
 
     /**
      * Extraire le contenu d'un fichier texte
+     * Les sauts de page (form feed) délimitent les pages, les lignes vides les paragraphes
      */
-    private String extractTextContent(Path filePath) throws IOException {
+    private ExtractedContent extractTextContent(Path filePath) throws IOException {
         log.info("📄 Extraction TXT");
-        return Files.readString(filePath);
+        String text = Files.readString(filePath);
+
+        ExtractedContent.Builder builder = new ExtractedContent.Builder();
+        for (String page : text.split("\f", -1)) {
+            builder.startPage(null);
+            for (String line : page.split("\n", -1)) {
+                if (line.isBlank()) {
+                    builder.endParagraph();
+                } else if (!builder.hasOpenParagraph()) {
+                    builder.startParagraph();
+                }
+                builder.append(line).append("\n");
+            }
+        }
+        return builder.build();
     }
 
     /**
      * Extraire le contenu d'un fichier PDF avec Apache PDFBox
+     * Les gros documents sont découpés en plages de pages extraites en parallèle
      */
-    private String extractPdfContent(Path filePath) throws IOException {
-        log.info("📄 Extraction PDF avec PDFBox");
+    private ExtractedContent extractPdfContent(Path filePath) throws IOException {
+        File file = filePath.toFile();
+
+        // La mémoire principale de PDFBox est bornée par la réservation, le surplus déborde sur disque
+        try (ExtractionMemoryBudget.Lease lease = memoryBudget.acquire(filePath)) {
+            int pageCount;
+            ExtractedContent content = null;
+
+            try (PDDocument document = PDDocument.load(file, lease.memorySetting())) {
+                pageCount = document.getNumberOfPages();
+                if (pageCount < parallelThresholdPages || pdfPool.getParallelism() < 2) {
+                    log.info("📄 Extraction PDF séquentielle ({} pages)", pageCount);
+                    content = new PageMarkingTextStripper(new AtomicBoolean()).extract(document);
+                }
+            }
 
-        try (PDDocument document = PDDocument.load(filePath.toFile())) {
+            if (content == null) {
+                log.info("📄 Extraction PDF parallèle ({} pages, {} threads)", pageCount, pdfPool.getParallelism());
+                // Document principal fermé avant le découpage: seules les feuilles (au plus une par thread)
+                // chargent le fichier, chacune avec sa part de la réservation
+                MemoryUsageSetting taskSetting = lease.memorySetting(pdfPool.getParallelism());
+                AtomicBoolean cancelled = new AtomicBoolean();
+                ForkJoinTask<ExtractedContent> task =
+                        pdfPool.submit(new PdfRangeTask(file, taskSetting, cancelled, 1, pageCount, pagesPerTask));
+                try {
+                    content = task.get();
+                } catch (InterruptedException e) {
+                    // Les tâches du pool ne sont pas interrompues: elles s'arrêtent à la page suivante
+                    cancelled.set(true);
+                    task.cancel(true);
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Extraction PDF annulée");
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof UncheckedIOException unchecked ? unchecked : new IOException(e.getCause());
+                }
+            }
+
+            log.info("✅ PDF extrait: {} pages, {} caractères", pageCount, content.getText().length());
+            return content;
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof InterruptedIOException interrupted) {
+                throw interrupted;
+            }
+            log.error("❌ Erreur lors de l'extraction PDF", e.getCause());
+            throw new IOException("Erreur extraction PDF: " + e.getCause().getMessage(), e.getCause());
+        } catch (Exception e) {
+            InterruptedIOException interrupted = asInterruption(e);
+            if (interrupted != null) {
+                throw interrupted;
+            }
+            log.error("❌ Erreur lors de l'extraction PDF", e);
+            throw new IOException("Erreur extraction PDF: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stripper PDFBox qui insère un marqueur avant chaque page
+     * et enregistre les offsets des pages et des paragraphes détectés par PDFBox
+     * L'annulation est vérifiée à chaque page (interruption du thread ou drapeau partagé)
+     */
+    private static class PageMarkingTextStripper extends PDFTextStripper {
 
-            PDFTextStripper stripper = new PDFTextStripper();
+        private final AtomicBoolean cancelled;
+        private ExtractedContent.Builder builder;
 
+        PageMarkingTextStripper(AtomicBoolean cancelled) throws IOException {
+            this.cancelled = cancelled;
             // Configuration pour améliorer l'extraction
-            stripper.setSortByPosition(true);
+            setSortByPosition(true);
+        }
+
+        ExtractedContent extract(PDDocument document) throws IOException {
+            builder = new ExtractedContent.Builder();
+            writeText(document, new BuilderWriter(builder));
+            return builder.build();
+        }
 
-            String text = stripper.getText(document);
+        @Override
+        protected void startPage(PDPage page) throws IOException {
+            if (cancelled.get() || Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Extraction PDF annulée à la page " + getCurrentPageNo());
+            }
+            builder.startPage("Page " + getCurrentPageNo());
+            writeString("\n=== Page " + getCurrentPageNo() + " ===\n");
+            super.startPage(page);
+        }
 
-            log.info("✅ PDF extrait: {} pages, {} caractères",
-                    document.getNumberOfPages(), text.length());
+        @Override
+        protected void writeParagraphStart() throws IOException {
+            super.writeParagraphStart();
+            builder.startParagraph();
+        }
 
-            return text;
-        } catch (Exception e) {
-            log.error("❌ Erreur lors de l'extraction PDF", e);
-            throw new IOException("Erreur extraction PDF: " + e.getMessage(), e);
+        @Override
+        protected void writeParagraphEnd() throws IOException {
+            builder.endParagraph();
+            super.writeParagraphEnd();
+        }
+    }
+
+    /**
+     * Writer qui écrit directement dans le builder, pour que les offsets suivent le texte produit
+     */
+    private static class BuilderWriter extends Writer {
+
+        private final ExtractedContent.Builder builder;
+
+        BuilderWriter(ExtractedContent.Builder builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            builder.text().append(chars, offset, length);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            builder.text().append(str, offset, offset + length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Tâche fork-join extrayant une plage de pages [startPage, endPage]
+     * PDDocument n'étant pas thread-safe, chaque feuille ouvre sa propre instance
+     */
+    private static class PdfRangeTask extends RecursiveTask<ExtractedContent> {
+
+        private final File file;
+        private final MemoryUsageSetting memorySetting;
+        private final AtomicBoolean cancelled;
+        private final int startPage;
+        private final int endPage;
+        private final int pagesPerTask;
+
+        PdfRangeTask(File file, MemoryUsageSetting memorySetting, AtomicBoolean cancelled,
+                     int startPage, int endPage, int pagesPerTask) {
+            this.file = file;
+            this.memorySetting = memorySetting;
+            this.cancelled = cancelled;
+            this.startPage = startPage;
+            this.endPage = endPage;
+            this.pagesPerTask = pagesPerTask;
+        }
+
+        @Override
+        protected ExtractedContent compute() {
+            if (endPage - startPage + 1 <= pagesPerTask) {
+                return extractRange();
+            }
+
+            int middle = (startPage + endPage) >>> 1;
+            PdfRangeTask left = new PdfRangeTask(file, memorySetting, cancelled, startPage, middle, pagesPerTask);
+            PdfRangeTask right = new PdfRangeTask(file, memorySetting, cancelled, middle + 1, endPage, pagesPerTask);
+            right.fork();
+            ExtractedContent leftContent = left.compute();
+            // Réassemblage dans l'ordre des pages, offsets de droite décalés
+            return new ExtractedContent.Builder()
+                    .appendContent(leftContent)
+                    .appendContent(right.join())
+                    .build();
+        }
+
+        private ExtractedContent extractRange() {
+            try (PDDocument document = PDDocument.load(file, memorySetting)) {
+                PageMarkingTextStripper stripper = new PageMarkingTextStripper(cancelled);
+                stripper.setStartPage(startPage);
+                stripper.setEndPage(endPage);
+                return stripper.extract(document);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
     }
 
     /**
      * Extraire le contenu d'un fichier DOCX
+     * Les pages suivent les sauts de page rendus par Word s'ils sont présents, sinon les sauts explicites
      */
-    private String extractDocxContent(Path filePath) throws IOException {
+    private ExtractedContent extractDocxContent(Path filePath) throws IOException {
         log.info("📄 Extraction DOCX");
 
         try (InputStream inputStream = Files.newInputStream(filePath);
-             XWPFDocument document = new XWPFDocument(inputStream);
-             XWPFWordExtractor extractor = new XWPFWordExtractor(document)) {
+             XWPFDocument document = new XWPFDocument(inputStream)) {
 
-            String text = extractor.getText();
+            List<IBodyElement> elements = document.getBodyElements();
+            boolean renderedBreaks = elements.stream()
+                    .filter(XWPFParagraph.class::isInstance)
+                    .flatMap(element -> ((XWPFParagraph) element).getRuns().stream())
+                    .anyMatch(run -> !run.getCTR().getLastRenderedPageBreakList().isEmpty());
 
-            log.info("✅ DOCX extrait: {} caractères", text.length());
-            return text;
+            ExtractedContent.Builder builder = new ExtractedContent.Builder();
+            int pageNumber = 1;
+            builder.startPage("Page " + pageNumber);
+
+            for (IBodyElement element : elements) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Extraction DOCX annulée");
+                }
+                if (element instanceof XWPFParagraph paragraph) {
+                    DocxBreaks breaks = DocxBreaks.of(paragraph, renderedBreaks);
+                    if (breaks.before() && builder.text().length() > 0) {
+                        builder.startPage("Page " + (++pageNumber));
+                    }
+                    builder.appendParagraph(paragraph.getText());
+                    if (breaks.after()) {
+                        builder.startPage("Page " + (++pageNumber));
+                    }
+                } else if (element instanceof XWPFTable table) {
+                    for (XWPFTableRow row : table.getRows()) {
+                        StringBuilder rowText = new StringBuilder();
+                        for (XWPFTableCell cell : row.getTableCells()) {
+                            rowText.append(cell.getText()).append("\t");
+                        }
+                        builder.appendParagraph(rowText);
+                    }
+                }
+            }
+
+            ExtractedContent content = builder.build();
+            log.info("✅ DOCX extrait: {} caractères", content.getText().length());
+            return content;
         } catch (Exception e) {
+            InterruptedIOException interrupted = asInterruption(e);
+            if (interrupted != null) {
+                throw interrupted;
+            }
             log.error("❌ Erreur lors de l'extraction DOCX", e);
             throw new IOException("Erreur extraction DOCX: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Sauts de page d'un paragraphe DOCX: avant son texte (il commence une page) ou après (la suivante en commence une)
+     */
+    private record DocxBreaks(boolean before, boolean after) {
+
+        static DocxBreaks of(XWPFParagraph paragraph, boolean renderedBreaks) {
+            boolean before = !renderedBreaks && paragraph.isPageBreak();
+            boolean after = false;
+            boolean seenText = false;
+
+            for (XWPFRun run : paragraph.getRuns()) {
+                boolean pageBreak = renderedBreaks
+                        ? !run.getCTR().getLastRenderedPageBreakList().isEmpty()
+                        : run.getCTR().getBrList().stream().anyMatch(br -> br.getType() == STBrType.PAGE);
+                String runText = run.text();
+
+                if (pageBreak) {
+                    if (seenText) {
+                        after = !renderedBreaks;
+                    } else {
+                        before = true;
+                    }
+                }
+                if (runText != null && !runText.isBlank()) {
+                    seenText = true;
+                    after = false;
+                }
+            }
+            return new DocxBreaks(before, after);
+        }
+    }
+
     /**
      * Extraire le contenu d'un fichier DOC (ancien format)
+     * Le format binaire n'expose pas la pagination: une seule page, un paragraphe par paragraphe Word
      */
-    private String extractDocContent(Path filePath) throws IOException {
+    private ExtractedContent extractDocContent(Path filePath) throws IOException {
         log.info("📄 Extraction DOC");
 
         try (InputStream inputStream = Files.newInputStream(filePath);
              HWPFDocument document = new HWPFDocument(inputStream);
              WordExtractor extractor = new WordExtractor(document)) {
 
-            String text = extractor.getText();
+            ExtractedContent.Builder builder = new ExtractedContent.Builder();
+            builder.startPage(null);
+            for (String paragraph : extractor.getParagraphText()) {
+                builder.appendParagraph(WordExtractor.stripFields(paragraph).stripTrailing());
+            }
 
-            log.info("✅ DOC extrait: {} caractères", text.length());
-            return text;
+            ExtractedContent content = builder.build();
+            log.info("✅ DOC extrait: {} caractères", content.getText().length());
+            return content;
         } catch (Exception e) {
+            InterruptedIOException interrupted = asInterruption(e);
+            if (interrupted != null) {
+                throw interrupted;
+            }
             log.error("❌ Erreur lors de l'extraction DOC", e);
             throw new IOException("Erreur extraction DOC: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Extraire le contenu d'un fichier Excel (XLSX ou XLS)
+     * Extraire le contenu d'un fichier Excel (XLSX ou XLS) en flux
      */
-    private String extractExcelContent(Path filePath) throws IOException {
-        log.info("📄 Extraction Excel");
-
-        StringBuilder content = new StringBuilder();
-
-        try (InputStream inputStream = Files.newInputStream(filePath);
-             Workbook workbook = WorkbookFactory.create(inputStream)) {
+    private ExtractedContent extractExcelContent(Path filePath) throws IOException {
+        log.info("📄 Extraction Excel (streaming)");
 
-            int totalRows = 0;
-
-            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                Sheet sheet = workbook.getSheetAt(i);
-                content.append("\n=== Feuille: ").append(sheet.getSheetName()).append(" ===\n\n");
-
-                for (Row row : sheet) {
-                    totalRows++;
-                    boolean hasContent = false;
-
-                    for (Cell cell : row) {
-                        String cellValue = getCellValueAsString(cell);
-                        if (!cellValue.isEmpty()) {
-                            content.append(cellValue).append("\t");
-                            hasContent = true;
-                        }
-                    }
-
-                    if (hasContent) {
-                        content.append("\n");
-                    }
-                }
-                content.append("\n");
-            }
+        try {
+            ExcelStreamingExtractor.TextRowSink sink = new ExcelStreamingExtractor.TextRowSink();
+            excelExtractor.stream(filePath, sink);
 
+            ExtractedContent content = sink.getContent();
             log.info("✅ Excel extrait: {} feuilles, {} lignes, {} caractères",
-                    workbook.getNumberOfSheets(), totalRows, content.length());
+                    sink.getSheetCount(), sink.getTotalRows(), content.getText().length());
 
-            return content.toString();
+            return content;
 
         } catch (Exception e) {
+            InterruptedIOException interrupted = asInterruption(e);
+            if (interrupted != null) {
+                throw interrupted;
+            }
             log.error("❌ Erreur lors de l'extraction Excel", e);
             throw new IOException("Erreur extraction Excel: " + e.getMessage(), e);
         }
     }
 
     /**
-     * Obtenir la valeur d'une cellule Excel en tant que String
+     * Interruption (délai dépassé, annulation) à l'origine d'un échec, même enveloppée par POI ou PDFBox
+     * Elle doit rester une InterruptedIOException: sinon le document serait classé comme fichier corrompu
+     * @return null si l'échec ne vient pas d'une interruption
      */
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-
-        try {
-            switch (cell.getCellType()) {
-                case STRING:
-                    return cell.getStringCellValue().trim();
-
-                case NUMERIC:
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        return cell.getDateCellValue().toString();
-                    }
-                    // Formater les nombres pour éviter la notation scientifique
-                    double numValue = cell.getNumericCellValue();
-                    if (numValue == (long) numValue) {
-                        return String.format("%d", (long) numValue);
-                    }
-                    return String.format("%.2f", numValue);
-
-                case BOOLEAN:
-                    return String.valueOf(cell.getBooleanCellValue());
-
-                case FORMULA:
-                    try {
-                        return String.valueOf(cell.getNumericCellValue());
-                    } catch (Exception e) {
-                        return cell.getCellFormula();
-                    }
-
-                case BLANK:
-                    return "";
-
-                default:
-                    return "";
+    private static InterruptedIOException asInterruption(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedIOException interrupted) {
+                return interrupted;
+            }
+            if (cause instanceof ClosedByInterruptException closed) {
+                InterruptedIOException interrupted = new InterruptedIOException("Extraction annulée (lecture interrompue)");
+                interrupted.initCause(closed);
+                return interrupted;
             }
-        } catch (Exception e) {
-            log.warn("⚠️ Erreur lors de la lecture d'une cellule: {}", e.getMessage());
-            return "";
         }
+        return null;
     }
 
     /**
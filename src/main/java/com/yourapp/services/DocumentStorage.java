@@ -0,0 +1,444 @@
+package com.yourapp.services;
+
+import com.yourapp.utils.ContentHash;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.DosFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stockage des documents par contenu (blobs indexés par SHA-256)
+ * Un même fichier uploadé dans plusieurs audits n'est stocké qu'une fois: uploads/blobs/ab/cd/abcd...
+ * Les octets transitent par un unique tampon hors tas: l'empreinte et le type de contenu sont
+ * déterminés pendant la copie, sans jamais charger le fichier entier en mémoire
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentStorage {
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final String COMPRESSED_SUFFIX = ".gz";
+    private static final int SNIFF_BYTES = 8;
+
+    private static final byte[] PDF_MAGIC = {'%', 'P', 'D', 'F'};
+    private static final byte[] ZIP_MAGIC = {'P', 'K', 3, 4};
+    private static final byte[] OLE2_MAGIC = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0,
+            (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+
+    private final ExtractedTextCache textCache;
+
+    private final Path blobRoot = Paths.get("uploads/blobs/");
+    private final Path incomingDir = Paths.get("uploads/blobs/incoming/");
+    private final Path readableDir = Paths.get("temp/blobs/");
+    private final Path viewDir = Paths.get("temp/view/");
+
+    // Verrous répartis par empreinte: écriture et collecte d'un même blob ne se croisent pas
+    private final Object[] blobLocks = createLocks(64);
+
+    // Empreintes uploadées dont la transaction n'est pas encore terminée: jamais collectées
+    private final Map<String, Integer> pinnedHashes = new ConcurrentHashMap<>();
+
+    @Value("${app.storage.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    // Formats déjà compressés (pdf, docx, xlsx) exclus: le gain serait nul
+    @Value("${app.storage.compression.extensions:.txt,.doc,.xls}")
+    private String compressedExtensions;
+
+    /**
+     * Blob stocké, empreinte et type détecté de son contenu
+     */
+    public record StoredFile(Path path, String contentHash, long size, String mimeType, boolean deduplicated) {}
+
+    /**
+     * Stocker un fichier local (chemin desktop), sans passer par un MultipartFile
+     * Toujours copié: un blob ne partage jamais ses octets avec le fichier source, que l'utilisateur peut modifier
+     */
+    public StoredFile storeLocal(Path source, String originalName) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            return store(in, originalName);
+        }
+    }
+
+    /**
+     * Stocker un flux (upload multipart)
+     */
+    public StoredFile store(InputStream input, String originalName) throws IOException {
+        try (ReadableByteChannel in = Channels.newChannel(input)) {
+            return store(in, originalName);
+        }
+    }
+
+    private StoredFile store(ReadableByteChannel in, String originalName) throws IOException {
+        Files.createDirectories(incomingDir);
+        Path incoming = incomingDir.resolve(UUID.randomUUID() + ".part");
+
+        String hash;
+        long size;
+        byte[] head = new byte[SNIFF_BYTES];
+        try {
+            MessageDigest digest = ContentHash.newDigest();
+            size = copyAndDigest(in, incoming, digest, head);
+            hash = ContentHash.toHex(digest);
+        } catch (IOException e) {
+            Files.deleteIfExists(incoming);
+            throw e;
+        }
+
+        String mimeType = sniffMimeType(head, (int) Math.min(size, SNIFF_BYTES), originalName);
+        return commit(incoming, hash, size, mimeType, originalName);
+    }
+
+    /**
+     * Référencer un contenu déjà stocké (ré-audit d'un document existant): aucune copie ni recalcul d'empreinte
+     * Le blob est épinglé comme pour un upload, jusqu'à la fin de la transaction qui l'enregistre
+     */
+    public StoredFile reference(String contentHash, String originalName) throws IOException {
+        pin(contentHash);
+        try {
+            synchronized (lockFor(contentHash)) {
+                Path existing = findBlob(contentHash);
+                if (existing == null) {
+                    throw new NoSuchFileException("Blob introuvable pour " + originalName + ": " + contentHash);
+                }
+                Path readable = readablePath(existing);
+                return remember(new StoredFile(existing, contentHash, Files.size(readable),
+                        detectMimeType(readable, originalName), true));
+            }
+        } catch (IOException | RuntimeException e) {
+            unpin(contentHash);
+            throw e;
+        }
+    }
+
+    /**
+     * Déplacer le fichier reçu vers son blob, ou le supprimer si ce contenu est déjà stocké
+     */
+    private StoredFile commit(Path incoming, String hash, long size, String mimeType,
+                              String originalName) throws IOException {
+        pin(hash);
+        try {
+            return commitPinned(incoming, hash, size, mimeType, originalName);
+        } catch (IOException | RuntimeException e) {
+            unpin(hash);
+            Files.deleteIfExists(incoming);
+            throw e;
+        }
+    }
+
+    private StoredFile commitPinned(Path incoming, String hash, long size, String mimeType,
+                                    String originalName) throws IOException {
+        synchronized (lockFor(hash)) {
+            Path existing = findBlob(hash);
+            if (existing != null) {
+                Files.deleteIfExists(incoming);
+                log.info("♻️ Contenu déjà stocké, blob réutilisé: {}", hash);
+                return remember(new StoredFile(existing, hash, size, mimeType, true));
+            }
+
+            boolean compress = shouldCompress(originalName);
+            Path blob = blobPath(hash, compress);
+            Files.createDirectories(blob.getParent());
+
+            if (compress) {
+                Path compressed = incoming.resolveSibling(incoming.getFileName() + COMPRESSED_SUFFIX);
+                try (InputStream in = Files.newInputStream(incoming);
+                     OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed), BUFFER_SIZE)) {
+                    in.transferTo(out);
+                }
+                Files.delete(incoming);
+                Files.move(compressed, blob, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.move(incoming, blob, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            log.debug("💾 Nouveau blob {} ({} octets{})", hash, size, compress ? ", compressé" : "");
+            return remember(new StoredFile(blob, hash, size, mimeType, false));
+        }
+    }
+
+    /**
+     * Chemin lisible par les extracteurs et le téléchargement (décompressé à la demande)
+     */
+    public Path readablePath(Path storedPath) throws IOException {
+        String name = storedPath.getFileName().toString();
+        if (!name.endsWith(COMPRESSED_SUFFIX)) {
+            return storedPath;
+        }
+
+        Path readable = readableDir.resolve(name.substring(0, name.length() - COMPRESSED_SUFFIX.length()));
+        if (Files.exists(readable)) {
+            return readable;
+        }
+
+        Files.createDirectories(readableDir);
+        Path temp = Files.createTempFile(readableDir, "blob", ".part");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(storedPath), BUFFER_SIZE)) {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, readable, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        // Le nom du fichier décompressé est l'empreinte de son contenu
+        textCache.rememberHash(readable, readable.getFileName().toString());
+        return readable;
+    }
+
+    /**
+     * Copie en lecture seule portant le nom d'origine, pour l'ouvrir avec l'application du système
+     * Toujours une vraie copie: une application qui enregistre sur place ne doit jamais modifier le blob partagé
+     */
+    public Path viewableCopy(Path storedPath, String originalName) throws IOException {
+        Path readable = readablePath(storedPath);
+        Path view = viewDir.resolve(readable.getFileName().toString()).resolve(Paths.get(originalName).getFileName());
+        if (Files.exists(view) && isReadOnly(view)) {
+            return view;
+        }
+
+        Files.createDirectories(view.getParent());
+        Path temp = Files.createTempFile(view.getParent(), "view", ".part");
+        try {
+            Files.copy(readable, temp, StandardCopyOption.REPLACE_EXISTING);
+            temp.toFile().setReadOnly();
+            if (Files.exists(view)) {
+                // Copie antérieure modifiable (ancien lien physique ou copie éditée): remplacée
+                view.toFile().setWritable(true);
+            }
+            Files.move(temp, view, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return view;
+    }
+
+    /**
+     * Empêcher la collecte d'un blob tant que l'upload qui le référence n'est pas validé
+     */
+    public void pin(String hash) {
+        pinnedHashes.merge(hash, 1, Integer::sum);
+    }
+
+    public void unpin(String hash) {
+        pinnedHashes.computeIfPresent(hash, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Supprimer un blob qui n'est plus référencé par aucun document
+     * @param unreferenced vérifie (en base) qu'aucun AuditDocument ne pointe plus vers ce contenu
+     */
+    public boolean collectIfUnreferenced(String hash, BooleanSupplier unreferenced) {
+        synchronized (lockFor(hash)) {
+            if (pinnedHashes.containsKey(hash) || !unreferenced.getAsBoolean()) {
+                return false;
+            }
+
+            try {
+                Files.deleteIfExists(blobPath(hash, false));
+                Files.deleteIfExists(blobPath(hash, true));
+                Files.deleteIfExists(readableDir.resolve(hash));
+                deleteViewCopies(hash);
+                textCache.evict(hash);
+                log.info("🧹 Blob orphelin supprimé: {}", hash);
+                return true;
+            } catch (IOException e) {
+                log.warn("⚠️ Suppression du blob {} impossible", hash, e);
+                return false;
+            }
+        }
+    }
+
+    private void deleteViewCopies(String hash) throws IOException {
+        Path copies = viewDir.resolve(hash);
+        if (!Files.isDirectory(copies)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(copies)) {
+            for (Path file : files.toList()) {
+                // Copies en lecture seule: supprimables sous Windows seulement une fois rendues modifiables
+                file.toFile().setWritable(true);
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(copies);
+    }
+
+    /**
+     * Attribut lecture seule du fichier lui-même (Files.isWritable répond selon les droits du processus)
+     */
+    private static boolean isReadOnly(Path file) throws IOException {
+        DosFileAttributeView dos = Files.getFileAttributeView(file, DosFileAttributeView.class);
+        if (dos != null) {
+            return dos.readAttributes().isReadOnly();
+        }
+        PosixFileAttributeView posix = Files.getFileAttributeView(file, PosixFileAttributeView.class);
+        return posix != null && !posix.readAttributes().permissions().contains(PosixFilePermission.OWNER_WRITE);
+    }
+
+    private Path blobPath(String hash, boolean compressed) {
+        return blobRoot.resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(compressed ? hash + COMPRESSED_SUFFIX : hash);
+    }
+
+    private Path findBlob(String hash) {
+        Path plain = blobPath(hash, false);
+        if (Files.exists(plain)) {
+            return plain;
+        }
+        Path compressed = blobPath(hash, true);
+        return Files.exists(compressed) ? compressed : null;
+    }
+
+    private Object lockFor(String hash) {
+        return blobLocks[Math.floorMod(hash.hashCode(), blobLocks.length)];
+    }
+
+    private static Object[] createLocks(int count) {
+        Object[] locks = new Object[count];
+        Arrays.setAll(locks, i -> new Object());
+        return locks;
+    }
+
+    private boolean shouldCompress(String originalName) {
+        if (!compressionEnabled || originalName == null) {
+            return false;
+        }
+        String lowerName = originalName.toLowerCase(Locale.ROOT);
+        Set<String> extensions = Arrays.stream(compressedExtensions.split(","))
+                .map(String::trim)
+                .filter(extension -> !extension.isEmpty())
+                .collect(Collectors.toSet());
+        return extensions.stream().anyMatch(lowerName::endsWith);
+    }
+
+    /**
+     * L'empreinte calculée à la copie évite une relecture complète lors de la première extraction
+     */
+    private StoredFile remember(StoredFile stored) throws IOException {
+        if (!stored.path().getFileName().toString().endsWith(COMPRESSED_SUFFIX)) {
+            textCache.rememberHash(stored.path(), stored.contentHash());
+        }
+        return stored;
+    }
+
+    /**
+     * Copier en un seul passage: chaque bloc lu alimente l'empreinte puis est écrit dans la cible
+     * Les premiers octets sont conservés dans head pour détecter le type de contenu
+     */
+    private long copyAndDigest(ReadableByteChannel in, Path target, MessageDigest digest, byte[] head) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long size = 0;
+
+        try (FileChannel out = FileChannel.open(target,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                if (size < head.length) {
+                    buffer.duplicate().get(head, (int) size, (int) Math.min(head.length - size, buffer.remaining()));
+                }
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    size += out.write(buffer);
+                }
+                buffer.clear();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Type MIME d'un fichier d'après ses premiers octets
+     */
+    public String detectMimeType(Path source, String originalName) throws IOException {
+        byte[] head = new byte[SNIFF_BYTES];
+        int length;
+        try (InputStream in = Files.newInputStream(source)) {
+            length = in.readNBytes(head, 0, head.length);
+        }
+        return sniffMimeType(head, length, originalName);
+    }
+
+    /**
+     * Type MIME d'après la signature du contenu; l'extension ne départage que les formats d'un même conteneur
+     */
+    private static String sniffMimeType(byte[] head, int length, String originalName) {
+        String lowerName = originalName != null ? originalName.toLowerCase(Locale.ROOT) : "";
+        String mimeType;
+
+        if (startsWith(head, length, PDF_MAGIC)) {
+            mimeType = "application/pdf";
+        } else if (startsWith(head, length, ZIP_MAGIC)) {
+            mimeType = lowerName.endsWith(".docx") ? "application/vnd.openxmlformats-officedocument.wordprocessingml.document"
+                    : lowerName.endsWith(".xlsx") ? "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"
+                    : "application/zip";
+        } else if (startsWith(head, length, OLE2_MAGIC)) {
+            mimeType = lowerName.endsWith(".doc") ? "application/msword"
+                    : lowerName.endsWith(".xls") ? "application/vnd.ms-excel"
+                    : "application/x-ole-storage";
+        } else if (isText(head, length)) {
+            mimeType = "text/plain";
+        } else {
+            mimeType = "application/octet-stream";
+        }
+
+        if (!matchesExtension(mimeType, lowerName)) {
+            log.warn("⚠️ Le contenu de {} ne correspond pas à son extension (détecté: {})", originalName, mimeType);
+        }
+        return mimeType;
+    }
+
+    private static boolean matchesExtension(String mimeType, String lowerName) {
+        if (lowerName.endsWith(".pdf")) return mimeType.equals("application/pdf");
+        if (lowerName.endsWith(".docx") || lowerName.endsWith(".xlsx")) return mimeType.startsWith("application/vnd.openxmlformats");
+        if (lowerName.endsWith(".doc")) return mimeType.equals("application/msword");
+        if (lowerName.endsWith(".xls")) return mimeType.equals("application/vnd.ms-excel");
+        if (lowerName.endsWith(".txt")) return mimeType.equals("text/plain");
+        return true;
+    }
+
+    private static boolean startsWith(byte[] head, int length, byte[] magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (head[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isText(byte[] head, int length) {
+        for (int i = 0; i < length; i++) {
+            if (head[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,234 @@
+package com.yourapp.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Upload de plusieurs documents en pipeline
+ * Les fichiers sont copiés (empreinte et type détectés au passage) en parallèle par un pool borné,
+ * puis enregistrés par lots: une transaction par lot au lieu d'un aller-retour base par fichier.
+ * Au plus app.upload.max-files fichiers sont en cours entre le début de leur copie et leur enregistrement:
+ * au-delà, les copies suivantes attendent que le lot en cours soit enregistré
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentUploadPipeline {
+
+    private final DocumentStorage documentStorage;
+
+    @Value("${app.upload.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.upload.max-files:10}")
+    private int maxFilesInFlight;
+
+    @Value("${app.upload.batch-size:20}")
+    private int batchSize;
+
+    private ExecutorService workers;
+
+    /**
+     * Étape de stockage d'un fichier (fichier local, flux multipart...)
+     */
+    @FunctionalInterface
+    public interface StoreStep {
+        DocumentStorage.StoredFile store(DocumentStorage storage) throws IOException;
+    }
+
+    /**
+     * Enregistrement d'un lot de fichiers stockés, dans l'ordre du lot
+     */
+    @FunctionalInterface
+    public interface Registrar<T> {
+        List<T> register(List<Stored> batch);
+    }
+
+    public record Source(String fileName, StoreStep storeStep) {
+
+        public static Source local(Path path) {
+            String fileName = path.getFileName().toString();
+            return new Source(fileName, storage -> storage.storeLocal(path, fileName));
+        }
+    }
+
+    public record Stored(String fileName, DocumentStorage.StoredFile file) {}
+
+    public enum Status { STORED, DEDUPLICATED, REGISTERED, FAILED }
+
+    /**
+     * Avancement d'un fichier; completed compte les fichiers terminés (enregistrés ou en échec)
+     */
+    public record Progress(String fileName, Status status, int completed, int total, String error) {}
+
+    private record Outcome(int index, String fileName, DocumentStorage.StoredFile file, Exception failure) {}
+
+    @PostConstruct
+    void initWorkers() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "upload-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("🧵 Pipeline d'upload initialisé: {} threads, {} fichiers en cours max, lots de {}",
+                parallelism, maxFilesInFlight, batchSize);
+    }
+
+    @PreDestroy
+    void shutdownWorkers() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Stocker et enregistrer les fichiers; un fichier en échec n'interrompt pas les autres
+     * @return les documents enregistrés, dans l'ordre des sources
+     */
+    public <T> List<T> upload(List<Source> sources, Registrar<T> registrar, Consumer<Progress> listener) {
+        int total = sources.size();
+        int window = Math.max(1, maxFilesInFlight);
+        int batchLimit = Math.max(1, Math.min(batchSize, window));
+
+        CompletionService<Outcome> completion = new ExecutorCompletionService<>(workers);
+        AtomicBoolean aborted = new AtomicBoolean();
+        Object[] results = new Object[total];
+        List<Outcome> batch = new ArrayList<>();
+        int[] completed = {0};
+        int submitted = 0;
+        int received = 0;
+        int inFlight = 0;
+
+        try {
+            while (received < total) {
+                // Contre-pression: pas de nouvelle copie tant que la fenêtre est pleine
+                while (submitted < total && inFlight < window) {
+                    int index = submitted++;
+                    Source source = sources.get(index);
+                    completion.submit(() -> storeOne(index, source, aborted));
+                    inFlight++;
+                }
+
+                Outcome outcome = completion.take().get();
+                received++;
+
+                if (outcome.failure() != null) {
+                    inFlight--;
+                    log.error("❌ Échec du stockage de {}", outcome.fileName(), outcome.failure());
+                    notify(listener, new Progress(outcome.fileName(), Status.FAILED, ++completed[0], total,
+                            outcome.failure().getMessage()));
+                } else {
+                    batch.add(outcome);
+                    Status status = outcome.file().deduplicated() ? Status.DEDUPLICATED : Status.STORED;
+                    notify(listener, new Progress(outcome.fileName(), status, completed[0], total, null));
+                }
+
+                if (batch.size() >= batchLimit || (received == total && !batch.isEmpty())) {
+                    inFlight -= batch.size();
+                    registerBatch(new ArrayList<>(batch), registrar, results, completed, total, listener);
+                    batch.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            aborted.set(true);
+            batch.forEach(outcome -> documentStorage.unpin(outcome.file().contentHash()));
+            releaseOutstanding(completion, submitted - received);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Upload interrompu", e);
+        } catch (ExecutionException e) {
+            // storeOne capture ses propres erreurs: une exception ici est un bug
+            aborted.set(true);
+            throw new RuntimeException("Erreur inattendue du pipeline d'upload", e.getCause());
+        }
+
+        log.info("✅ Upload terminé: {}/{} documents enregistrés",
+                Arrays.stream(results).filter(Objects::nonNull).count(), total);
+
+        @SuppressWarnings("unchecked")
+        List<T> registered = (List<T>) Arrays.stream(results).filter(Objects::nonNull).toList();
+        return registered;
+    }
+
+    private Outcome storeOne(int index, Source source, AtomicBoolean aborted) {
+        if (aborted.get()) {
+            return new Outcome(index, source.fileName(), null, new IOException("upload annulé"));
+        }
+        try {
+            DocumentStorage.StoredFile stored = source.storeStep().store(documentStorage);
+            return new Outcome(index, source.fileName(), stored, null);
+        } catch (Exception e) {
+            return new Outcome(index, source.fileName(), null, e);
+        }
+    }
+
+    private <T> void registerBatch(List<Outcome> batch, Registrar<T> registrar, Object[] results,
+                                   int[] completed, int total, Consumer<Progress> listener) {
+        List<Stored> stored = batch.stream()
+                .map(outcome -> new Stored(outcome.fileName(), outcome.file()))
+                .toList();
+
+        try {
+            List<T> registered = registrar.register(stored);
+            for (int i = 0; i < batch.size(); i++) {
+                results[batch.get(i).index()] = registered.get(i);
+                notify(listener, new Progress(batch.get(i).fileName(), Status.REGISTERED, ++completed[0], total, null));
+            }
+            log.info("📦 Lot de {} documents enregistré", batch.size());
+        } catch (RuntimeException e) {
+            log.error("❌ Échec de l'enregistrement d'un lot de {} documents", batch.size(), e);
+            for (Outcome outcome : batch) {
+                notify(listener, new Progress(outcome.fileName(), Status.FAILED, ++completed[0], total, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Attendre les copies encore en cours après une annulation et libérer leurs blobs
+     */
+    private void releaseOutstanding(CompletionService<Outcome> completion, int outstanding) {
+        boolean interrupted = false;
+        while (outstanding > 0) {
+            try {
+                Outcome outcome = completion.take().get();
+                if (outcome.file() != null) {
+                    documentStorage.unpin(outcome.file().contentHash());
+                }
+                outstanding--;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                outstanding--;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void notify(Consumer<Progress> listener, Progress progress) {
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.accept(progress);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Erreur du suivi d'upload pour {}", progress.fileName(), e);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+package com.yourapp.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.*;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Extraction en flux des classeurs Excel (XLSX via SAX, XLS via l'API événementielle HSSF)
+ * La mémoire utilisée ne dépend pas de la taille du classeur: les lignes sont émises vers un RowSink
+ */
+@Service
+@Slf4j
+public class ExcelStreamingExtractor {
+
+    @Value("${app.extraction.excel.max-rows-per-sheet:50000}")
+    private int maxRowsPerSheet;
+
+    @Value("${app.extraction.excel.max-columns:100}")
+    private int maxColumns;
+
+    /**
+     * Destinataire des lignes lues dans le classeur
+     */
+    public interface RowSink {
+
+        void startSheet(String sheetName);
+
+        /**
+         * @param rowIndex index de la ligne (base 0)
+         * @param cells    valeurs formatées, une entrée par colonne jusqu'à la dernière non vide
+         */
+        void row(int rowIndex, List<String> cells);
+
+        void endSheet(String sheetName, int rowCount, boolean truncated);
+    }
+
+    /**
+     * Lire un classeur et émettre ses lignes vers le sink
+     * Le format est détecté à partir de la signature du fichier, pas de l'extension
+     */
+    public void stream(Path filePath, RowSink sink) throws IOException {
+        FileMagic magic;
+        try (InputStream in = FileMagic.prepareToCheckMagic(new BufferedInputStream(Files.newInputStream(filePath)))) {
+            magic = FileMagic.valueOf(in);
+        }
+
+        switch (magic) {
+            case OOXML -> streamXlsx(filePath, sink);
+            case OLE2 -> streamXls(filePath, sink);
+            default -> throw new IOException("Format Excel non reconnu: " + magic);
+        }
+    }
+
+    // =============================
+    // XLSX (SAX)
+    // =============================
+    private void streamXlsx(Path filePath, RowSink sink) throws IOException {
+        try (OPCPackage pkg = OPCPackage.open(filePath.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            DataFormatter formatter = new DataFormatter();
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheetStream = sheets.next()) {
+                    String sheetName = sheets.getSheetName();
+                    XlsxSheetHandler handler = new XlsxSheetHandler(sink);
+
+                    sink.startSheet(sheetName);
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    // formulasNotResults = false: on lit le résultat en cache des formules
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, null, strings, handler, formatter, false));
+                    try {
+                        parser.parse(new InputSource(sheetStream));
+                    } catch (SheetLimitReached e) {
+                        log.debug("Limite de {} lignes atteinte sur la feuille {}", maxRowsPerSheet, sheetName);
+                    }
+                    sink.endSheet(sheetName, handler.rowCount, handler.truncated);
+                }
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Lecture XLSX impossible: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Arrêt anticipé du parsing SAX d'une feuille une fois la limite de lignes atteinte
+     */
+    private static class SheetLimitReached extends RuntimeException {
+        SheetLimitReached() {
+            super("Limite de lignes atteinte", null, false, false);
+        }
+    }
+
+    private class XlsxSheetHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final RowSink sink;
+        private final List<String> cells = new ArrayList<>();
+        private int rowCount;
+        private boolean truncated;
+
+        XlsxSheetHandler(RowSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            checkCancelled();
+            if (rowCount >= maxRowsPerSheet) {
+                truncated = true;
+                throw new SheetLimitReached();
+            }
+            cells.clear();
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            rowCount++;
+            sink.row(rowNum, cells);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            if (column >= maxColumns) {
+                return;
+            }
+            putCell(cells, column, formattedValue);
+        }
+    }
+
+    // =============================
+    // XLS (HSSF événementiel)
+    // =============================
+    private void streamXls(Path filePath, RowSink sink) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(filePath.toFile(), true)) {
+            XlsListener listener = new XlsListener(sink);
+            FormatTrackingHSSFListener formatListener = new FormatTrackingHSSFListener(listener);
+            listener.formatListener = formatListener;
+
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(formatListener);
+
+            new HSSFEventFactory().processWorkbookEvents(request, fs);
+            listener.finishSheet();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Lecture XLS impossible: " + e.getMessage(), e);
+        }
+    }
+
+    private class XlsListener implements HSSFListener {
+
+        private final RowSink sink;
+        private final List<String> sheetNames = new ArrayList<>();
+        private final List<String> cells = new ArrayList<>();
+        private FormatTrackingHSSFListener formatListener;
+        private SSTRecord sst;
+
+        private int sheetIndex = -1;
+        private boolean inSheet;
+        // Profondeur des flux BOF/EOF: 1 = classeur ou feuille, au-delà = flux incorporé (graphique d'une feuille)
+        private int substreamDepth;
+        private int currentRow = -1;
+        private int rowCount;
+        private boolean truncated;
+
+        // Une formule texte voit son résultat en cache dans le StringRecord qui suit
+        private int pendingStringRow = -1;
+        private int pendingStringColumn = -1;
+
+        XlsListener(RowSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRecord(org.apache.poi.hssf.record.Record record) {
+            switch (record.getSid()) {
+                case BoundSheetRecord.sid -> sheetNames.add(((BoundSheetRecord) record).getSheetname());
+                case SSTRecord.sid -> sst = (SSTRecord) record;
+                case BOFRecord.sid -> startSubstream((BOFRecord) record);
+                case EOFRecord.sid -> endSubstream();
+                case LabelSSTRecord.sid -> {
+                    LabelSSTRecord label = (LabelSSTRecord) record;
+                    String value = sst != null ? sst.getString(label.getSSTIndex()).getString() : "";
+                    addCell(label.getRow(), label.getColumn(), value);
+                }
+                case LabelRecord.sid -> {
+                    LabelRecord label = (LabelRecord) record;
+                    addCell(label.getRow(), label.getColumn(), label.getValue());
+                }
+                case NumberRecord.sid -> {
+                    NumberRecord number = (NumberRecord) record;
+                    addCell(number.getRow(), number.getColumn(), formatListener.formatNumberDateCell(number));
+                }
+                case BoolErrRecord.sid -> {
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    if (boolErr.isBoolean()) {
+                        addCell(boolErr.getRow(), boolErr.getColumn(), String.valueOf(boolErr.getBooleanValue()));
+                    }
+                }
+                case FormulaRecord.sid -> {
+                    FormulaRecord formula = (FormulaRecord) record;
+                    if (formula.hasCachedResultString()) {
+                        pendingStringRow = formula.getRow();
+                        pendingStringColumn = formula.getColumn();
+                    } else if (formula.getCachedResultTypeEnum() == CellType.BOOLEAN) {
+                        addCell(formula.getRow(), formula.getColumn(), String.valueOf(formula.getCachedBooleanValue()));
+                    } else if (formula.getCachedResultTypeEnum() == CellType.NUMERIC) {
+                        addCell(formula.getRow(), formula.getColumn(), formatListener.formatNumberDateCell(formula));
+                    }
+                }
+                case StringRecord.sid -> {
+                    if (pendingStringRow >= 0) {
+                        addCell(pendingStringRow, pendingStringColumn, ((StringRecord) record).getString());
+                        pendingStringRow = -1;
+                    }
+                }
+                default -> {
+                    // Enregistrements non textuels ignorés
+                }
+            }
+        }
+
+        /**
+         * Début d'un flux: seul un flux de premier niveau peut commencer une feuille
+         * Chaque flux de premier niveau hors classeur (feuille de calcul, feuille graphique, macros)
+         * correspond à une BoundSheetRecord, dans le même ordre
+         */
+        private void startSubstream(BOFRecord bof) {
+            substreamDepth++;
+            if (substreamDepth > 1 || bof.getType() == BOFRecord.TYPE_WORKBOOK) {
+                return;
+            }
+            sheetIndex++;
+            if (bof.getType() == BOFRecord.TYPE_WORKSHEET) {
+                inSheet = true;
+                currentRow = -1;
+                rowCount = 0;
+                truncated = false;
+                sink.startSheet(sheetName());
+            }
+        }
+
+        /**
+         * Fin d'un flux: l'EOF d'un graphique incorporé ne termine pas la feuille qui le contient
+         */
+        private void endSubstream() {
+            if (substreamDepth == 1) {
+                finishSheet();
+            }
+            substreamDepth = Math.max(0, substreamDepth - 1);
+        }
+
+        private String sheetName() {
+            return sheetIndex < sheetNames.size() ? sheetNames.get(sheetIndex) : "Feuille " + (sheetIndex + 1);
+        }
+
+        private void addCell(int row, int column, String value) {
+            if (!inSheet || substreamDepth != 1 || column >= maxColumns) {
+                return;
+            }
+            if (row != currentRow) {
+                checkCancelled();
+                flushRow();
+                if (rowCount >= maxRowsPerSheet) {
+                    truncated = true;
+                    return;
+                }
+                currentRow = row;
+            }
+            putCell(cells, column, value);
+        }
+
+        private void flushRow() {
+            if (currentRow >= 0) {
+                rowCount++;
+                sink.row(currentRow, cells);
+                cells.clear();
+                currentRow = -1;
+            }
+        }
+
+        private void finishSheet() {
+            if (!inSheet) {
+                return;
+            }
+            flushRow();
+            inSheet = false;
+            sink.endSheet(sheetName(), rowCount, truncated);
+        }
+    }
+
+    /**
+     * Arrêt coopératif quand le thread d'extraction est interrompu (dépassement du délai)
+     */
+    private static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new UncheckedIOException(new InterruptedIOException("Extraction Excel annulée"));
+        }
+    }
+
+    /**
+     * Placer une valeur à sa colonne en complétant les trous par des chaînes vides
+     */
+    private static void putCell(List<String> cells, int column, String value) {
+        while (cells.size() < column) {
+            cells.add("");
+        }
+        String cleaned = value != null ? value.trim() : "";
+        if (cells.size() == column) {
+            cells.add(cleaned);
+        } else {
+            cells.set(column, cleaned);
+        }
+    }
+
+    /**
+     * Sink produisant le texte envoyé à l'IA (une ligne par rangée, cellules séparées par des tabulations)
+     * Chaque feuille est indexée comme une page et chaque rangée non vide comme un paragraphe
+     */
+    public static class TextRowSink implements RowSink {
+
+        private final ExtractedContent.Builder content = new ExtractedContent.Builder();
+        private int sheetCount;
+        private int totalRows;
+
+        @Override
+        public void startSheet(String sheetName) {
+            sheetCount++;
+            content.startPage("Feuille: " + sheetName);
+            content.append("\n=== Feuille: ").append(sheetName).append(" ===\n\n");
+        }
+
+        @Override
+        public void row(int rowIndex, List<String> cells) {
+            totalRows++;
+            content.startParagraph();
+            boolean hasContent = false;
+            for (String cell : cells) {
+                if (!cell.isEmpty()) {
+                    content.append(cell).append("\t");
+                    hasContent = true;
+                }
+            }
+            content.endParagraph();
+            if (hasContent) {
+                content.append("\n");
+            }
+        }
+
+        @Override
+        public void endSheet(String sheetName, int rowCount, boolean truncated) {
+            if (truncated) {
+                content.append("[... feuille tronquée après " + rowCount + " lignes ...]\n");
+            }
+            content.append("\n");
+        }
+
+        public int getSheetCount() { return sheetCount; }
+
+        public int getTotalRows() { return totalRows; }
+
+        public ExtractedContent getContent() { return content.build(); }
+
+        public String getText() { return getContent().getText(); }
+    }
+}
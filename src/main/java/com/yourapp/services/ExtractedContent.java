@@ -0,0 +1,303 @@
+package com.yourapp.services;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Texte extrait d'un document et son index de structure (pages > paragraphes > plages de caractères)
+ * L'index est stocké sous forme de tableaux d'offsets primitifs pour rester compact en mémoire et en cache
+ */
+public final class ExtractedContent {
+
+    private final String text;
+    private final int[] pageStarts;
+    private final String[] pageLabels;
+    private final int[] paragraphStarts;
+    private final int[] paragraphEnds;
+
+    private ExtractedContent(String text, int[] pageStarts, String[] pageLabels, int[] paragraphStarts, int[] paragraphEnds) {
+        this.text = text;
+        this.pageStarts = pageStarts;
+        this.pageLabels = pageLabels;
+        this.paragraphStarts = paragraphStarts;
+        this.paragraphEnds = paragraphEnds;
+    }
+
+    /**
+     * Contenu sans structure connue: une page, un paragraphe
+     */
+    public static ExtractedContent plain(String text) {
+        Builder builder = new Builder();
+        builder.startPage(null);
+        builder.appendParagraph(text);
+        return builder.build();
+    }
+
+    /**
+     * Sérialiser le texte et son index (cache d'extraction, résultat du bac à sable)
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+
+        out.writeInt(pageStarts.length);
+        for (int i = 0; i < pageStarts.length; i++) {
+            out.writeInt(pageStarts[i]);
+            out.writeBoolean(pageLabels[i] != null);
+            if (pageLabels[i] != null) {
+                out.writeUTF(pageLabels[i]);
+            }
+        }
+
+        out.writeInt(paragraphStarts.length);
+        for (int i = 0; i < paragraphStarts.length; i++) {
+            out.writeInt(paragraphStarts[i]);
+            out.writeInt(paragraphEnds[i]);
+        }
+    }
+
+    public static ExtractedContent readFrom(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+
+        int pageCount = in.readInt();
+        int[] pageStarts = new int[pageCount];
+        String[] pageLabels = new String[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            pageStarts[i] = in.readInt();
+            pageLabels[i] = in.readBoolean() ? in.readUTF() : null;
+        }
+
+        int paragraphCount = in.readInt();
+        int[] paragraphStarts = new int[paragraphCount];
+        int[] paragraphEnds = new int[paragraphCount];
+        for (int i = 0; i < paragraphCount; i++) {
+            paragraphStarts[i] = in.readInt();
+            paragraphEnds[i] = in.readInt();
+        }
+
+        return new ExtractedContent(new String(bytes, StandardCharsets.UTF_8),
+                pageStarts, pageLabels, paragraphStarts, paragraphEnds);
+    }
+
+    public String getText() { return text; }
+
+    public int getPageCount() { return pageStarts.length; }
+
+    public int getParagraphCount() { return paragraphStarts.length; }
+
+    /**
+     * Libellé de la page (ex: "Page 3", "Feuille: Budget"), numérotation à partir de 1
+     */
+    public String getPageLabel(int pageNumber) {
+        String label = pageLabels[pageNumber - 1];
+        return label != null ? label : "Page " + pageNumber;
+    }
+
+    /**
+     * Numéro de page (à partir de 1) contenant l'offset donné
+     */
+    public int pageOfOffset(int offset) {
+        return Math.max(1, floorIndex(pageStarts, offset) + 1);
+    }
+
+    /**
+     * Index global (à partir de 0) du paragraphe contenant l'offset, -1 si avant le premier paragraphe
+     */
+    public int paragraphOfOffset(int offset) {
+        return floorIndex(paragraphStarts, offset);
+    }
+
+    /**
+     * Numéro de page (à partir de 1) d'un paragraphe identifié par son index global
+     */
+    public int pageOfParagraph(int paragraphIndex) {
+        return pageOfOffset(paragraphStarts[paragraphIndex]);
+    }
+
+    /**
+     * Numéro du paragraphe dans sa page (à partir de 1)
+     */
+    public int paragraphNumberInPage(int paragraphIndex) {
+        int page = pageOfParagraph(paragraphIndex);
+        int firstOfPage = firstParagraphOfPage(page);
+        return paragraphIndex - firstOfPage + 1;
+    }
+
+    /**
+     * Index global du premier paragraphe de la page
+     */
+    public int firstParagraphOfPage(int pageNumber) {
+        int pageStart = pageStarts[pageNumber - 1];
+        int index = Arrays.binarySearch(paragraphStarts, pageStart);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public String paragraphText(int paragraphIndex) {
+        return text.substring(paragraphStarts[paragraphIndex], paragraphEnds[paragraphIndex]);
+    }
+
+    public String pageText(int pageNumber) {
+        int start = pageStarts[pageNumber - 1];
+        int end = pageNumber < pageStarts.length ? pageStarts[pageNumber] : text.length();
+        return text.substring(start, end);
+    }
+
+    /**
+     * Découper le document en tranches de paragraphes consécutifs d'au plus maxChars caractères
+     * Chaque tranche est un intervalle [début, fin[ d'index globaux de paragraphes
+     */
+    public List<int[]> chunkParagraphs(int maxChars) {
+        List<int[]> chunks = new ArrayList<>();
+        int chunkStart = 0;
+        int chunkChars = 0;
+
+        for (int p = 0; p < paragraphStarts.length; p++) {
+            int length = paragraphEnds[p] - paragraphStarts[p];
+            if (p > chunkStart && chunkChars + length > maxChars) {
+                chunks.add(new int[]{chunkStart, p});
+                chunkStart = p;
+                chunkChars = 0;
+            }
+            chunkChars += length;
+        }
+
+        if (chunkStart < paragraphStarts.length) {
+            chunks.add(new int[]{chunkStart, paragraphStarts.length});
+        }
+        return chunks;
+    }
+
+    private static int floorIndex(int[] starts, int offset) {
+        int index = Arrays.binarySearch(starts, offset);
+        if (index >= 0) {
+            // Plusieurs entrées peuvent partager le même offset (page vide): garder la dernière
+            while (index + 1 < starts.length && starts[index + 1] == offset) {
+                index++;
+            }
+            return index;
+        }
+        return -index - 2;
+    }
+
+    /**
+     * Construction incrémentale du texte et de son index par les extracteurs
+     */
+    public static final class Builder {
+
+        private final StringBuilder text = new StringBuilder();
+        private final IntList pageStarts = new IntList();
+        private final List<String> pageLabels = new ArrayList<>();
+        private final IntList paragraphStarts = new IntList();
+        private final IntList paragraphEnds = new IntList();
+        private int openParagraph = -1;
+
+        public StringBuilder text() {
+            return text;
+        }
+
+        public Builder append(CharSequence chars) {
+            text.append(chars);
+            return this;
+        }
+
+        public Builder startPage(String label) {
+            endParagraph();
+            pageStarts.add(text.length());
+            pageLabels.add(label);
+            return this;
+        }
+
+        public Builder startParagraph() {
+            endParagraph();
+            openParagraph = text.length();
+            return this;
+        }
+
+        public boolean hasOpenParagraph() {
+            return openParagraph >= 0;
+        }
+
+        public Builder endParagraph() {
+            if (openParagraph >= 0) {
+                // Fin de paragraphe sans les blancs finaux, les paragraphes vides ne sont pas indexés
+                int end = text.length();
+                while (end > openParagraph && Character.isWhitespace(text.charAt(end - 1))) {
+                    end--;
+                }
+                if (end > openParagraph) {
+                    paragraphStarts.add(openParagraph);
+                    paragraphEnds.add(end);
+                }
+                openParagraph = -1;
+            }
+            return this;
+        }
+
+        public Builder appendParagraph(CharSequence paragraph) {
+            startParagraph();
+            text.append(paragraph);
+            endParagraph();
+            text.append('\n');
+            return this;
+        }
+
+        /**
+         * Ajouter un contenu déjà structuré en décalant ses offsets
+         */
+        public Builder appendContent(ExtractedContent content) {
+            endParagraph();
+            int shift = text.length();
+            text.append(content.text);
+            for (int i = 0; i < content.pageStarts.length; i++) {
+                pageStarts.add(content.pageStarts[i] + shift);
+                pageLabels.add(content.pageLabels[i]);
+            }
+            for (int i = 0; i < content.paragraphStarts.length; i++) {
+                paragraphStarts.add(content.paragraphStarts[i] + shift);
+                paragraphEnds.add(content.paragraphEnds[i] + shift);
+            }
+            return this;
+        }
+
+        public ExtractedContent build() {
+            endParagraph();
+            if (pageStarts.size() == 0) {
+                pageStarts.add(0);
+                pageLabels.add(null);
+            }
+            return new ExtractedContent(text.toString(), pageStarts.toArray(),
+                    pageLabels.toArray(new String[0]), paragraphStarts.toArray(), paragraphEnds.toArray());
+        }
+    }
+
+    /**
+     * Liste d'entiers primitifs extensible
+     */
+    private static final class IntList {
+
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.yourapp.services;
+
+import com.yourapp.utils.ContentHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache disque du texte extrait des documents et de son index de structure,
+ * indexé par l'empreinte SHA-256 du fichier source
+ * Une entrée n'est invalidée que si le contenu du fichier change (nouvelle empreinte)
+ */
+@Service
+@Slf4j
+public class ExtractedTextCache {
+
+    // À incrémenter dès que le format du texte produit par les extracteurs change
+    // v2: ajout des offsets de pages et de paragraphes
+    static final int FORMAT_VERSION = 2;
+
+    private static final int MAX_MEMOIZED_HASHES = 512;
+
+    @Value("${app.extraction.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.extraction.cache.dir:cache/extracted-text/}")
+    private String cacheDir;
+
+    /**
+     * Empreintes déjà calculées, indexées par chemin + taille + date de modification
+     * Évite de relire le fichier entier à chaque consultation du cache
+     */
+    private final Map<FileKey, String> memoizedHashes = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FileKey, String> eldest) {
+            return size() > MAX_MEMOIZED_HASHES;
+        }
+    };
+
+    private record FileKey(Path path, long size, FileTime lastModified) {}
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Empreinte du contenu d'un fichier (mémorisée tant que le fichier n'est pas modifié)
+     */
+    public String hashOf(Path filePath) throws IOException {
+        Path absolute = filePath.toAbsolutePath().normalize();
+        FileKey key = new FileKey(absolute, Files.size(absolute), Files.getLastModifiedTime(absolute));
+
+        synchronized (memoizedHashes) {
+            String hash = memoizedHashes.get(key);
+            if (hash != null) {
+                return hash;
+            }
+        }
+
+        String hash = ContentHash.sha256(absolute);
+        synchronized (memoizedHashes) {
+            memoizedHashes.put(key, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Mémoriser une empreinte déjà calculée ailleurs (ex: pendant la copie à l'upload)
+     */
+    public void rememberHash(Path filePath, String contentHash) throws IOException {
+        Path absolute = filePath.toAbsolutePath().normalize();
+        FileKey key = new FileKey(absolute, Files.size(absolute), Files.getLastModifiedTime(absolute));
+        synchronized (memoizedHashes) {
+            memoizedHashes.put(key, contentHash);
+        }
+    }
+
+    /**
+     * Lire le contenu extrait d'un fichier déjà traité
+     */
+    public Optional<ExtractedContent> get(String contentHash) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        Path entry = entryPath(contentHash);
+        if (!Files.exists(entry)) {
+            return Optional.empty();
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(entry))))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            ExtractedContent content = ExtractedContent.readFrom(in);
+
+            log.debug("♻️ Texte extrait trouvé en cache: {}", contentHash);
+            return Optional.of(content);
+        } catch (IOException e) {
+            log.warn("⚠️ Entrée de cache illisible, elle sera régénérée: {}", entry, e);
+            deleteQuietly(entry);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Enregistrer le contenu extrait (écriture atomique via un fichier temporaire)
+     */
+    public void put(String contentHash, ExtractedContent content) {
+        if (!enabled) {
+            return;
+        }
+
+        Path entry = entryPath(contentHash);
+        Path temp = null;
+        try {
+            Files.createDirectories(entry.getParent());
+            temp = Files.createTempFile(entry.getParent(), contentHash, ".tmp");
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(FORMAT_VERSION);
+                content.writeTo(out);
+            }
+
+            Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("💾 Texte extrait mis en cache: {} ({} caractères)", contentHash, content.getText().length());
+        } catch (IOException e) {
+            log.warn("⚠️ Impossible d'écrire l'entrée de cache {}", entry, e);
+            if (temp != null) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /**
+     * Supprimer l'entrée associée à un contenu
+     */
+    public void evict(String contentHash) {
+        deleteQuietly(entryPath(contentHash));
+    }
+
+    /**
+     * Répertoires répartis sur les deux premiers caractères de l'empreinte
+     */
+    private Path entryPath(String contentHash) {
+        return Paths.get(cacheDir)
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash + ".v" + FORMAT_VERSION + ".gz");
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Suppression impossible: {}", path, e);
+        }
+    }
+}
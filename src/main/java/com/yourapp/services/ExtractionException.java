@@ -0,0 +1,58 @@
+package com.yourapp.services;
+
+import java.io.IOException;
+
+/**
+ * Échec d'extraction d'un document, avec une cause structurée
+ * Le message formaté est enregistré dans AuditDocument.errorMessage
+ */
+public class ExtractionException extends IOException {
+
+    public enum Reason {
+        TIMEOUT,
+        CORRUPTED_FILE,
+        OUT_OF_MEMORY,
+        SANDBOX_FAILURE,
+        INTERRUPTED
+    }
+
+    private final Reason reason;
+    private final String fileName;
+
+    public ExtractionException(Reason reason, String fileName, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+        this.fileName = fileName;
+    }
+
+    public ExtractionException(Reason reason, String fileName, String message) {
+        this(reason, fileName, message, null);
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Message destiné à AuditDocument.errorMessage, ex: "[TIMEOUT] rapport.pdf: extraction interrompue après 120 s"
+     */
+    public String toErrorMessage() {
+        return "[" + reason + "] " + fileName + ": " + getMessage();
+    }
+
+    /**
+     * Retrouver un échec d'extraction dans une chaîne de causes
+     */
+    public static ExtractionException find(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof ExtractionException extractionException) {
+                return extractionException;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.yourapp.services;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget mémoire global des extractions PDF
+ * Chaque document réserve des Mo de mémoire principale (plafonnés par document);
+ * si le budget est épuisé, le document est traité avec un tampon sur fichier temporaire au lieu d'attendre indéfiniment
+ */
+@Component
+@Slf4j
+public class ExtractionMemoryBudget {
+
+    private static final long MB = 1024L * 1024L;
+
+    // Mémoire principale totale que les chargements PDF simultanés peuvent utiliser
+    @Value("${app.extraction.memory.total-budget-mb:256}")
+    private int totalBudgetMb;
+
+    // Plafond de mémoire principale pour un document, le reste déborde sur disque
+    @Value("${app.extraction.memory.per-document-max-mb:64}")
+    private int perDocumentMaxMb;
+
+    @Value("${app.extraction.memory.acquire-timeout-seconds:30}")
+    private long acquireTimeoutSeconds;
+
+    @Value("${app.extraction.memory.temp-dir:temp/pdfbox/}")
+    private String tempDirPath;
+
+    private File tempDir;
+    private Semaphore budget;
+
+    @PostConstruct
+    void initBudget() {
+        perDocumentMaxMb = Math.min(perDocumentMaxMb, totalBudgetMb);
+        tempDir = Paths.get(tempDirPath).toFile();
+        budget = new Semaphore(totalBudgetMb, true);
+        log.info("🧮 Budget mémoire d'extraction: {} Mo au total, {} Mo max par document",
+                totalBudgetMb, perDocumentMaxMb);
+    }
+
+    /**
+     * Réserver la mémoire nécessaire à l'extraction d'un fichier
+     * La réservation est proportionnelle à la taille du fichier, dans la limite du plafond par document
+     */
+    public Lease acquire(Path filePath) throws IOException {
+        long fileSize = Files.size(filePath);
+        int wantedMb = (int) Math.max(1, Math.min(perDocumentMaxMb, (fileSize + MB - 1) / MB));
+
+        Files.createDirectories(tempDir.toPath());
+
+        try {
+            if (budget.tryAcquire(wantedMb, acquireTimeoutSeconds, TimeUnit.SECONDS)) {
+                log.debug("🧮 {} Mo réservés pour {} (disponibles: {}/{} Mo)",
+                        wantedMb, filePath.getFileName(), budget.availablePermits(), totalBudgetMb);
+                return new Lease(wantedMb);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Extraction interrompue en attente de mémoire", e);
+        }
+
+        log.warn("⚠️ Budget mémoire d'extraction épuisé, {} traité sur fichier temporaire", filePath.getFileName());
+        return new Lease(0);
+    }
+
+    /**
+     * Réservation de mémoire, à libérer en fin d'extraction (try-with-resources)
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final int reservedMb;
+        private boolean released;
+
+        private Lease(int reservedMb) {
+            this.reservedMb = reservedMb;
+        }
+
+        public int getReservedMb() {
+            return reservedMb;
+        }
+
+        /**
+         * Réglage PDFBox pour un chargement unique du document
+         */
+        public MemoryUsageSetting memorySetting() {
+            return memorySetting(1);
+        }
+
+        /**
+         * Réglage PDFBox quand la réservation est partagée entre plusieurs chargements simultanés
+         * Au-delà de sa part de mémoire principale, PDFBox déborde sur un fichier temporaire
+         */
+        public MemoryUsageSetting memorySetting(int concurrentLoads) {
+            long mainBytes = reservedMb * MB / Math.max(1, concurrentLoads);
+            MemoryUsageSetting setting = mainBytes > 0
+                    ? MemoryUsageSetting.setupMixed(mainBytes)
+                    : MemoryUsageSetting.setupTempFileOnly();
+            return setting.setTempDir(tempDir);
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                if (reservedMb > 0) {
+                    budget.release(reservedMb);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.yourapp.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction dans une JVM séparée pour les fichiers non fiables
+ * Un document qui épuise la mémoire ou ne termine pas ne peut pas affecter l'application:
+ * le processus est tué et l'échec remonté sous forme d'ExtractionException
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExtractionSandbox {
+
+    // Codes de sortie du processus d'extraction
+    private static final int EXIT_OK = 0;
+    private static final int EXIT_EXTRACTION_ERROR = 2;
+    private static final int EXIT_OUT_OF_MEMORY = 3;
+
+    // Réglages transmis au processus fils (le cache d'extraction est partagé)
+    private static final String[] FORWARDED_PROPERTIES = {
+            "app.extraction.cache.enabled",
+            "app.extraction.cache.dir",
+            "app.extraction.excel.max-rows-per-sheet",
+            "app.extraction.excel.max-columns",
+            "app.extraction.pdf.parallel-threshold-pages",
+            "app.extraction.pdf.pages-per-task",
+            "app.extraction.pdf.parallelism",
+            "app.extraction.memory.total-budget-mb",
+            "app.extraction.memory.per-document-max-mb",
+            "app.extraction.memory.temp-dir"
+    };
+
+    private final Environment environment;
+
+    @Value("${app.extraction.sandbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.extraction.sandbox.max-heap-mb:512}")
+    private int maxHeapMb;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Extraire un document dans un processus fils et relire son résultat
+     */
+    public ExtractedContent extract(Path filePath, String fileName, long timeoutSeconds) throws IOException {
+        Path output = Files.createTempFile("extraction-", ".bin");
+        Path errors = Files.createTempFile("extraction-", ".err");
+
+        try {
+            Process process = new ProcessBuilder(buildCommand(filePath, fileName, output))
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(errors.toFile())
+                    .start();
+
+            boolean finished;
+            try {
+                finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Extraction isolée annulée");
+            }
+
+            if (!finished) {
+                process.destroyForcibly();
+                throw new ExtractionException(ExtractionException.Reason.TIMEOUT, fileName,
+                        "processus d'extraction tué après " + timeoutSeconds + " s");
+            }
+
+            int exitCode = process.exitValue();
+            log.debug("🧪 Extraction isolée de {} terminée (code {})", fileName, exitCode);
+
+            return switch (exitCode) {
+                case EXIT_OK -> readResult(output);
+                case EXIT_EXTRACTION_ERROR -> throw new ExtractionException(ExtractionException.Reason.CORRUPTED_FILE,
+                        fileName, "fichier illisible ou corrompu (" + lastLine(errors) + ")");
+                case EXIT_OUT_OF_MEMORY -> throw new ExtractionException(ExtractionException.Reason.OUT_OF_MEMORY,
+                        fileName, "mémoire insuffisante (limite " + maxHeapMb + " Mo)");
+                default -> throw new ExtractionException(ExtractionException.Reason.SANDBOX_FAILURE,
+                        fileName, "processus d'extraction terminé avec le code " + exitCode + " (" + lastLine(errors) + ")");
+            };
+        } finally {
+            Files.deleteIfExists(output);
+            Files.deleteIfExists(errors);
+        }
+    }
+
+    private List<String> buildCommand(Path filePath, String fileName, Path output) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + maxHeapMb + "m");
+        command.add("-XX:+ExitOnOutOfMemoryError");
+
+        for (String property : FORWARDED_PROPERTIES) {
+            String value = environment.getProperty(property);
+            if (value != null) {
+                command.add("-D" + property + "=" + value);
+            }
+        }
+
+        String classPath = System.getProperty("java.class.path");
+        command.add("-cp");
+        command.add(classPath);
+        if (classPath.endsWith(".jar") && !classPath.contains(File.pathSeparator)) {
+            // Application lancée depuis le jar Spring Boot: passer par son launcher
+            command.add("-Dloader.main=" + ExtractionSandbox.class.getName());
+            command.add("org.springframework.boot.loader.launch.PropertiesLauncher");
+        } else {
+            command.add(ExtractionSandbox.class.getName());
+        }
+
+        command.add(filePath.toAbsolutePath().toString());
+        command.add(fileName);
+        command.add(output.toAbsolutePath().toString());
+        return command;
+    }
+
+    private ExtractedContent readResult(Path output) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(output)))) {
+            return ExtractedContent.readFrom(in);
+        }
+    }
+
+    private String lastLine(Path errors) {
+        try {
+            List<String> lines = Files.readAllLines(errors);
+            for (int i = lines.size() - 1; i >= 0; i--) {
+                if (!lines.get(i).isBlank()) {
+                    return lines.get(i).trim();
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Sortie d'erreur du processus d'extraction illisible", e);
+        }
+        return "aucun détail";
+    }
+
+    /**
+     * Point d'entrée du processus fils: args = fichier, nom du document, fichier de résultat
+     * Seuls les services d'extraction sont instanciés (pas de base de données ni d'interface)
+     */
+    public static void main(String[] args) {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                ExcelStreamingExtractor.class, ExtractedTextCache.class,
+                ExtractionMemoryBudget.class, DocumentContentExtractor.class)) {
+
+            ExtractedContent content = context.getBean(DocumentContentExtractor.class)
+                    .extractStructured(Paths.get(args[0]), args[1]);
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(Paths.get(args[2]))))) {
+                content.writeTo(out);
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(EXIT_EXTRACTION_ERROR);
+        }
+        System.exit(EXIT_OK);
+    }
+}
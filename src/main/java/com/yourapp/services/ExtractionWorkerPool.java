@@ -0,0 +1,207 @@
+package com.yourapp.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool borné de threads dédiés à l'extraction de contenu
+ * Chaque document dispose d'un délai d'attente dans la file puis d'un délai de traitement;
+ * au-delà, l'extraction est abandonnée et l'échec est remonté sous forme d'ExtractionException.
+ * PDFBox et POI ignorent souvent l'interruption: un worker qui dépasse son délai est abandonné et
+ * remplacé par un nouveau thread, pour que les autres documents gardent leur capacité d'extraction
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExtractionWorkerPool {
+
+    private static final long POLL_MILLIS = 500;
+
+    // États d'une extraction soumise
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int ABANDONED = 3;
+
+    private final DocumentContentExtractor contentExtractor;
+    private final ExtractionSandbox sandbox;
+
+    @Value("${app.extraction.workers.threads:2}")
+    private int threads;
+
+    @Value("${app.extraction.workers.timeout-seconds:120}")
+    private long timeoutSeconds;
+
+    // Attente maximale d'un worker libre, avant le début du traitement
+    @Value("${app.extraction.workers.queue-timeout-seconds:300}")
+    private long queueTimeoutSeconds;
+
+    // Threads bloqués tolérés (chacun remplacé); au-delà, le pool fonctionne avec moins de workers
+    @Value("${app.extraction.workers.max-abandoned:4}")
+    private int maxAbandoned;
+
+    private ThreadPoolExecutor workers;
+
+    // Workers abandonnés encore bloqués dans leur extraction
+    private int abandoned;
+
+    @PostConstruct
+    void initWorkers() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "extraction-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("🧵 Pool d'extraction initialisé: {} threads, délai {} s par document (attente max {} s), bac à sable: {}",
+                threads, timeoutSeconds, queueTimeoutSeconds, sandbox.isEnabled() ? "activé" : "désactivé");
+    }
+
+    @PreDestroy
+    void shutdownWorkers() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Extraire le texte d'un document dans le pool
+     */
+    public String extractContent(Path filePath, String fileName) throws ExtractionException {
+        return extract(filePath, fileName).getText();
+    }
+
+    /**
+     * Extraire le contenu structuré d'un document dans le pool, en respectant les délais par document
+     * Le thread appelant attend le résultat mais n'exécute jamais lui-même l'extraction
+     */
+    public ExtractedContent extract(Path filePath, String fileName) throws ExtractionException {
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        AtomicLong startedAt = new AtomicLong();
+        Future<ExtractedContent> future = workers.submit(() -> {
+            if (!state.compareAndSet(QUEUED, RUNNING)) {
+                return null; // abandonné pendant l'attente dans la file
+            }
+            startedAt.set(System.nanoTime());
+            try {
+                if (!sandbox.isEnabled()) {
+                    return contentExtractor.extractStructured(filePath, fileName);
+                }
+                // Le cache est consulté ici: un résultat connu ne justifie pas le lancement d'une JVM fille
+                Optional<ExtractedContent> cached = contentExtractor.findCached(filePath, fileName);
+                if (cached.isPresent()) {
+                    log.info("♻️ Contenu de {} servi depuis le cache, bac à sable non lancé", fileName);
+                    return cached.get();
+                }
+                return sandbox.extract(filePath, fileName, timeoutSeconds);
+            } finally {
+                if (state.getAndSet(DONE) == ABANDONED) {
+                    releaseAbandonedWorker(fileName);
+                }
+            }
+        });
+
+        long submittedAt = System.nanoTime();
+        long timeoutNanos = TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        long queueTimeoutNanos = TimeUnit.SECONDS.toNanos(queueTimeoutSeconds);
+        try {
+            while (true) {
+                try {
+                    return future.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    long now = System.nanoTime();
+                    if (state.get() == QUEUED && now - submittedAt > queueTimeoutNanos
+                            && state.compareAndSet(QUEUED, ABANDONED)) {
+                        future.cancel(false);
+                        workers.remove((Runnable) future);
+                        log.warn("⏱️ Extraction de {} abandonnée: aucun worker libre après {} s", fileName, queueTimeoutSeconds);
+                        throw new ExtractionException(ExtractionException.Reason.TIMEOUT, fileName,
+                                "aucun worker d'extraction disponible après " + queueTimeoutSeconds + " s");
+                    }
+                    long started = startedAt.get();
+                    if (started != 0 && now - started > timeoutNanos) {
+                        future.cancel(true);
+                        replaceStuckWorker(state, fileName);
+                        log.warn("⏱️ Extraction de {} annulée après {} s", fileName, timeoutSeconds);
+                        throw new ExtractionException(ExtractionException.Reason.TIMEOUT, fileName,
+                                "extraction interrompue après " + timeoutSeconds + " s");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ExtractionException(ExtractionException.Reason.INTERRUPTED, fileName,
+                    "extraction annulée", e);
+        } catch (ExecutionException e) {
+            throw classify(fileName, e.getCause());
+        }
+    }
+
+    /**
+     * Le worker de fileName reste bloqué malgré l'interruption: un thread supplémentaire prend sa place
+     * (le thread bloqué n'est plus compté et quitte le pool dès qu'il rend la main)
+     */
+    private synchronized void replaceStuckWorker(AtomicInteger state, String fileName) {
+        if (abandoned >= maxAbandoned) {
+            log.error("❌ Worker d'extraction bloqué sur {} non remplacé: limite de {} workers abandonnés atteinte", fileName, maxAbandoned);
+            return;
+        }
+        if (!state.compareAndSet(RUNNING, ABANDONED)) {
+            return; // terminé entre-temps
+        }
+        abandoned++;
+        workers.setMaximumPoolSize(threads + abandoned);
+        workers.setCorePoolSize(threads + abandoned);
+        log.warn("🧵 Worker d'extraction bloqué sur {} remplacé ({} abandonné(s))", fileName, abandoned);
+    }
+
+    /**
+     * Le worker abandonné a fini par rendre la main: le pool revient à sa taille normale
+     */
+    private synchronized void releaseAbandonedWorker(String fileName) {
+        if (abandoned == 0) {
+            return;
+        }
+        abandoned--;
+        workers.setCorePoolSize(threads + abandoned);
+        workers.setMaximumPoolSize(threads + abandoned);
+        log.info("🧵 Worker abandonné sur {} libéré ({} encore bloqué(s))", fileName, abandoned);
+    }
+
+    /**
+     * Traduire l'échec d'une extraction en cause structurée
+     */
+    private ExtractionException classify(String fileName, Throwable failure) {
+        if (failure instanceof ExtractionException extractionException) {
+            return extractionException;
+        }
+        if (failure instanceof OutOfMemoryError) {
+            log.error("❌ Mémoire insuffisante pendant l'extraction de {}", fileName);
+            return new ExtractionException(ExtractionException.Reason.OUT_OF_MEMORY, fileName,
+                    "mémoire insuffisante pour extraire le document", failure);
+        }
+        if (failure instanceof InterruptedIOException) {
+            return new ExtractionException(ExtractionException.Reason.INTERRUPTED, fileName,
+                    "extraction annulée", failure);
+        }
+        if (failure instanceof IOException) {
+            return new ExtractionException(ExtractionException.Reason.CORRUPTED_FILE, fileName,
+                    "fichier illisible ou corrompu (" + failure.getMessage() + ")", failure);
+        }
+        return new ExtractionException(ExtractionException.Reason.CORRUPTED_FILE, fileName,
+                "erreur inattendue (" + failure + ")", failure);
+    }
+}
@@ -1,7 +1,13 @@
 // 📁 src/main/java/com/yourapp/services/HistoryService.java
 package com.yourapp.services;
 
+import com.yourapp.DAO.AuditDocumentRepository;
 import com.yourapp.DAO.AuditReportRepository;
+import com.yourapp.DAO.AuditReportHistoryRepository.HistoryCursor;
+import com.yourapp.DAO.AuditReportHistoryRepository.HistoryFilter;
+import com.yourapp.dto.AuditHistoryDetailsDto;
+import com.yourapp.dto.AuditHistoryRowDto;
+import com.yourapp.model.Audit;
 import com.yourapp.model.AuditReport;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -15,20 +21,67 @@ public class HistoryService {
     @Autowired
     private AuditReportRepository auditReportRepository;
 
+    @Autowired
+    private AuditDocumentRepository documentRepository;
+
+    @Autowired
+    private AuditIssueService auditIssueService;
+
     /**
-     * Récupérer tous les rapports d'audit avec leurs relations
+     * Page de l'historique: au plus pageSize lignes après le curseur (null = première page)
+     * next est null quand il n'y a plus de lignes
      */
-    public List<AuditReport> getAllAuditReports() {
-        System.out.println("📊 HistoryService: Chargement des rapports...");
+    public record HistoryPage(List<AuditHistoryRowDto> rows, HistoryCursor next) {}
 
-        try {
-            List<AuditReport> reports = auditReportRepository.findAllWithAuditAndRelations();
-            System.out.println("✅ HistoryService: " + reports.size() + " rapports trouvés");
-            return reports;
-        } catch (Exception e) {
-            System.err.println("❌ HistoryService erreur: " + e.getMessage());
-            throw e;
+    /**
+     * Charger une page de l'historique (lignes légères, filtre et tri faits par la base)
+     */
+    @Transactional(readOnly = true)
+    public HistoryPage getHistoryPage(HistoryFilter filter, HistoryCursor after, int pageSize) {
+        // Une ligne de plus pour savoir s'il reste une page
+        List<AuditHistoryRowDto> rows = auditReportRepository.findHistoryRows(filter, after, pageSize + 1);
+        if (rows.size() <= pageSize) {
+            return new HistoryPage(rows, null);
         }
+        List<AuditHistoryRowDto> page = rows.subList(0, pageSize);
+        return new HistoryPage(page, HistoryCursor.after(page.get(pageSize - 1), filter.sort()));
+    }
+
+    /**
+     * Nombre de lignes de l'historique correspondant au filtre
+     */
+    @Transactional(readOnly = true)
+    public long countHistory(HistoryFilter filter) {
+        return auditReportRepository.countHistoryRows(filter);
+    }
+
+    /**
+     * Partenaires proposés dans le filtre de l'historique
+     */
+    @Transactional(readOnly = true)
+    public List<String> getPartners() {
+        return auditReportRepository.findDistinctPartners();
+    }
+
+    /**
+     * Détail d'une ligne de l'historique, chargé à l'ouverture seulement
+     */
+    @Transactional(readOnly = true)
+    public AuditHistoryDetailsDto getHistoryDetails(Long reportId) {
+        AuditReport report = auditReportRepository.findWithAuditById(reportId)
+                .orElseThrow(() -> new RuntimeException("Rapport introuvable avec l'ID: " + reportId));
+        Audit audit = report.getAudit();
+
+        return AuditHistoryDetailsDto.builder()
+                .reportId(report.getId())
+                .auditId(audit.getId())
+                .reportPath(report.getReportPath())
+                .reportSummary(report.getReportSummary())
+                .comments(audit.getComments())
+                .modelName(audit.getModelName())
+                .documentNames(documentRepository.findDocumentNamesByAuditId(audit.getId()))
+                .issuesByType(auditIssueService.getIssuesByCategory(audit.getId()))
+                .build();
     }
 
     /**
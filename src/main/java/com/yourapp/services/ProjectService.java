@@ -25,6 +25,7 @@ public class ProjectService {
 
     private final ProjectRepository projectRepository;
     private final AuditDocumentRepository auditDocumentRepository;
+    private final AuditDocumentService auditDocumentService;
     private final AuditTemplateRepository auditTemplateRepository;
     private final ApplicationEventPublisher eventPublisher; // ✅ AJOUTÉ
 
@@ -109,7 +110,9 @@ public class ProjectService {
                 .orElseThrow(() -> new RuntimeException("Projet non trouvé avec ID: " + id));
 
         String projectName = project.getName();
+        List<String> contentHashes = auditDocumentRepository.findContentHashesByProjectId(id);
         projectRepository.deleteById(id);
+        auditDocumentService.collectAfterCommit(contentHashes);
 
         // ✅ PUBLIER L'ÉVÉNEMENT
         eventPublisher.publishEvent(
@@ -119,6 +122,23 @@ public class ProjectService {
         log.info("✅ Projet supprimé: {}", projectName);
     }
 
+    /**
+     * Définir la priorité d'un projet dans la file d'analyse (poids du partage équitable, 1 = normal)
+     * S'applique aux analyses mises en file ensuite
+     */
+    @Transactional
+    public void updateAuditPriority(Long id, int priority) {
+        if (priority < 1) {
+            throw new IllegalArgumentException("La priorité d'analyse doit être au moins 1");
+        }
+        Project project = projectRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Projet non trouvé avec ID: " + id));
+
+        project.setAuditPriority(priority);
+        projectRepository.save(project);
+        log.info("⚖️ Priorité d'analyse du projet {} fixée à {}", project.getName(), priority);
+    }
+
     /**
      * ✅ Récupérer tous les projets (DTO)
      */
@@ -198,5 +218,8 @@ public class ProjectService {
     @Transactional
     public void deleteDocument(AuditDocument doc) {
         auditDocumentRepository.delete(doc);
+        if (doc.getContentHash() != null) {
+            auditDocumentService.collectAfterCommit(List.of(doc.getContentHash()));
+        }
     }
 }
\ No newline at end of file
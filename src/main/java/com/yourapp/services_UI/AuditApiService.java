@@ -3,14 +3,18 @@ package com.yourapp.services_UI;
 import com.yourapp.dto.AuditCreateRequestDto;
 import com.yourapp.dto.AuditResponseDto;
 import com.yourapp.dto.AuditIssueDto;
+import com.yourapp.services.AuditProgressBus;
 import com.yourapp.services.AuditService;
 import com.yourapp.services.AuditIssueService;
+import com.yourapp.utils.AuditProgressEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Service UI pour les opérations d'audit
@@ -24,6 +28,7 @@ public class AuditApiService {
     // Injection directe des services backend
     private final AuditService auditService;
     private final AuditIssueService auditIssueService;
+    private final AuditProgressBus progressBus;
 
     /**
      * Créer un nouvel audit (appel direct au service)
@@ -57,6 +62,31 @@ public class AuditApiService {
         }
     }
 
+    /**
+     * Attendre la fin de l'analyse lancée en arrière-plan (sans polling de la base)
+     */
+    public AuditResponseDto awaitAnalysis(Long auditId) {
+        log.info("⏳ Attente de la fin de l'analyse de l'audit ID: {}", auditId);
+
+        AuditResponseDto audit = auditService.awaitAnalysis(auditId);
+        log.info("✅ Audit {} terminé avec le statut: {}", auditId, audit.getStatus());
+        return audit;
+    }
+
+    /**
+     * Annuler l'analyse d'un audit
+     */
+    public boolean cancelAnalysis(Long auditId) {
+        log.info("🛑 Annulation de l'analyse de l'audit ID: {}", auditId);
+
+        try {
+            return auditService.cancelAnalysis(auditId);
+        } catch (Exception e) {
+            log.error("❌ Erreur lors de l'annulation de l'analyse", e);
+            return false;
+        }
+    }
+
     /**
      * Récupérer un audit par son ID
      */
@@ -142,117 +172,74 @@ public class AuditApiService {
     }
 
     /**
-     * Polling pour vérifier le statut d'un audit en cours
+     * S'abonner à la progression d'une analyse (étapes par document, pourcentages, problèmes détectés)
+     * Les événements arrivent sur les threads d'analyse: l'interface doit repasser par Platform.runLater
+     */
+    public AuditProgressBus.Subscription subscribeToProgress(Long auditId, Consumer<AuditProgressEvent> listener) {
+        return progressBus.subscribe(auditId, listener);
+    }
+
+    /**
+     * Attendre la fin d'un audit en cours
      * Version avec délai augmenté pour l'analyse IA longue
      */
     public AuditResponseDto pollAuditStatus(Long auditId) {
-        return pollAuditStatus(auditId, 120, 2); // 120 tentatives × 2s = 4 minutes
+        return pollAuditStatus(auditId, 120, 2); // 120 × 2s = 4 minutes
     }
 
     /**
-     * Polling pour vérifier le statut d'un audit en cours (version paramétrable)
+     * Attendre la fin d'un audit en cours (délai total = maxAttempts × intervalSeconds)
+     * Plus d'interrogation périodique: l'attente repose sur l'événement de fin publié par le moteur d'analyse,
+     * et l'audit n'est relu qu'une fois à la fin
      */
     public AuditResponseDto pollAuditStatus(Long auditId, int maxAttempts, int intervalSeconds) {
-        log.info("🔍 Polling du statut de l'audit ID: {} (maxAttempts={}, intervalSeconds={})",
-                auditId, maxAttempts, intervalSeconds);
-
-        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
-            try {
-                AuditResponseDto audit = getAuditById(auditId);
-
-                if (audit == null) {
-                    log.warn("⚠️ Audit {} non trouvé lors du polling", auditId);
-                    Thread.sleep(intervalSeconds * 1000L);
-                    continue;
-                }
-
-                String status = audit.getStatus();
-                log.debug("⏳ Tentative {}/{}: Statut actuel = {}", attempt, maxAttempts, status);
-
-                // Vérifier si l'analyse est terminée
-                if ("COMPLETED".equals(status) || "FAILED".equals(status) || "ERROR".equals(status)) {
-                    log.info("✅ Audit {} terminé avec le statut: {}", auditId, status);
-
-                    // Récupérer les issues seulement si l'audit est COMPLETED
-                    if ("COMPLETED".equals(status)) {
-                        try {
-                            List<AuditIssueDto> issues = getIssuesByAudit(auditId);
-                            audit.setIssues(issues);
-                            log.info("📊 {} issues ajoutées à la réponse", issues.size());
-                        } catch (Exception e) {
-                            log.warn("⚠️ Impossible de récupérer les issues pour l'audit {}", auditId, e);
-                        }
-                    }
-
-                    return audit;
-                }
-
-                // Si l'analyse est toujours en cours, attendre avant de réessayer
-                if (attempt < maxAttempts) {
-                    Thread.sleep(intervalSeconds * 1000L);
-                }
-
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("❌ Polling interrompu pour l'audit {}", auditId, e);
-                throw new RuntimeException("Polling interrompu", e);
-            } catch (Exception e) {
-                log.warn("⚠️ Erreur lors du polling (tentative {}): {}", attempt, e.getMessage());
-
-                // Attendre avant de réessayer en cas d'erreur
-                try {
-                    Thread.sleep(intervalSeconds * 1000L);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Polling interrompu", ie);
-                }
-            }
+        long timeoutSeconds = (long) maxAttempts * intervalSeconds;
+        log.info("🔍 Attente de la fin de l'audit ID: {} (délai {} s)", auditId, timeoutSeconds);
+
+        AuditResponseDto audit = auditService.awaitAnalysis(auditId, Duration.ofSeconds(timeoutSeconds));
+        String status = audit != null ? audit.getStatus() : null;
+
+        if (!"COMPLETED".equals(status) && !"FAILED".equals(status) && !"ERROR".equals(status)
+                && !"CANCELLED".equals(status)) {
+            log.warn("⏱️ Timeout: L'audit {} n'a pas terminé dans le délai imparti ({} secondes)", auditId, timeoutSeconds);
+            throw new RuntimeException(String.format(
+                    "Timeout: L'audit n'a pas terminé dans le délai imparti (%d secondes). " +
+                            "L'analyse IA est peut-être en cours, veuillez patienter.",
+                    timeoutSeconds));
         }
 
-        log.warn("⏱️ Timeout: L'audit {} n'a pas terminé dans le délai imparti ({} secondes)",
-                auditId, maxAttempts * intervalSeconds);
+        log.info("✅ Audit {} terminé avec le statut: {}", auditId, status);
 
-        // Récupérer l'état actuel avant de lancer l'exception
-        try {
-            AuditResponseDto audit = getAuditById(auditId);
-            if (audit != null) {
-                log.info("📊 Statut final: {} - Problèmes détectés: {}",
-                        audit.getStatus(), audit.getProblemsCount());
+        // Récupérer les issues seulement si l'audit est COMPLETED
+        if ("COMPLETED".equals(status)) {
+            try {
+                List<AuditIssueDto> issues = getIssuesByAudit(auditId);
+                audit.setIssues(issues);
+                log.info("📊 {} issues ajoutées à la réponse", issues.size());
+            } catch (Exception e) {
+                log.warn("⚠️ Impossible de récupérer les issues pour l'audit {}", auditId, e);
             }
-        } catch (Exception e) {
-            log.warn("⚠️ Impossible de récupérer le statut final", e);
         }
 
-        throw new RuntimeException(String.format(
-                "Timeout: L'audit n'a pas terminé dans le délai imparti (%d secondes). " +
-                        "L'analyse IA est peut-être en cours, veuillez patienter.",
-                maxAttempts * intervalSeconds));
+        return audit;
     }
 
     /**
-     * Version améliorée du polling avec gestion d'erreur et retry
+     * Attente avec nouvelle tentative immédiate en cas d'erreur de lecture
+     * (un dépassement de délai n'est pas retenté: l'analyse est toujours en cours)
      */
     public AuditResponseDto pollAuditStatusWithRetry(Long auditId) {
         int maxRetries = 3;
-        for (int retry = 1; retry <= maxRetries; retry++) {
+        for (int retry = 1; ; retry++) {
             try {
                 return pollAuditStatus(auditId);
-            } catch (Exception e) {
-                log.warn("⚠️ Échec du polling (tentative {}/{}): {}", retry, maxRetries, e.getMessage());
-
-                if (retry == maxRetries) {
+            } catch (RuntimeException e) {
+                boolean timeout = e.getMessage() != null && e.getMessage().startsWith("Timeout");
+                if (timeout || retry == maxRetries) {
                     throw e;
                 }
-
-                try {
-                    Thread.sleep(5000); // Attendre 5s avant de réessayer
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Polling interrompu", ie);
-                }
+                log.warn("⚠️ Échec de l'attente (tentative {}/{}): {}", retry, maxRetries, e.getMessage());
             }
         }
-
-        throw new RuntimeException("Toutes les tentatives de polling ont échoué");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,152 @@
+package com.yourapp.services_UI;
+
+import com.yourapp.AI.AiPromptBuilder;
+import com.yourapp.services.DocumentContentExtractor;
+import com.yourapp.services.DocumentStorage;
+import com.yourapp.services.ExtractedContent;
+import com.yourapp.services.ExtractedTextCache;
+import com.yourapp.services.ExtractionWorkerPool;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Préparation spéculative des fichiers dès leur sélection dans l'écran d'audit
+ * Empreinte, type MIME, extraction et estimation des tokens sont calculés pendant que l'utilisateur
+ * choisit le projet et le modèle: l'extraction alimente le cache (indexé par empreinte), que l'analyse
+ * relira ensuite sans réextraire. Un fichier retiré de la sélection voit sa préparation annulée.
+ * Simple optimisation: le lancement de l'audit n'attend jamais une préparation en cours
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentPreparationService {
+
+    private final ExtractedTextCache textCache;
+    private final DocumentStorage documentStorage;
+    private final DocumentContentExtractor contentExtractor;
+    private final ExtractionWorkerPool extractionWorkers;
+    private final AiPromptBuilder promptBuilder;
+
+    @Value("${app.upload.prepare.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.upload.prepare.threads:2}")
+    private int threads;
+
+    private ExecutorService workers;
+
+    // Préparations en cours ou terminées, par fichier sélectionné
+    private final Map<Path, Preparation> preparations = new ConcurrentHashMap<>();
+
+    // Tâche (annulable par interruption) et résultat observable par l'interface
+    private record Preparation(Future<?> task, CompletableFuture<PreparedDocument> result) {}
+
+    /**
+     * Résultat de la préparation d'un fichier (pages et tokens à 0 si le format n'est pas extrait)
+     */
+    public record PreparedDocument(Path path, String contentHash, String mimeType,
+                                   int pageCount, int paragraphCount, int estimatedTokens) {}
+
+    @PostConstruct
+    void initWorkers() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "preparation-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdownWorkers() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Lancer la préparation d'un fichier, ou retrouver celle déjà lancée pour ce fichier
+     * Le résultat est complété depuis un thread de préparation (jamais celui de l'interface)
+     */
+    public CompletableFuture<PreparedDocument> prepare(File file) {
+        if (!enabled) {
+            return new CompletableFuture<>();
+        }
+        Path path = pathOf(file);
+        return preparations.computeIfAbsent(path, key -> {
+            CompletableFuture<PreparedDocument> result = new CompletableFuture<>();
+            Future<?> task = workers.submit(() -> {
+                try {
+                    result.complete(prepareNow(key));
+                } catch (Exception e) {
+                    log.debug("Préparation de {} impossible", key.getFileName(), e);
+                    result.completeExceptionally(e);
+                }
+            });
+            return new Preparation(task, result);
+        }).result();
+    }
+
+    /**
+     * Annuler les préparations des fichiers qui ne font plus partie de la sélection
+     */
+    public void retainOnly(Collection<File> selection) {
+        Set<Path> kept = selection.stream()
+                .map(this::pathOf)
+                .collect(Collectors.toSet());
+        preparations.entrySet().removeIf(entry -> {
+            if (kept.contains(entry.getKey())) {
+                return false;
+            }
+            Preparation preparation = entry.getValue();
+            if (preparation.task().cancel(true)) {
+                preparation.result().cancel(false);
+                log.debug("🛑 Préparation annulée: {}", entry.getKey().getFileName());
+            }
+            return true;
+        });
+    }
+
+    public void cancelAll() {
+        retainOnly(List.of());
+    }
+
+    private Path pathOf(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+
+    private PreparedDocument prepareNow(Path path) throws Exception {
+        String fileName = path.getFileName().toString();
+        long start = System.currentTimeMillis();
+
+        // Empreinte mémorisée: l'upload et le cache d'extraction la réutiliseront
+        String contentHash = textCache.hashOf(path);
+        String mimeType = documentStorage.detectMimeType(path, fileName);
+
+        if (!contentExtractor.isSupported(fileName)) {
+            return new PreparedDocument(path, contentHash, mimeType, 0, 0, 0);
+        }
+
+        ExtractedContent content = extractionWorkers.extract(path, fileName);
+        PreparedDocument prepared = new PreparedDocument(path, contentHash, mimeType,
+                content.getPageCount(), content.getParagraphCount(), promptBuilder.estimateTokens(content.getText()));
+
+        log.info("⚡ {} préparé en {} ms: {} pages, ~{} tokens",
+                fileName, System.currentTimeMillis() - start, prepared.pageCount(), prepared.estimatedTokens());
+        return prepared;
+    }
+}
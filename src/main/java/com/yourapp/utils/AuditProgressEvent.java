@@ -0,0 +1,68 @@
+package com.yourapp.utils;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event de progression d'une analyse d'audit (transition d'état d'un audit ou d'un document)
+ * Les pourcentages sont calculés par AuditProgressBus
+ */
+public class AuditProgressEvent extends ApplicationEvent {
+
+    public enum Stage {
+        // Étapes d'un audit
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED,
+        // Étapes d'un document
+        EXTRACTING, INFERRING, PERSISTING, DOCUMENT_ANALYZED, DOCUMENT_FAILED;
+
+        public boolean isTerminal() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final Long auditId;
+    private final Long documentId;
+    private final String documentName;
+    private final Stage stage;
+    private final int documentPercent;
+    private final int auditPercent;
+    private final int processedDocuments;
+    private final int totalDocuments;
+    private final int issuesCount;
+    private final String message;
+
+    public AuditProgressEvent(Object source, Long auditId, Long documentId, String documentName, Stage stage,
+                              int documentPercent, int auditPercent, int processedDocuments, int totalDocuments,
+                              int issuesCount, String message) {
+        super(source);
+        this.auditId = auditId;
+        this.documentId = documentId;
+        this.documentName = documentName;
+        this.stage = stage;
+        this.documentPercent = documentPercent;
+        this.auditPercent = auditPercent;
+        this.processedDocuments = processedDocuments;
+        this.totalDocuments = totalDocuments;
+        this.issuesCount = issuesCount;
+        this.message = message;
+    }
+
+    public Long getAuditId() { return auditId; }
+
+    public Long getDocumentId() { return documentId; }
+
+    public String getDocumentName() { return documentName; }
+
+    public Stage getStage() { return stage; }
+
+    public int getDocumentPercent() { return documentPercent; }
+
+    public int getAuditPercent() { return auditPercent; }
+
+    public int getProcessedDocuments() { return processedDocuments; }
+
+    public int getTotalDocuments() { return totalDocuments; }
+
+    public int getIssuesCount() { return issuesCount; }
+
+    public String getMessage() { return message; }
+}
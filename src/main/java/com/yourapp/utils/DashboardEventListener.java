@@ -1,23 +1,60 @@
 package com.yourapp.utils;
 
+import com.yourapp.services.DashboardCache;
 import com.yourapp.utils.DashboardRefreshEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import javafx.application.Platform;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.lang.ref.WeakReference;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Listener pour gérer les événements de rafraîchissement du dashboard
+ * Les événements invalident le cache; les rafraîchissements sont regroupés: au plus un par
+ * app.dashboard.refresh-debounce-ms, quelle que soit la rafale d'événements (création, démarrage, fin d'audit...)
  */
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class DashboardEventListener {
 
+    private final DashboardCache dashboardCache;
+
+    @Value("${app.dashboard.refresh-debounce-ms:1000}")
+    private long debounceMillis;
+
     // Utilisation de WeakReference pour éviter les fuites mémoire
     private WeakReference<com.yourapp.controller.DashboardController> dashboardControllerRef;
 
+    private ScheduledExecutorService refreshScheduler;
+
+    // Sections invalidées depuis le dernier rafraîchissement; non vide = rafraîchissement planifié
+    private final Set<DashboardRefreshEvent.Section> pendingSections = EnumSet.noneOf(DashboardRefreshEvent.Section.class);
+
+    @PostConstruct
+    void initScheduler() {
+        refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdownScheduler() {
+        refreshScheduler.shutdownNow();
+    }
+
     /**
      * Enregistrer le contrôleur du dashboard
      */
@@ -28,10 +65,28 @@ public class DashboardEventListener {
 
     /**
      * Écouter les événements de rafraîchissement
+     * Après le commit de la transaction qui publie: le rechargement voit les nouvelles données
      */
-    @EventListener
+    @TransactionalEventListener(fallbackExecution = true)
     public void handleDashboardRefresh(DashboardRefreshEvent event) {
         log.info("🔔 Événement reçu: {}", event.getReason());
+        dashboardCache.invalidate(event.getSections());
+
+        synchronized (pendingSections) {
+            boolean scheduled = !pendingSections.isEmpty();
+            pendingSections.addAll(event.getSections());
+            if (!scheduled) {
+                refreshScheduler.schedule(this::refreshDashboard, debounceMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void refreshDashboard() {
+        Set<DashboardRefreshEvent.Section> sections;
+        synchronized (pendingSections) {
+            sections = EnumSet.copyOf(pendingSections);
+            pendingSections.clear();
+        }
 
         if (dashboardControllerRef != null) {
             com.yourapp.controller.DashboardController controller = dashboardControllerRef.get();
@@ -41,7 +96,7 @@ public class DashboardEventListener {
                 Platform.runLater(() -> {
                     try {
                         controller.refresh();
-                        log.info("✅ Dashboard rafraîchi suite à: {}", event.getReason());
+                        log.info("✅ Dashboard rafraîchi ({})", sections);
                     } catch (Exception e) {
                         log.error("❌ Erreur lors du rafraîchissement du dashboard", e);
                     }
@@ -51,4 +106,4 @@ public class DashboardEventListener {
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -2,19 +2,45 @@ package com.yourapp.utils;
 
 import org.springframework.context.ApplicationEvent;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Event déclenché quand le dashboard doit être rafraîchi
+ * Indique les parties du dashboard touchées par le changement (toutes par défaut)
  */
 public class DashboardRefreshEvent extends ApplicationEvent {
 
+    /**
+     * Parties du dashboard, mises en cache séparément
+     */
+    public enum Section {
+        STATS,       // compteurs et score de conformité
+        PROJECTS,    // progression des projets
+        ACTIVITIES   // activités récentes
+    }
+
     private final String reason;
+    private final Set<Section> sections;
 
     public DashboardRefreshEvent(Object source, String reason) {
+        this(source, reason, Section.values());
+    }
+
+    public DashboardRefreshEvent(Object source, String reason, Section... sections) {
         super(source);
         this.reason = reason;
+        this.sections = Collections.unmodifiableSet(sections.length == 0
+                ? EnumSet.allOf(Section.class)
+                : EnumSet.of(sections[0], sections));
     }
 
     public String getReason() {
         return reason;
     }
-}
\ No newline at end of file
+
+    public Set<Section> getSections() {
+        return sections;
+    }
+}
@@ -0,0 +1,109 @@
+-- Schéma initial (avant V2), tel que validé par les entités JPA.
+-- Une base existante n'exécute pas ce script: baseline-on-migrate la marque directement en version 1.
+CREATE TABLE IF NOT EXISTS app_users (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    full_name       VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL UNIQUE,
+    password_hash   VARCHAR(255) NOT NULL,
+    role            VARCHAR(255) NOT NULL,
+    email_alerts    BOOLEAN,
+    audit_reminders BOOLEAN,
+    created_at      TIMESTAMP(6),
+    updated_at      TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS password_reset_tokens (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token       VARCHAR(255) NOT NULL UNIQUE,
+    user_id     BIGINT       NOT NULL REFERENCES app_users (id) ON DELETE CASCADE,
+    expiry_date TIMESTAMP(6) NOT NULL,
+    created_at  TIMESTAMP(6),
+    used        BOOLEAN
+);
+
+CREATE TABLE IF NOT EXISTS projects (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                VARCHAR(255),
+    description         TEXT,
+    start_date          DATE,
+    end_date            DATE,
+    prochain_audit_date DATE,
+    partner             VARCHAR(255),
+    status              VARCHAR(255),
+    progress            INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS audit_template (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(255) NOT NULL,
+    organization VARCHAR(255),
+    description  TEXT,
+    rule_count   INTEGER      NOT NULL DEFAULT 0,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS audit (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    organization   VARCHAR(255) NOT NULL,
+    project_id     BIGINT       NOT NULL,
+    project_name   VARCHAR(255),
+    model_id       BIGINT       NOT NULL,
+    model_name     VARCHAR(255),
+    audit_date     DATE         NOT NULL,
+    status         VARCHAR(50)  NOT NULL,
+    score          INTEGER,
+    problems_count INTEGER,
+    comments       TEXT,
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS auditdocument (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    audit_id      BIGINT       NOT NULL REFERENCES audit (id) ON DELETE CASCADE,
+    document_name VARCHAR(255) NOT NULL,
+    document_path VARCHAR(512) NOT NULL,
+    uploaded_at   TIMESTAMP(6),
+    status        VARCHAR(50),
+    analyzed_at   TIMESTAMP(6),
+    error_message TEXT,
+    issues_count  INTEGER,
+    project_id    BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS audit_issue (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    audit_id         BIGINT NOT NULL REFERENCES audit (id) ON DELETE CASCADE,
+    document_id      BIGINT REFERENCES auditdocument (id) ON DELETE CASCADE,
+    page_number      INTEGER,
+    paragraph_number INTEGER,
+    issue_type       VARCHAR(100),
+    description      TEXT,
+    suggestion       TEXT,
+    status           VARCHAR(50),
+    reported_at      TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS audit_report (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    audit_id       BIGINT       NOT NULL,
+    generated_at   TIMESTAMP(6) NOT NULL,
+    report_path    VARCHAR(512) NOT NULL,
+    report_summary TEXT,
+    score          INTEGER,
+    problems_count INTEGER,
+    CONSTRAINT fk_auditreport_audit FOREIGN KEY (audit_id) REFERENCES audit (id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS notifications (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id           BIGINT       NOT NULL,
+    user_name         VARCHAR(255),
+    project_id        BIGINT,
+    audit_id          BIGINT,
+    notification_type VARCHAR(255),
+    message           VARCHAR(500) NOT NULL,
+    is_read           BOOLEAN,
+    created_at        TIMESTAMP(6)
+);
@@ -0,0 +1,5 @@
+-- Stockage par contenu: empreinte SHA-256 du blob référencé par chaque document
+ALTER TABLE auditdocument ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+-- Comptage des références lors de la suppression d'un document
+CREATE INDEX IF NOT EXISTS idx_auditdocument_content_hash ON auditdocument (content_hash);
@@ -0,0 +1,22 @@
+-- Jobs d'analyse persistants: reprise après redémarrage, annulation, suivi par document
+CREATE TABLE IF NOT EXISTS audit_job (
+    id                  BIGSERIAL PRIMARY KEY,
+    audit_id            BIGINT      NOT NULL REFERENCES audit (id) ON DELETE CASCADE,
+    status              VARCHAR(20) NOT NULL,
+    total_documents     INTEGER,
+    processed_documents INTEGER,
+    failed_documents    INTEGER,
+    attempts            INTEGER,
+    cancel_requested    BOOLEAN     NOT NULL DEFAULT FALSE,
+    error_message       TEXT,
+    created_at          TIMESTAMP,
+    started_at          TIMESTAMP,
+    deadline_at         TIMESTAMP,
+    finished_at         TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_audit_job_audit_id ON audit_job (audit_id);
+
+-- Reprise au démarrage: seuls les jobs actifs sont lus
+CREATE INDEX IF NOT EXISTS idx_audit_job_active ON audit_job (status)
+    WHERE status IN ('QUEUED', 'RUNNING');
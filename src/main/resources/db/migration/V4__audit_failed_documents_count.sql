@@ -0,0 +1,2 @@
+-- Succès partiel d'une analyse: nombre de documents en échec
+ALTER TABLE audit ADD COLUMN IF NOT EXISTS failed_documents_count INTEGER;
@@ -0,0 +1,6 @@
+-- Ordonnancement équitable des analyses en file: coût estimé et demandeur de chaque job
+ALTER TABLE audit_job ADD COLUMN IF NOT EXISTS submitted_by BIGINT;
+ALTER TABLE audit_job ADD COLUMN IF NOT EXISTS estimated_cost BIGINT;
+
+-- Priorité d'un projet dans la file d'analyse (poids du partage équitable, 1 = normal)
+ALTER TABLE projects ADD COLUMN IF NOT EXISTS audit_priority INTEGER NOT NULL DEFAULT 1;
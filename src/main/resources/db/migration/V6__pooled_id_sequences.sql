@@ -0,0 +1,27 @@
+-- Identifiants par séquence (pas de 50, optimiseur "pooled" d'Hibernate) pour les tables insérées en lot:
+-- avec IDENTITY, Hibernate doit lire chaque id après son INSERT et ne peut pas grouper les insertions.
+-- Chaque séquence démarre après le plus grand id existant.
+CREATE SEQUENCE IF NOT EXISTS audit_issue_seq INCREMENT BY 50;
+SELECT setval('audit_issue_seq', COALESCE((SELECT MAX(id) FROM audit_issue), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS auditdocument_seq INCREMENT BY 50;
+SELECT setval('auditdocument_seq', COALESCE((SELECT MAX(id) FROM auditdocument), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS notifications_seq INCREMENT BY 50;
+SELECT setval('notifications_seq', COALESCE((SELECT MAX(id) FROM notifications), 0) + 50, false);
+
+-- Les ids sont désormais fournis par l'application: une colonne GENERATED ALWAYS les refuserait
+DO $$
+DECLARE
+    target RECORD;
+BEGIN
+    FOR target IN
+        SELECT table_name FROM information_schema.columns
+        WHERE table_schema = current_schema()
+          AND table_name IN ('audit_issue', 'auditdocument', 'notifications')
+          AND column_name = 'id'
+          AND identity_generation = 'ALWAYS'
+    LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET GENERATED BY DEFAULT', target.table_name);
+    END LOOP;
+END $$;
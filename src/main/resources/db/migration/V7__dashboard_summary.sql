@@ -0,0 +1,114 @@
+-- Compteurs du tableau de bord tenus à jour par triggers, dans la transaction qui modifie les audits/projets:
+-- la lecture du dashboard est une ligne par clé primaire, quel que soit l'historique.
+-- Portées: '*' (toutes les données) et 'org:<organisation>' (audits d'une organisation)
+CREATE TABLE IF NOT EXISTS dashboard_summary (
+    scope               VARCHAR(300) PRIMARY KEY,
+    total_audits        BIGINT    NOT NULL DEFAULT 0,
+    audits_conforme     BIGINT    NOT NULL DEFAULT 0,
+    audits_non_conforme BIGINT    NOT NULL DEFAULT 0,
+    total_projects      BIGINT    NOT NULL DEFAULT 0,
+    updated_at          TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Classe d'un audit pour le dashboard: 1 = conforme, 2 = non conforme, 0 = aucune des deux
+-- (mêmes règles que DashboardService avant ce compteur: terminé avec moins de 5 problèmes / 5 problèmes ou plus)
+CREATE OR REPLACE FUNCTION dashboard_audit_class(p_status VARCHAR, p_problems BIGINT) RETURNS INTEGER AS $$
+    SELECT CASE
+        WHEN p_problems >= 5 THEN 2
+        WHEN p_status = 'COMPLETED' AND p_problems < 5 THEN 1
+        ELSE 0
+    END;
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE OR REPLACE FUNCTION dashboard_summary_add(p_scope VARCHAR, p_audits BIGINT, p_conforme BIGINT,
+                                                 p_non_conforme BIGINT, p_projects BIGINT) RETURNS VOID AS $$
+    INSERT INTO dashboard_summary AS s (scope, total_audits, audits_conforme, audits_non_conforme, total_projects)
+    VALUES (p_scope, p_audits, p_conforme, p_non_conforme, p_projects)
+    ON CONFLICT (scope) DO UPDATE SET
+        total_audits        = s.total_audits + EXCLUDED.total_audits,
+        audits_conforme     = s.audits_conforme + EXCLUDED.audits_conforme,
+        audits_non_conforme = s.audits_non_conforme + EXCLUDED.audits_non_conforme,
+        total_projects      = s.total_projects + EXCLUDED.total_projects,
+        updated_at          = now();
+$$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION dashboard_summary_audit_delta(p_organization VARCHAR, p_class INTEGER, p_sign INTEGER)
+    RETURNS VOID AS $$
+BEGIN
+    PERFORM dashboard_summary_add('*', p_sign,
+            CASE WHEN p_class = 1 THEN p_sign ELSE 0 END, CASE WHEN p_class = 2 THEN p_sign ELSE 0 END, 0);
+    PERFORM dashboard_summary_add('org:' || p_organization, p_sign,
+            CASE WHEN p_class = 1 THEN p_sign ELSE 0 END, CASE WHEN p_class = 2 THEN p_sign ELSE 0 END, 0);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION dashboard_summary_audit_trg() RETURNS TRIGGER AS $$
+DECLARE
+    old_class INTEGER;
+    new_class INTEGER;
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        old_class := dashboard_audit_class(OLD.status, OLD.problems_count);
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        new_class := dashboard_audit_class(NEW.status, NEW.problems_count);
+    END IF;
+
+    -- Changement sans effet sur les compteurs (ex: IN_PROGRESS -> FAILED): ne pas verrouiller la ligne '*'
+    IF TG_OP = 'UPDATE' AND old_class = new_class AND OLD.organization IS NOT DISTINCT FROM NEW.organization THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP <> 'INSERT' THEN
+        PERFORM dashboard_summary_audit_delta(OLD.organization, old_class, -1);
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        PERFORM dashboard_summary_audit_delta(NEW.organization, new_class, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION dashboard_summary_project_trg() RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM dashboard_summary_add('*', 0, 0, 0, CASE WHEN TG_OP = 'INSERT' THEN 1 ELSE -1 END);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS audit_dashboard_summary ON audit;
+CREATE TRIGGER audit_dashboard_summary
+    AFTER INSERT OR DELETE OR UPDATE OF status, problems_count, organization ON audit
+    FOR EACH ROW EXECUTE FUNCTION dashboard_summary_audit_trg();
+
+DROP TRIGGER IF EXISTS projects_dashboard_summary ON projects;
+CREATE TRIGGER projects_dashboard_summary
+    AFTER INSERT OR DELETE ON projects
+    FOR EACH ROW EXECUTE FUNCTION dashboard_summary_project_trg();
+
+-- Compteurs initiaux à partir des données existantes
+DELETE FROM dashboard_summary;
+
+INSERT INTO dashboard_summary (scope, total_audits, audits_conforme, audits_non_conforme, total_projects)
+SELECT '*',
+       (SELECT COUNT(*) FROM audit),
+       (SELECT COUNT(*) FROM audit WHERE dashboard_audit_class(status, problems_count) = 1),
+       (SELECT COUNT(*) FROM audit WHERE dashboard_audit_class(status, problems_count) = 2),
+       (SELECT COUNT(*) FROM projects);
+
+INSERT INTO dashboard_summary (scope, total_audits, audits_conforme, audits_non_conforme, total_projects)
+SELECT 'org:' || organization,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE dashboard_audit_class(status, problems_count) = 1),
+       COUNT(*) FILTER (WHERE dashboard_audit_class(status, problems_count) = 2),
+       0
+FROM audit
+GROUP BY organization;
+
+-- Requêtes du dashboard: fenêtres de dates (mois, semaine) et derniers éléments (top-N)
+CREATE INDEX IF NOT EXISTS idx_audit_audit_date ON audit (audit_date);
+CREATE INDEX IF NOT EXISTS idx_audit_organization_audit_date ON audit (organization, audit_date);
+CREATE INDEX IF NOT EXISTS idx_audit_status_updated_at ON audit (status, updated_at DESC NULLS LAST);
+CREATE INDEX IF NOT EXISTS idx_auditdocument_uploaded_at ON auditdocument (uploaded_at DESC NULLS LAST);
+CREATE INDEX IF NOT EXISTS idx_projects_start_date ON projects (start_date DESC NULLS LAST);
+CREATE INDEX IF NOT EXISTS idx_projects_progress ON projects (progress DESC);
@@ -0,0 +1,6 @@
+-- Écran Historique: pagination par clé sur (generated_at, id), jointure rapport -> audit,
+-- tri par nom de projet et comptage des documents de chaque ligne
+CREATE INDEX IF NOT EXISTS idx_audit_report_generated_at_id ON audit_report (generated_at, id);
+CREATE INDEX IF NOT EXISTS idx_audit_report_audit_id ON audit_report (audit_id);
+CREATE INDEX IF NOT EXISTS idx_audit_project_name ON audit ((COALESCE(project_name, '')));
+CREATE INDEX IF NOT EXISTS idx_auditdocument_audit_id ON auditdocument (audit_id);
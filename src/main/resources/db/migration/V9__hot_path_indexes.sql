@@ -0,0 +1,28 @@
+-- Index des requêtes les plus fréquentes (évite les parcours séquentiels).
+-- Vérifiés au démarrage par SchemaIndexVerifier: tout nouvel index requis doit y être déclaré.
+
+-- Problèmes d'un audit, paginés par id (écran de résultats, API paginée) et comptés par type
+CREATE INDEX IF NOT EXISTS idx_audit_issue_audit_id_id ON audit_issue (audit_id, id);
+CREATE INDEX IF NOT EXISTS idx_audit_issue_audit_id_type ON audit_issue (audit_id, issue_type);
+
+-- Problèmes d'un document (suppression, filtre par document): beaucoup de lignes sans document
+CREATE INDEX IF NOT EXISTS idx_audit_issue_document_id ON audit_issue (document_id)
+    WHERE document_id IS NOT NULL;
+
+-- Documents d'un projet (idx_auditdocument_audit_id existe depuis V8)
+CREATE INDEX IF NOT EXISTS idx_auditdocument_project_id ON auditdocument (project_id);
+
+-- Notifications d'un utilisateur, les plus récentes d'abord, et badge des non lues
+CREATE INDEX IF NOT EXISTS idx_notifications_user_read_created
+    ON notifications (user_id, is_read, created_at DESC);
+CREATE INDEX IF NOT EXISTS idx_notifications_user_unread
+    ON notifications (user_id, created_at DESC) WHERE is_read = FALSE;
+
+-- Purge des notifications lues anciennes
+CREATE INDEX IF NOT EXISTS idx_notifications_read_created
+    ON notifications (created_at) WHERE is_read = TRUE;
+
+-- Dernier rapport d'un audit; remplace l'index simple sur audit_id créé par V8
+CREATE INDEX IF NOT EXISTS idx_audit_report_audit_id_generated_at
+    ON audit_report (audit_id, generated_at DESC);
+DROP INDEX IF EXISTS idx_audit_report_audit_id;
@@ -0,0 +1,229 @@
+package com.yourapp.services;
+
+import com.yourapp.AI.AiClient;
+import com.yourapp.AI.AiPromptBuilder;
+import com.yourapp.AI.AiResponseParser;
+import com.yourapp.DAO.AuditDocumentRepository;
+import com.yourapp.DAO.AuditIssueRepository;
+import com.yourapp.DAO.AuditRepository;
+import com.yourapp.DAO.AuditTemplateRepository;
+import com.yourapp.model.Audit;
+import com.yourapp.model.AuditDocument;
+import com.yourapp.model.AuditIssue;
+import com.yourapp.model.AuditTemplate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aucune connexion JDBC ne doit rester empruntée pendant l'extraction ni pendant l'appel IA:
+ * chaque emprunt de connexion est chronométré et comparé aux périodes d'extraction et d'inférence
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({AiAuditService.class, AuditIssueService.class, AiAuditServiceConnectionHoldTest.RecordingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AiAuditServiceConnectionHoldTest {
+
+    private static final long EXTRACTION_MILLIS = 300;
+    private static final long INFERENCE_MILLIS = 400;
+
+    // Périodes [début, fin] en nanosecondes
+    record Interval(long start, long end) {
+        boolean overlaps(Interval other) {
+            return start < other.end && other.start < end;
+        }
+
+        long millis() {
+            return (end - start) / 1_000_000;
+        }
+    }
+
+    static final List<Interval> connectionHolds = new CopyOnWriteArrayList<>();
+
+    /**
+     * Enveloppe la DataSource: durée entre l'emprunt et la restitution (close) de chaque connexion
+     */
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                            ? new RecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    static class RecordingDataSource extends DelegatingDataSource {
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws java.sql.SQLException {
+            return record(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws java.sql.SQLException {
+            return record(super.getConnection(username, password));
+        }
+
+        private Connection record(Connection connection) {
+            long checkedOut = System.nanoTime();
+            boolean[] closed = {false};
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("close") && !closed[0]) {
+                            closed[0] = true;
+                            connectionHolds.add(new Interval(checkedOut, System.nanoTime()));
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+
+    @MockBean
+    private AiClient aiClient;
+
+    @MockBean
+    private AiPromptBuilder promptBuilder;
+
+    @MockBean
+    private AiResponseParser responseParser;
+
+    @MockBean
+    private AuditDocumentService documentService;
+
+    @MockBean
+    private AuditProgressBus progressBus;
+
+    @MockBean
+    private AuditIssueCopyWriter copyWriter;
+
+    @Autowired
+    private AiAuditService aiAuditService;
+
+    @Autowired
+    private AuditRepository auditRepository;
+
+    @Autowired
+    private AuditDocumentRepository documentRepository;
+
+    @Autowired
+    private AuditTemplateRepository templateRepository;
+
+    @Autowired
+    private AuditIssueRepository issueRepository;
+
+    @Test
+    void analyzeDocumentHoldsNoConnectionDuringExtractionOrInference() throws Exception {
+        AuditTemplate template = templateRepository.save(new AuditTemplate("ISO 27001", "ISO", "Sécurité", 3));
+        Audit audit = auditRepository.save(newAudit(template));
+        AuditDocument document = documentRepository.save(newDocument(audit));
+
+        List<Interval> extractions = new CopyOnWriteArrayList<>();
+        List<Interval> inferences = new CopyOnWriteArrayList<>();
+
+        when(documentService.readDocumentStructure(anyLong())).thenAnswer(invocation -> {
+            long start = System.nanoTime();
+            Thread.sleep(EXTRACTION_MILLIS);
+            extractions.add(new Interval(start, System.nanoTime()));
+            return ExtractedContent.plain("Politique de sécurité.\n\nRevue annuelle des accès.");
+        });
+        when(promptBuilder.buildPrompt(any(AuditTemplate.class), any(ExtractedContent.class), anyString(), anyInt(), anyInt()))
+                .thenReturn("prompt");
+        when(aiClient.sendRequest(anyString())).thenAnswer(invocation -> {
+            long start = System.nanoTime();
+            Thread.sleep(INFERENCE_MILLIS);
+            inferences.add(new Interval(start, System.nanoTime()));
+            return "réponse";
+        });
+        when(responseParser.parseResponse(anyString(), any(Audit.class), any(AuditDocument.class), any(ExtractedContent.class)))
+                .thenAnswer(invocation -> List.of(newIssue(audit, document, "Non conformité"),
+                        newIssue(audit, document, "Manque de preuve")));
+
+        connectionHolds.clear();
+        aiAuditService.analyzeDocument(audit, document, template);
+
+        assertThat(extractions).hasSize(1);
+        assertThat(inferences).isNotEmpty();
+        assertThat(connectionHolds).as("connexions empruntées pendant l'analyse").isNotEmpty();
+        for (Interval hold : connectionHolds) {
+            assertThat(extractions).noneMatch(hold::overlaps);
+            assertThat(inferences).noneMatch(hold::overlaps);
+            assertThat(hold.millis()).as("durée d'emprunt d'une connexion (ms)").isLessThan(EXTRACTION_MILLIS);
+        }
+
+        AuditDocument analyzed = documentRepository.findById(document.getId()).orElseThrow();
+        assertThat(analyzed.getStatus()).isEqualTo("ANALYZED");
+        assertThat(analyzed.getIssuesCount()).isEqualTo(2 * inferences.size());
+        assertThat(issueRepository.findByDocument(analyzed)).hasSize(2 * inferences.size());
+    }
+
+    private static Audit newAudit(AuditTemplate template) {
+        Audit audit = new Audit();
+        audit.setOrganization("ISO");
+        audit.setProjectId(1L);
+        audit.setProjectName("Projet test");
+        audit.setModelId(template.getId());
+        audit.setModelName(template.getName());
+        audit.setAuditDate(LocalDate.now());
+        audit.setStatus("En cours");
+        return audit;
+    }
+
+    private static AuditDocument newDocument(Audit audit) {
+        AuditDocument document = new AuditDocument();
+        document.setAudit(audit);
+        document.setDocumentName("politique.txt");
+        document.setDocumentPath("uploads/politique.txt");
+        document.setStatus("UPLOADED");
+        return document;
+    }
+
+    private static AuditIssue newIssue(Audit audit, AuditDocument document, String type) {
+        AuditIssue issue = new AuditIssue();
+        issue.setAudit(audit);
+        issue.setDocument(document);
+        issue.setIssueType(type);
+        issue.setDescription("Constat: " + type);
+        return issue;
+    }
+}
@@ -0,0 +1,154 @@
+package com.yourapp.services;
+
+import com.yourapp.DAO.AuditDocumentRepository;
+import com.yourapp.DAO.AuditReportRepository;
+import com.yourapp.DAO.AuditRepository;
+import com.yourapp.dto.AuditReportDto;
+import com.yourapp.dto.AuditResponseDto;
+import com.yourapp.model.Audit;
+import com.yourapp.model.AuditDocument;
+import com.yourapp.model.AuditReport;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lister les audits et rapports d'un projet coûte un nombre de requêtes constant,
+ * quel que soit le nombre d'audits, de documents et de rapports du projet
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import({AuditService.class, AuditReportService.class, AuditDtoAssembler.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AuditDtoAssemblerQueryCountTest {
+
+    private static final long SMALL_PROJECT = 1L;
+    private static final long LARGE_PROJECT = 2L;
+
+    @MockBean
+    private AuditIssueService auditIssueService;
+
+    @MockBean
+    private AuditJobService auditJobService;
+
+    @MockBean
+    private AuditDocumentService auditDocumentService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditReportService auditReportService;
+
+    @Autowired
+    private AuditRepository auditRepository;
+
+    @Autowired
+    private AuditDocumentRepository documentRepository;
+
+    @Autowired
+    private AuditReportRepository reportRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        createProject(SMALL_PROJECT, 3);
+        createProject(LARGE_PROJECT, 40);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reportRepository.deleteAll();
+        documentRepository.deleteAll();
+        auditRepository.deleteAll();
+    }
+
+    @Test
+    void listingAuditsOfAProjectRunsAConstantNumberOfQueries() {
+        statistics.clear();
+        List<AuditResponseDto> small = auditService.getAuditsByProject(SMALL_PROJECT);
+        long smallQueries = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<AuditResponseDto> large = auditService.getAuditsByProject(LARGE_PROJECT);
+        long largeQueries = statistics.getPrepareStatementCount();
+
+        assertThat(small).hasSize(3);
+        assertThat(large).hasSize(40).allSatisfy(dto -> assertThat(dto.getDocuments()).hasSize(2));
+        // Audits, puis documents de tous les audits en une requête IN
+        assertThat(smallQueries).isEqualTo(2);
+        assertThat(largeQueries).isEqualTo(smallQueries);
+    }
+
+    @Test
+    void listingReportsOfAProjectRunsAConstantNumberOfQueries() {
+        statistics.clear();
+        List<AuditReportDto> small = auditReportService.getReportsByProject(SMALL_PROJECT);
+        long smallQueries = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<AuditReportDto> large = auditReportService.getReportsByProject(LARGE_PROJECT);
+        long largeQueries = statistics.getPrepareStatementCount();
+
+        assertThat(small).hasSize(6);
+        assertThat(large).hasSize(80).allSatisfy(dto -> assertThat(dto.getDocumentsAnalyzed()).isEqualTo(2));
+        // Rapports avec leur audit (JOIN FETCH), puis un GROUP BY pour les nombres de documents
+        assertThat(smallQueries).isEqualTo(2);
+        assertThat(largeQueries).isEqualTo(smallQueries);
+    }
+
+    // Chaque audit: 2 documents et 2 rapports
+    private void createProject(long projectId, int audits) {
+        for (int i = 0; i < audits; i++) {
+            Audit audit = auditRepository.save(newAudit(projectId, i));
+            documentRepository.save(newDocument(audit, "politique-" + i + ".pdf"));
+            documentRepository.save(newDocument(audit, "procedure-" + i + ".pdf"));
+            reportRepository.save(new AuditReport(audit, "reports/audit-" + audit.getId() + "-v1.txt", "Synthèse", 70, 3));
+            reportRepository.save(new AuditReport(audit, "reports/audit-" + audit.getId() + "-v2.txt", "Synthèse", 80, 2));
+        }
+    }
+
+    private static Audit newAudit(long projectId, int index) {
+        Audit audit = new Audit();
+        audit.setOrganization("ISO");
+        audit.setProjectId(projectId);
+        audit.setProjectName("Projet " + projectId);
+        audit.setModelId(1L);
+        audit.setModelName("ISO 27001");
+        audit.setAuditDate(LocalDate.now().minusDays(index));
+        audit.setStatus("COMPLETED");
+        return audit;
+    }
+
+    private static AuditDocument newDocument(Audit audit, String name) {
+        AuditDocument document = new AuditDocument();
+        document.setAudit(audit);
+        document.setDocumentName(name);
+        document.setDocumentPath("uploads/" + name);
+        document.setStatus("ANALYZED");
+        return document;
+    }
+}